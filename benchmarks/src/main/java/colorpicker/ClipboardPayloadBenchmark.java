@@ -0,0 +1,72 @@
+package colorpicker;
+
+import java.awt.Color;
+import java.awt.datatransfer.DataFlavor;
+import java.awt.datatransfer.StringSelection;
+import java.awt.datatransfer.Transferable;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The {@code ClipboardPayloadBenchmark} class measures building the 
+ * {@code Transferable} handed to the system clipboard when a color is copied.
+ * The clipboard itself is not touched, so this runs without a display.
+ * 
+ * @author Oliver Abdulrahim
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class ClipboardPayloadBenchmark {
+    
+    private int rgb;
+    
+    /**
+     * Measures the original payload, built from a {@code Color} formatted 
+     * through {@code String.format}.
+     * 
+     * @return The clipboard payload.
+     */
+    @Benchmark
+    public Transferable legacy() {
+        rgb = (rgb + 0x010203) & PackedColor.RGB_MASK;
+        Color preview = new Color(rgb);
+        return new StringSelection(String.format("#%06X", (0xFFFFFF & preview.hashCode())));
+    }
+    
+    /**
+     * Measures the payload built from the packed color.
+     * 
+     * @return The clipboard payload.
+     */
+    @Benchmark
+    public Transferable packed() {
+        rgb = (rgb + 0x010203) & PackedColor.RGB_MASK;
+        return new StringSelection(PackedColor.toHexString(rgb));
+    }
+    
+    /**
+     * Measures the multi-flavor payload together with the plain text a paste
+     * into a text field would request from it.
+     * 
+     * @return The plain text of the clipboard payload.
+     * @throws Exception if the flavor is not supported.
+     */
+    @Benchmark
+    public Object multiFlavor() throws Exception {
+        rgb = (rgb + 0x010203) & PackedColor.RGB_MASK;
+        return new ColorTransferable(rgb).getTransferData(DataFlavor.stringFlavor);
+    }
+    
+}
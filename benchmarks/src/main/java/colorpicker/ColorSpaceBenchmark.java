@@ -0,0 +1,59 @@
+package colorpicker;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The {@code ColorSpaceBenchmark} class measures bulk conversion of an image
+ * sized buffer of packed colors to and from every {@link ColorSpace}.
+ * 
+ * @author Oliver Abdulrahim
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ColorSpaceBenchmark {
+    
+    @Param({"HSV", "LAB", "OKLAB"})
+    private ColorSpace space;
+    
+    @Param({"4194304"})
+    private int pixels;
+    
+    private int[] rgb;
+    private float[] components;
+    
+    @Setup
+    public void setUp() {
+        rgb = ThreadLocalRandom.current().ints(pixels, 0, PackedColor.RGB_MASK + 1).toArray();
+        components = new float[pixels * ColorSpace.COMPONENTS];
+        space.fromRGB(rgb, 0, components, 0, pixels);
+    }
+    
+    @Benchmark
+    public float[] fromRGB() {
+        space.fromRGB(rgb, 0, components, 0, pixels);
+        return components;
+    }
+    
+    @Benchmark
+    public int[] toRGB() {
+        space.toRGB(components, 0, rgb, 0, pixels);
+        return rgb;
+    }
+    
+}
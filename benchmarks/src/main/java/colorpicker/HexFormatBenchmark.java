@@ -0,0 +1,79 @@
+package colorpicker;
+
+import java.awt.Color;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The {@code HexFormatBenchmark} class measures hex formatting of a color, 
+ * comparing the original {@code String.format} implementation of 
+ * {@code colorToHexString} against {@link PackedColor}.
+ * 
+ * @author Oliver Abdulrahim
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HexFormatBenchmark {
+    
+    /**
+     * Stores the color being formatted, advanced every invocation so that the
+     * work cannot be folded into a constant.
+     */
+    private int rgb;
+    
+    /**
+     * Stores the reusable buffer of the allocation-free encoder.
+     */
+    private final char[] buffer = new char[PackedColor.HEX_LENGTH];
+    
+    /**
+     * Measures the original implementation, which boxes the components into a
+     * {@code Color} and formats through {@code String.format}.
+     * 
+     * @return The formatted color.
+     */
+    @Benchmark
+    public String stringFormat() {
+        rgb = (rgb + 0x010203) & PackedColor.RGB_MASK;
+        Color c = new Color(rgb);
+        return String.format("#%06X", (0xFFFFFF & c.hashCode()));
+    }
+    
+    /**
+     * Measures {@link PackedColor#toHexString(int)}, which allocates only the 
+     * resulting {@code String}.
+     * 
+     * @return The formatted color.
+     */
+    @Benchmark
+    public String packedToHexString() {
+        rgb = (rgb + 0x010203) & PackedColor.RGB_MASK;
+        return PackedColor.toHexString(rgb);
+    }
+    
+    /**
+     * Measures {@link PackedColor#encodeHex(int, char[], int)} into a reused
+     * buffer, which should not allocate at all.
+     * 
+     * @return The buffer holding the formatted color.
+     */
+    @Benchmark
+    public char[] packedEncodeHex() {
+        rgb = (rgb + 0x010203) & PackedColor.RGB_MASK;
+        PackedColor.encodeHex(rgb, buffer, 0);
+        return buffer;
+    }
+    
+}
@@ -0,0 +1,77 @@
+package colorpicker;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The {@code LutBenchmark} class measures grading a preview sized buffer of
+ * smoothly varying colors, like those of a photograph, through a 33 point
+ * {@link ColorLut} with each {@link ColorLut.Interpolation}.
+ *
+ * @author Oliver Abdulrahim
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LutBenchmark {
+
+    @Param({"TRILINEAR", "TETRAHEDRAL"})
+    private ColorLut.Interpolation interpolation;
+
+    private ColorLut lut;
+    private int[] rgb;
+    private int[] graded;
+
+    @Setup
+    public void setUp() throws IOException {
+        int size = 33;
+        StringBuilder cube = new StringBuilder("LUT_3D_SIZE ").append(size).append('\n');
+        for (int b = 0; b < size; b++) {
+            for (int g = 0; g < size; g++) {
+                for (int r = 0; r < size; r++) {
+                    float red = r / (size - 1f);
+                    float green = g / (size - 1f);
+                    float blue = b / (size - 1f);
+                    cube.append(red * red).append(' ')
+                        .append((float) Math.sqrt(green)).append(' ')
+                        .append(0.9f * blue + 0.1f * red).append('\n');
+                }
+            }
+        }
+        lut = ColorLut.read(new ByteArrayInputStream(
+                cube.toString().getBytes(StandardCharsets.US_ASCII)));
+        int width = LutPreview.MAX_WIDTH;
+        int height = LutPreview.MAX_HEIGHT;
+        rgb = new int[width * height];
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                rgb[y * width + x] = PackedColor.pack(255 * x / width, 255 * y / height,
+                                                      (x + y) & 0xFF);
+            }
+        }
+        graded = new int[rgb.length];
+    }
+
+    @Benchmark
+    public int[] apply() {
+        lut.apply(rgb, 0, graded, 0, rgb.length, interpolation);
+        return graded;
+    }
+
+}
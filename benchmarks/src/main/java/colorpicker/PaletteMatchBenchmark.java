@@ -0,0 +1,56 @@
+package colorpicker;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The {@code PaletteMatchBenchmark} class measures quantizing random colors
+ * to the CSS named colors with a {@link PaletteMatcher}, either searching the
+ * palette for each color or reading its precomputed table.
+ *
+ * @author Oliver Abdulrahim
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PaletteMatchBenchmark {
+
+    @Param({"false", "true"})
+    private boolean table;
+
+    @Param({"65536"})
+    private int pixels;
+
+    private PaletteMatcher matcher;
+    private int[] rgb;
+    private int[] quantized;
+
+    @Setup
+    public void setUp() {
+        NamedColorIndex palette = NamedColorIndex.getDefault().join();
+        matcher = table ? PaletteMatcher.withTable(palette) : PaletteMatcher.of(palette);
+        rgb = ThreadLocalRandom.current().ints(pixels, 0, PackedColor.RGB_MASK + 1).toArray();
+        quantized = new int[pixels];
+    }
+
+    @Benchmark
+    public int[] quantize() {
+        matcher.quantize(rgb, 0, quantized, 0, pixels);
+        return quantized;
+    }
+
+}
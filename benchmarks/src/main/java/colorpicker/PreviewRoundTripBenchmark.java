@@ -0,0 +1,143 @@
+package colorpicker;
+
+import java.awt.Color;
+import java.util.concurrent.TimeUnit;
+import javax.swing.JLabel;
+import javax.swing.JSlider;
+import javax.swing.JSpinner;
+import javax.swing.SpinnerNumberModel;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The {@code PreviewRoundTripBenchmark} class measures a single slider step
+ * travelling through the Swing models to the preview, without a display. Both
+ * benchmarks build the same three sliders, three spinners, preview label, and
+ * simulation labels, and paint the same labels for every step. The
+ * {@code legacy} benchmark wires them the way the picker originally did,
+ * with sliders and spinners setting each other and every hop re-reading the
+ * spinners, repainting the preview, and formatting the tooltip. The
+ * {@code model} benchmark runs the picker's own {@link ColorControls}, with
+ * the coalesced {@link ColorControls#updateColorPreview()} run once per
+ * step, as the frame timer would.
+ *
+ * @author Oliver Abdulrahim
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class PreviewRoundTripBenchmark {
+
+    private static final ColorDeficiency[] DEFICIENCIES = ColorDeficiency.values();
+
+    private JSlider[] legacySliders;
+    private JSpinner[] legacySpinners;
+    private JLabel legacyColorLabel;
+    private JLabel[] legacySimulationLabels;
+
+    private JSlider[] sliders;
+    private ColorControls controls;
+
+    /**
+     * Stores the value the slider is moved to next.
+     */
+    private int step;
+
+    @Setup
+    public void setUp() {
+        legacySliders = sliders();
+        legacySpinners = spinners();
+        legacyColorLabel = new JLabel();
+        legacySimulationLabels = simulationLabels();
+        for (int i = 0; i < legacySliders.length; i++) {
+            JSlider slider = legacySliders[i];
+            JSpinner spinner = legacySpinners[i];
+            slider.addChangeListener(evt -> {
+                spinner.setValue(slider.getValue());
+                legacyPreview();
+            });
+            spinner.addChangeListener(evt -> {
+                slider.setValue((Integer) spinner.getValue());
+                legacyPreview();
+            });
+        }
+
+        sliders = sliders();
+        int gray = PackedColor.pack(ColorPicker.DEFAULT_COLOR_VALUE,
+                                    ColorPicker.DEFAULT_COLOR_VALUE,
+                                    ColorPicker.DEFAULT_COLOR_VALUE);
+        controls = new ColorControls(new ColorModel(gray), new PipelineMonitor(), sliders,
+                                     spinners(), new JLabel(), simulationLabels());
+        controls.updateColorPreview();
+    }
+
+    private static JSlider[] sliders() {
+        JSlider[] sliders = new JSlider[3];
+        for (int i = 0; i < sliders.length; i++) {
+            sliders[i] = new JSlider(ColorPicker.MIN_COLOR_VALUE, ColorPicker.MAX_COLOR_VALUE,
+                                     ColorPicker.DEFAULT_COLOR_VALUE);
+        }
+        return sliders;
+    }
+
+    private static JSpinner[] spinners() {
+        JSpinner[] spinners = new JSpinner[3];
+        for (int i = 0; i < spinners.length; i++) {
+            spinners[i] = new JSpinner(new SpinnerNumberModel(ColorPicker.DEFAULT_COLOR_VALUE,
+                                                              ColorPicker.MIN_COLOR_VALUE,
+                                                              ColorPicker.MAX_COLOR_VALUE, 1));
+        }
+        return spinners;
+    }
+
+    private static JLabel[] simulationLabels() {
+        JLabel[] labels = new JLabel[DEFICIENCIES.length];
+        for (int i = 0; i < labels.length; i++) {
+            labels[i] = new JLabel();
+        }
+        return labels;
+    }
+
+    /**
+     * Mirrors the original {@code updateColorPreview()}, which re-read the
+     * spinners and formatted the tooltip on every call, painting the same
+     * labels as {@link ColorControls#updateColorPreview()}.
+     */
+    private void legacyPreview() {
+        int red = (Integer) legacySpinners[0].getValue();
+        int green = (Integer) legacySpinners[1].getValue();
+        int blue = (Integer) legacySpinners[2].getValue();
+        Color c = new Color(red, green, blue);
+        int rgb = c.getRGB() & PackedColor.RGB_MASK;
+        legacyColorLabel.setBackground(c);
+        for (int i = 0; i < DEFICIENCIES.length; i++) {
+            legacySimulationLabels[i].setBackground(new Color(DEFICIENCIES[i].simulate(rgb)));
+        }
+        legacyColorLabel.setToolTipText(String.format("#%06X", (0xFFFFFF & c.hashCode())));
+    }
+
+    @Benchmark
+    public void legacy() {
+        step = (step + 1) & ColorPicker.MAX_COLOR_VALUE;
+        legacySliders[0].setValue(step);
+    }
+
+    @Benchmark
+    public void model() {
+        step = (step + 1) & ColorPicker.MAX_COLOR_VALUE;
+        sliders[0].setValue(step);
+        controls.updateColorPreview();
+    }
+
+}
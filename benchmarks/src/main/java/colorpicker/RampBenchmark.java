@@ -0,0 +1,76 @@
+package colorpicker;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The {@code RampBenchmark} class measures reading a 65,536 step
+ * {@link ColorRamp} as a stream, and exporting it in each
+ * {@link ColorRamp.Format} to a channel that discards its input.
+ *
+ * @author Oliver Abdulrahim
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RampBenchmark {
+
+    @Param({"CSS", "JSON", "ASE"})
+    private ColorRamp.Format format;
+
+    private ColorRamp ramp;
+    private WritableByteChannel sink;
+
+    @Setup
+    public void setUp() {
+        ramp = ColorRamp.of(ColorRamp.Harmony.TRIADIC.colors(0xFF8000), 1 << 16);
+        sink = new WritableByteChannel() {
+
+            @Override
+            public int write(ByteBuffer src) {
+                int length = src.remaining();
+                src.position(src.limit());
+                return length;
+            }
+
+            @Override
+            public boolean isOpen() {
+                return true;
+            }
+
+            @Override
+            public void close() {
+
+            }
+
+        };
+    }
+
+    @Benchmark
+    public long stream() {
+        return ramp.stream().asLongStream().sum();
+    }
+
+    @Benchmark
+    public WritableByteChannel write() throws IOException {
+        ramp.write(format, sink);
+        return sink;
+    }
+
+}
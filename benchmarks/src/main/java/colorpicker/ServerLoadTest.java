@@ -0,0 +1,202 @@
+package colorpicker;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * The {@code ServerLoadTest} class contains a load generator for the
+ * {@link ConversionServer}. Each connection sends batches of pipelined
+ * requests, a random mix of conversions, nearest color, and contrast queries,
+ * and waits for every response of a batch before sending the next one. The
+ * throughput and the latency of each batch are reported once the test ends.
+ *
+ * <p>Usage:
+ * <pre>
+ * java -cp benchmarks/target/benchmarks.jar colorpicker.ServerLoadTest
+ *         [--port PORT] [--connections N] [--batch N] [--seconds N]
+ * </pre>
+ * A server is started in-process unless a port is given. The first seconds
+ * are a warmup and are not measured.
+ *
+ * @author Oliver Abdulrahim
+ */
+public class ServerLoadTest {
+
+    /**
+     * Stores the duration of the warmup, in seconds.
+     */
+    private static final int WARMUP_SECONDS = 3;
+
+    /**
+     * Stores the amount of distinct batches each connection cycles through.
+     */
+    private static final int BATCH_VARIANTS = 256;
+
+    /**
+     * Builds the given amount of distinct batches of the given amount of
+     * random requests each.
+     */
+    private static byte[][] batches(int size, long seed) {
+        Random random = new Random(seed);
+        byte[][] batches = new byte[BATCH_VARIANTS][];
+        for (int i = 0; i < batches.length; i++) {
+            StringBuilder batch = new StringBuilder(32 * size);
+            for (int j = 0; j < size; j++) {
+                String hex = PackedColor.toHexString(random.nextInt(PackedColor.RGB_MASK + 1));
+                switch (random.nextInt(4)) {
+                    case 0:
+                        batch.append("CONVERT hex rgb ").append(hex);
+                        break;
+                    case 1:
+                        batch.append("CONVERT hex oklab ").append(hex);
+                        break;
+                    case 2:
+                        batch.append("NEAREST ").append(hex);
+                        break;
+                    default:
+                        batch.append("CONTRAST ").append(hex).append(" #FFFFFF");
+                        break;
+                }
+                batch.append('\n');
+            }
+            batches[i] = batch.toString().getBytes(StandardCharsets.US_ASCII);
+        }
+        return batches;
+    }
+
+    /**
+     * The {@code Client} class contains one connection of the load test.
+     */
+    private static final class Client extends Thread {
+
+        private final int port;
+        private final int batchSize;
+        private final long warmupEnd;
+        private final long end;
+        private final CountDownLatch done;
+        private final LatencyHistogram latencies = new LatencyHistogram();
+        private long requests;
+        private IOException failure;
+
+        Client(int id, int port, int batchSize, long warmupEnd, long end, CountDownLatch done) {
+            super("Load test client " + id);
+            this.port = port;
+            this.batchSize = batchSize;
+            this.warmupEnd = warmupEnd;
+            this.end = end;
+            this.done = done;
+        }
+
+        @Override
+        public void run() {
+            byte[][] batches = batches(batchSize, getName().hashCode());
+            byte[] buffer = new byte[64 * 1024];
+            try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), port)) {
+                socket.setTcpNoDelay(true);
+                InputStream in = socket.getInputStream();
+                OutputStream out = socket.getOutputStream();
+                for (int i = 0; ; i++) {
+                    long start = System.nanoTime();
+                    if (start >= end) {
+                        break;
+                    }
+                    out.write(batches[i % batches.length]);
+                    int lines = 0;
+                    while (lines < batchSize) {
+                        int read = in.read(buffer);
+                        if (read < 0) {
+                            throw new IOException("Server closed the connection");
+                        }
+                        for (int j = 0; j < read; j++) {
+                            if (buffer[j] == '\n') {
+                                lines++;
+                            }
+                        }
+                    }
+                    if (start >= warmupEnd) {
+                        latencies.record(System.nanoTime() - start);
+                        requests += batchSize;
+                    }
+                }
+            } catch (IOException ex) {
+                failure = ex;
+            } finally {
+                done.countDown();
+            }
+        }
+
+    }
+
+    /**
+     * Runs the load test described by the command-line arguments.
+     *
+     * @param args The command-line arguments.
+     * @throws Exception if the test could not be run.
+     */
+    public static void main(String[] args) throws Exception {
+        int port = -1;
+        int connections = Runtime.getRuntime().availableProcessors();
+        int batchSize = 16;
+        int seconds = 10;
+        for (int i = 0; i < args.length; i++) {
+            String arg = args[i];
+            if (arg.equals("--port") && i + 1 < args.length) {
+                port = Integer.parseInt(args[++i]);
+            } else if (arg.equals("--connections") && i + 1 < args.length) {
+                connections = Integer.parseInt(args[++i]);
+            } else if (arg.equals("--batch") && i + 1 < args.length) {
+                batchSize = Integer.parseInt(args[++i]);
+            } else if (arg.equals("--seconds") && i + 1 < args.length) {
+                seconds = Integer.parseInt(args[++i]);
+            } else {
+                System.err.println("Usage: ServerLoadTest [--port PORT] [--connections N] "
+                        + "[--batch N] [--seconds N]");
+                System.exit(2);
+            }
+        }
+        ConversionServer server = null;
+        if (port < 0) {
+            server = new ConversionServer(NamedColorIndex.getDefault().join());
+            port = server.start(0);
+        }
+
+        long warmupEnd = System.nanoTime() + WARMUP_SECONDS * 1_000_000_000L;
+        long end = warmupEnd + seconds * 1_000_000_000L;
+        CountDownLatch done = new CountDownLatch(connections);
+        Client[] clients = new Client[connections];
+        for (int i = 0; i < connections; i++) {
+            clients[i] = new Client(i, port, batchSize, warmupEnd, end, done);
+            clients[i].start();
+        }
+        done.await();
+        if (server != null) {
+            server.close();
+        }
+
+        LatencyHistogram latencies = new LatencyHistogram();
+        long requests = 0;
+        for (Client client : clients) {
+            if (client.failure != null) {
+                throw client.failure;
+            }
+            latencies.add(client.latencies);
+            requests += client.requests;
+        }
+        System.out.printf("%d connections, %d requests per batch, %d s%n",
+                          connections, batchSize, seconds);
+        System.out.printf("Throughput: %.0f requests/s%n", (double) requests / seconds);
+        System.out.printf("Batch latency (us): p50=%.1f p90=%.1f p99=%.1f p99.9=%.1f max=%.1f%n",
+                          latencies.getValueAtPercentile(50) / 1e3,
+                          latencies.getValueAtPercentile(90) / 1e3,
+                          latencies.getValueAtPercentile(99) / 1e3,
+                          latencies.getValueAtPercentile(99.9) / 1e3,
+                          latencies.getMax() / 1e3);
+    }
+
+}
@@ -0,0 +1,563 @@
+package colorpicker;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * The {@code BatchConverter} class contains a headless command-line converter
+ * between textual color formats. Input is streamed through NIO channels one
+ * block at a time and each record is decoded to a packed color and encoded
+ * again directly between byte arrays, so no {@code String} is built per
+ * record.
+ *
+ * <p>Usage:
+ * <pre>
+ * java colorpicker.BatchConverter [--from FORMAT] [--to FORMAT]
+ *         [--in FILE] [--out FILE] [--parallel[=THREADS]]
+ * </pre>
+ * where {@code FORMAT} is one of {@code hex}, {@code rgb}, {@code csv}, or
+ * {@code int}. Standard input and output are used if no files are given.
+ * Malformed records are skipped and counted. Throughput is reported on
+ * standard error.
+ *
+ * @author Oliver Abdulrahim
+ */
+public final class BatchConverter {
+
+    /**
+     * The {@code Format} enum contains the textual record formats understood
+     * by the converter.
+     */
+    public enum Format {
+
+        /**
+         * A hex color, such as {@code #FF8000}. The {@code '#'} is optional
+         * on input.
+         */
+        HEX,
+
+        /**
+         * Whitespace separated components, such as {@code 255 128 0}.
+         */
+        RGB,
+
+        /**
+         * Comma separated components, such as {@code 255,128,0}.
+         */
+        CSV,
+
+        /**
+         * A decimal packed color, such as {@code 16744448}.
+         */
+        INT;
+
+        /**
+         * Returns the format with the given case-insensitive name.
+         *
+         * @param name The name of the format.
+         * @return The format with the given name.
+         * @throws IllegalArgumentException if there is no such format.
+         */
+        public static Format of(String name) {
+            return valueOf(name.toUpperCase(Locale.ROOT));
+        }
+
+    }
+
+    /**
+     * Stores the size of the blocks read from the input.
+     */
+    private static final int BLOCK_SIZE = 1 << 20;
+
+    /**
+     * Stores the maximum amount of bytes a single encoded record can take,
+     * including its line terminator.
+     */
+    private static final int MAX_RECORD_LENGTH = 12;
+
+    /**
+     * Stores the format records are read in.
+     */
+    private final Format from;
+
+    /**
+     * Stores the format records are written in.
+     */
+    private final Format to;
+
+    /**
+     * Stores the amount of records converted so far.
+     */
+    private long records;
+
+    /**
+     * Stores the amount of malformed records skipped so far.
+     */
+    private long malformed;
+
+    /**
+     * Creates a new {@code BatchConverter} between the given formats.
+     *
+     * @param from The format records are read in.
+     * @param to The format records are written in.
+     */
+    public BatchConverter(Format from, Format to) {
+        this.from = from;
+        this.to = to;
+    }
+
+    /**
+     * Returns the amount of records converted so far.
+     *
+     * @return The amount of records converted.
+     */
+    public long getRecords() {
+        return records;
+    }
+
+    /**
+     * Returns the amount of malformed records skipped so far.
+     *
+     * @return The amount of malformed records.
+     */
+    public long getMalformed() {
+        return malformed;
+    }
+
+    /**
+     * Converts every record of the given input to the given output on the
+     * calling thread.
+     *
+     * @param in The channel to read records from.
+     * @param out The channel to write records to.
+     * @throws IOException if an I/O error occurs.
+     */
+    public void convert(ReadableByteChannel in, WritableByteChannel out)
+            throws IOException {
+        ByteBuffer input = ByteBuffer.allocate(BLOCK_SIZE);
+        Block block = new Block(BLOCK_SIZE);
+        boolean eof = false;
+        while (!eof) {
+            eof = fill(in, input);
+            int end = eof ? input.position() : lastLineEnd(input);
+            if (end < 0) {
+                input = grow(input);
+                continue;
+            }
+            block.length = 0;
+            convert(input.array(), 0, end, block);
+            block.writeTo(out);
+            compact(input, end);
+        }
+    }
+
+    /**
+     * Converts every record of the given input to the given output, splitting
+     * the input into blocks of lines that are converted concurrently. Output
+     * keeps the order of the input.
+     *
+     * @param in The channel to read records from.
+     * @param out The channel to write records to.
+     * @param threads The amount of threads to convert with.
+     * @throws IOException if an I/O error occurs.
+     */
+    public void convertParallel(ReadableByteChannel in, WritableByteChannel out,
+                                int threads) throws IOException {
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        ArrayDeque<Future<Block>> inFlight = new ArrayDeque<>();
+        try {
+            ByteBuffer input = ByteBuffer.allocate(BLOCK_SIZE);
+            boolean eof = false;
+            while (!eof) {
+                eof = fill(in, input);
+                int end = eof ? input.position() : lastLineEnd(input);
+                if (end < 0) {
+                    input = grow(input);
+                    continue;
+                }
+                byte[] chunk = Arrays.copyOf(input.array(), end);
+                inFlight.add(pool.submit(() -> {
+                    Block block = new Block(chunk.length);
+                    block.counts = new long[2];
+                    convert(chunk, 0, chunk.length, block);
+                    return block;
+                }));
+                compact(input, end);
+                while (inFlight.size() > 2 * threads
+                        || (eof && !inFlight.isEmpty())) {
+                    drain(inFlight.poll(), out);
+                }
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    /**
+     * Waits for the given block to finish converting and writes it.
+     */
+    private void drain(Future<Block> pending, WritableByteChannel out)
+            throws IOException {
+        Block block;
+        try {
+            block = pending.get();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while converting", ex);
+        } catch (ExecutionException ex) {
+            throw new IOException("Error while converting", ex.getCause());
+        }
+        records += block.counts[0];
+        malformed += block.counts[1];
+        block.writeTo(out);
+    }
+
+    /**
+     * Converts the complete lines in the given range into the given block. If
+     * the block has its own {@code counts}, statistics are recorded there
+     * instead of in this object, which allows blocks to be converted
+     * concurrently.
+     */
+    private void convert(byte[] src, int start, int end, Block dest) {
+        long converted = 0;
+        long skipped = 0;
+        int lineStart = start;
+        for (int i = start; i <= end; i++) {
+            if (i != end && src[i] != '\n') {
+                continue;
+            }
+            int lineEnd = i;
+            if (lineEnd > lineStart && src[lineEnd - 1] == '\r') {
+                lineEnd--;
+            }
+            if (lineEnd > lineStart) {
+                int rgb = decode(from, src, lineStart, lineEnd);
+                if (rgb < 0) {
+                    skipped++;
+                } else {
+                    dest.ensureCapacity(MAX_RECORD_LENGTH);
+                    dest.length = encode(to, rgb, dest.bytes, dest.length);
+                    dest.bytes[dest.length++] = '\n';
+                    converted++;
+                }
+            }
+            lineStart = i + 1;
+        }
+        if (dest.counts == null) {
+            records += converted;
+            malformed += skipped;
+        } else {
+            dest.counts[0] += converted;
+            dest.counts[1] += skipped;
+        }
+    }
+
+    /**
+     * Decodes a single record in the given format.
+     *
+     * @param format The format of the record.
+     * @param src The bytes containing the record.
+     * @param start The index of the first byte of the record.
+     * @param end The index following the last byte of the record.
+     * @return The decoded packed color, or {@code -1} if the record is
+     *         malformed.
+     */
+    public static int decode(Format format, byte[] src, int start, int end) {
+        while (start < end && isBlank(src[start])) {
+            start++;
+        }
+        while (end > start && isBlank(src[end - 1])) {
+            end--;
+        }
+        switch (format) {
+            case HEX:
+                return PackedColor.decodeHex(src, start, end);
+            case INT:
+                long value = parseDecimal(src, start, end);
+                return (value > PackedColor.RGB_MASK) ? -1 : (int) value;
+            case RGB:
+            case CSV:
+                return decodeComponents(src, start, end, format == Format.CSV);
+            default:
+                throw new AssertionError(format);
+        }
+    }
+
+    /**
+     * Encodes a single record in the given format, without a line terminator.
+     *
+     * @param format The format to encode in.
+     * @param rgb The packed color to encode.
+     * @param dest The array to write into.
+     * @param offset The index of {@code dest} to start writing at.
+     * @return The index following the last byte written.
+     */
+    public static int encode(Format format, int rgb, byte[] dest, int offset) {
+        switch (format) {
+            case HEX:
+                return PackedColor.encodeHex(rgb, dest, offset);
+            case INT:
+                return writeDecimal(rgb, dest, offset);
+            case RGB:
+            case CSV:
+                byte separator = (byte) ((format == Format.CSV) ? ',' : ' ');
+                offset = writeDecimal(PackedColor.red(rgb), dest, offset);
+                dest[offset++] = separator;
+                offset = writeDecimal(PackedColor.green(rgb), dest, offset);
+                dest[offset++] = separator;
+                return writeDecimal(PackedColor.blue(rgb), dest, offset);
+            default:
+                throw new AssertionError(format);
+        }
+    }
+
+    /**
+     * Decodes three components separated by commas or by whitespace.
+     */
+    private static int decodeComponents(byte[] src, int start, int end,
+                                        boolean commas) {
+        int rgb = 0;
+        int i = start;
+        for (int component = 0; component < 3; component++) {
+            int fieldStart = i;
+            while (i < end && src[i] >= '0' && src[i] <= '9') {
+                i++;
+            }
+            long value = parseDecimal(src, fieldStart, i);
+            if (value < 0 || value > ColorPicker.MAX_COLOR_VALUE) {
+                return -1;
+            }
+            rgb = (rgb << 8) | (int) value;
+            if (component < 2) {
+                int separatorStart = i;
+                while (i < end && (isBlank(src[i]) || (commas && src[i] == ','))) {
+                    i++;
+                }
+                if (i == separatorStart) {
+                    return -1;
+                }
+            }
+        }
+        return (i == end) ? rgb : -1;
+    }
+
+    /**
+     * Parses an unsigned decimal number of at most nine digits.
+     *
+     * @return The parsed number, or {@code -1} if the range is not a number.
+     */
+    private static long parseDecimal(byte[] src, int start, int end) {
+        if (start == end || end - start > 9) {
+            return -1;
+        }
+        long value = 0;
+        for (int i = start; i < end; i++) {
+            int digit = src[i] - '0';
+            if (digit < 0 || digit > 9) {
+                return -1;
+            }
+            value = value * 10 + digit;
+        }
+        return value;
+    }
+
+    /**
+     * Writes a non-negative decimal number.
+     *
+     * @param value The number to write.
+     * @param dest The array to write into.
+     * @param offset The index of {@code dest} to start writing at.
+     * @return The index following the last byte written.
+     */
+    static int writeDecimal(int value, byte[] dest, int offset) {
+        int digits = 1;
+        for (int v = value; v >= 10; v /= 10) {
+            digits++;
+        }
+        int end = offset + digits;
+        for (int i = end - 1; i >= offset; i--) {
+            dest[i] = (byte) ('0' + value % 10);
+            value /= 10;
+        }
+        return end;
+    }
+
+    private static boolean isBlank(byte b) {
+        return b == ' ' || b == '\t';
+    }
+
+    /**
+     * Reads from the given channel until the given buffer is full or the
+     * channel is exhausted.
+     *
+     * @return {@code true} if the channel is exhausted, {@code false}
+     *         otherwise.
+     */
+    private static boolean fill(ReadableByteChannel in, ByteBuffer buffer)
+            throws IOException {
+        while (buffer.hasRemaining()) {
+            if (in.read(buffer) < 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the index following the last line terminator in the filled part
+     * of the given buffer, or {@code -1} if it contains none.
+     */
+    private static int lastLineEnd(ByteBuffer buffer) {
+        byte[] bytes = buffer.array();
+        for (int i = buffer.position() - 1; i >= 0; i--) {
+            if (bytes[i] == '\n') {
+                return i + 1;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Moves the bytes following the given index to the start of the buffer.
+     */
+    private static void compact(ByteBuffer buffer, int consumed) {
+        buffer.flip();
+        buffer.position(consumed);
+        buffer.compact();
+    }
+
+    /**
+     * Returns a buffer twice the size of the given one, containing its bytes.
+     * Used when a single line does not fit in a block.
+     */
+    private static ByteBuffer grow(ByteBuffer buffer) {
+        ByteBuffer larger = ByteBuffer.allocate(buffer.capacity() * 2);
+        buffer.flip();
+        larger.put(buffer);
+        return larger;
+    }
+
+    /**
+     * The {@code Block} class contains a growable run of encoded output.
+     */
+    private static final class Block {
+
+        /**
+         * Stores the encoded bytes.
+         */
+        byte[] bytes;
+
+        /**
+         * Stores the amount of meaningful bytes.
+         */
+        int length;
+
+        /**
+         * Stores the amount of converted and malformed records of this block,
+         * or {@code null} if they are recorded by the converter directly.
+         */
+        long[] counts;
+
+        Block(int capacity) {
+            bytes = new byte[Math.max(capacity, MAX_RECORD_LENGTH)];
+        }
+
+        void ensureCapacity(int additional) {
+            if (length + additional > bytes.length) {
+                bytes = Arrays.copyOf(bytes,
+                        Math.max(bytes.length * 2, length + additional));
+            }
+        }
+
+        void writeTo(WritableByteChannel out) throws IOException {
+            ByteBuffer buffer = ByteBuffer.wrap(bytes, 0, length);
+            while (buffer.hasRemaining()) {
+                out.write(buffer);
+            }
+        }
+
+    }
+
+    /**
+     * Converts records according to the given command-line arguments.
+     *
+     * @param args The command-line arguments.
+     * @throws IOException if an I/O error occurs.
+     */
+    public static void main(String[] args) throws IOException {
+        Format from = Format.RGB;
+        Format to = Format.HEX;
+        String inPath = null;
+        String outPath = null;
+        int threads = 1;
+        try {
+            for (int i = 0; i < args.length; i++) {
+                String arg = args[i];
+                if (arg.equals("--from") && i + 1 < args.length) {
+                    from = Format.of(args[++i]);
+                } else if (arg.equals("--to") && i + 1 < args.length) {
+                    to = Format.of(args[++i]);
+                } else if (arg.equals("--in") && i + 1 < args.length) {
+                    inPath = args[++i];
+                } else if (arg.equals("--out") && i + 1 < args.length) {
+                    outPath = args[++i];
+                } else if (arg.equals("--parallel")) {
+                    threads = Runtime.getRuntime().availableProcessors();
+                } else if (arg.startsWith("--parallel=")) {
+                    threads = Integer.parseInt(arg.substring("--parallel=".length()));
+                } else {
+                    usage();
+                }
+            }
+        } catch (IllegalArgumentException ex) {
+            // Unknown format or malformed thread count
+            usage();
+        }
+        if (threads < 1) {
+            usage();
+        }
+        BatchConverter converter = new BatchConverter(from, to);
+        long start = System.nanoTime();
+        try (ReadableByteChannel in = (inPath == null)
+                ? Channels.newChannel(System.in)
+                : FileChannel.open(Paths.get(inPath), StandardOpenOption.READ);
+             WritableByteChannel out = (outPath == null)
+                ? Channels.newChannel(System.out)
+                : FileChannel.open(Paths.get(outPath),
+                        StandardOpenOption.CREATE,
+                        StandardOpenOption.TRUNCATE_EXISTING,
+                        StandardOpenOption.WRITE)) {
+            if (threads > 1) {
+                converter.convertParallel(in, out, threads);
+            } else {
+                converter.convert(in, out);
+            }
+        }
+        double seconds = Math.max(System.nanoTime() - start, 1) / 1e9;
+        System.err.printf("Converted %d records (%d malformed) in %.3f s, "
+                        + "%.0f records/s%n",
+                converter.getRecords(), converter.getMalformed(), seconds,
+                converter.getRecords() / seconds);
+    }
+
+    private static void usage() {
+        System.err.println("Usage: BatchConverter [--from hex|rgb|csv|int] "
+                + "[--to hex|rgb|csv|int] [--in FILE] [--out FILE] "
+                + "[--parallel[=THREADS]]");
+        System.exit(2);
+    }
+
+}
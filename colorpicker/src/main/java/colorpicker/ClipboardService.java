@@ -0,0 +1,150 @@
+package colorpicker;
+
+import java.awt.HeadlessException;
+import java.awt.Toolkit;
+import java.awt.datatransfer.Clipboard;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * The {@code ClipboardService} class contains a writer that puts colors on
+ * the system clipboard from a background thread. Setting the clipboard can
+ * stall for a long time on some platforms, for example with X11 clipboard
+ * managers, so callers on the event dispatch thread never wait for it.
+ *
+ * <p>Copies made while a write is in progress are coalesced, so that only the
+ * newest color is written once the clipboard is available again. Each write
+ * publishes a {@link ColorTransferable} holding every format of the color.
+ *
+ * @author Oliver Abdulrahim
+ */
+public final class ClipboardService {
+
+    /**
+     * Stores the value of {@link #pending} when no copy is waiting.
+     */
+    private static final int NONE = -1;
+
+    /**
+     * Stores the newest color waiting to be written, or {@link #NONE}.
+     */
+    private final AtomicInteger pending = new AtomicInteger(NONE);
+
+    /**
+     * Stores the thread all clipboard writes happen on.
+     */
+    private final ExecutorService writer;
+
+    /**
+     * Stores the clipboard written to, or {@code null} until first used.
+     */
+    private Clipboard clipboard;
+
+    /**
+     * Stores the amount of copies requested.
+     */
+    private final AtomicInteger requested = new AtomicInteger();
+
+    /**
+     * Stores the amount of writes to the clipboard, and their total and
+     * longest duration in nanoseconds. Only written by the writer thread.
+     */
+    private volatile int written;
+    private volatile long totalNanos;
+    private volatile long maxNanos;
+
+    /**
+     * Creates a new {@code ClipboardService} writing to the system clipboard.
+     */
+    public ClipboardService() {
+        writer = Executors.newSingleThreadExecutor(task -> {
+            Thread thread = new Thread(task, "Clipboard writer");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Puts the given color on the clipboard in the background. If a previous
+     * copy is still waiting to be written, it is replaced by this one.
+     *
+     * @param rgb The packed color to copy.
+     */
+    public void copy(int rgb) {
+        requested.incrementAndGet();
+        if (pending.getAndSet(rgb & PackedColor.RGB_MASK) == NONE) {
+            writer.execute(this :: write);
+        }
+    }
+
+    private void write() {
+        int rgb = pending.getAndSet(NONE);
+        if (rgb == NONE) {
+            return;
+        }
+        long start = System.nanoTime();
+        try {
+            if (clipboard == null) {
+                clipboard = Toolkit.getDefaultToolkit().getSystemClipboard();
+            }
+            clipboard.setContents(new ColorTransferable(rgb), null);
+        } catch (IllegalStateException | HeadlessException ex) {
+            Logger.getLogger(ClipboardService.class.getName())
+                    .log(Level.WARNING, "Clipboard is unavailable", ex);
+        } finally {
+            long elapsed = System.nanoTime() - start;
+            totalNanos += elapsed;
+            maxNanos = Math.max(maxNanos, elapsed);
+            written++;
+        }
+    }
+
+    /**
+     * Returns the amount of copies requested through this service.
+     *
+     * @return The amount of calls to {@link #copy(int)}.
+     */
+    public int getRequestCount() {
+        return requested.get();
+    }
+
+    /**
+     * Returns the amount of writes to the clipboard, which is lower than the
+     * amount of requests when copies were coalesced.
+     *
+     * @return The amount of clipboard writes.
+     */
+    public int getWriteCount() {
+        return written;
+    }
+
+    /**
+     * Returns the average duration of a clipboard write.
+     *
+     * @return The average write time, in nanoseconds.
+     */
+    public long getAverageWriteNanos() {
+        int count = written;
+        return (count == 0) ? 0 : totalNanos / count;
+    }
+
+    /**
+     * Returns the duration of the longest clipboard write.
+     *
+     * @return The longest write time, in nanoseconds.
+     */
+    public long getMaxWriteNanos() {
+        return maxNanos;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d copies, %d writes, %.2f ms average, %.2f ms max",
+                             getRequestCount(), getWriteCount(),
+                             getAverageWriteNanos() / 1e6, getMaxWriteNanos() / 1e6);
+    }
+
+}
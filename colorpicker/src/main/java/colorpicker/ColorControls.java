@@ -0,0 +1,207 @@
+package colorpicker;
+
+import java.awt.Color;
+import javax.swing.JLabel;
+import javax.swing.JSlider;
+import javax.swing.JSpinner;
+import javax.swing.event.ChangeEvent;
+
+/**
+ * The {@code ColorControls} class contains the path from an edit in the
+ * {@link ColorPicker} to its preview. The slider and spinner of each channel
+ * set the {@link ColorModel}, changes of the model are synced back to every
+ * slider and spinner, and the preview labels are updated from the model.
+ *
+ * <p>The controls are only given components, never a window, so the same
+ * path can be run without a display. Every method must be called on the
+ * event dispatch thread, or on a single thread when there is no display.
+ *
+ * @author Oliver Abdulrahim
+ */
+final class ColorControls {
+
+    /**
+     * Stores the color vision deficiencies simulated below the preview, in
+     * the order of the simulation labels.
+     */
+    private static final ColorDeficiency[] DEFICIENCIES = ColorDeficiency.values();
+
+    /**
+     * Stores the boxed value of every channel level, so that syncing a
+     * spinner never allocates.
+     */
+    private static final Integer[] BOXED_VALUES = new Integer[ColorPicker.MAX_COLOR_VALUE + 1];
+
+    static {
+        for (int i = 0; i < BOXED_VALUES.length; i++) {
+            BOXED_VALUES[i] = i;
+        }
+    }
+
+    /**
+     * Stores the color being edited.
+     */
+    private final ColorModel model;
+
+    /**
+     * Stores the instrumentation of the path from an edit to the preview.
+     */
+    private final PipelineMonitor monitor;
+
+    /**
+     * Stores the sliders of the red, green, and blue channels.
+     */
+    private final JSlider[] sliders;
+
+    /**
+     * Stores the spinners of the red, green, and blue channels.
+     */
+    private final JSpinner[] spinners;
+
+    /**
+     * Stores the label painted with the current color.
+     */
+    private final JLabel colorLabel;
+
+    /**
+     * Stores the labels painted with the current color as seen with each
+     * color vision deficiency.
+     */
+    private final JLabel[] simulationLabels;
+
+    /**
+     * Stores whether or not the sliders and spinners are being updated from
+     * the {@link #model}, in which case their own events are ignored.
+     */
+    private boolean syncingViews;
+
+    /**
+     * Stores the color last shown by the {@link #colorLabel}, or {@code -1}
+     * if nothing has been shown yet. Used to skip redundant updates.
+     */
+    private int displayedRgb = -1;
+
+    /**
+     * Creates new {@code ColorControls} and adds their listeners to the
+     * given model and components.
+     *
+     * @param model The color being edited.
+     * @param monitor The instrumentation of the path to the preview.
+     * @param sliders The sliders of the red, green, and blue channels.
+     * @param spinners The spinners of the red, green, and blue channels.
+     * @param colorLabel The label painted with the current color.
+     * @param simulationLabels The labels painted with the current color as
+     *        seen with each {@link ColorDeficiency}, in declaration order.
+     */
+    ColorControls(ColorModel model, PipelineMonitor monitor, JSlider[] sliders,
+                  JSpinner[] spinners, JLabel colorLabel, JLabel[] simulationLabels) {
+        this.model = model;
+        this.monitor = monitor;
+        this.sliders = sliders.clone();
+        this.spinners = spinners.clone();
+        this.colorLabel = colorLabel;
+        this.simulationLabels = simulationLabels.clone();
+        for (int i = 0; i < this.sliders.length; i++) {
+            int channel = i;
+            this.sliders[i].addChangeListener(evt -> sliderStateChanged(channel));
+            this.spinners[i].addChangeListener(evt -> spinnerStateChanged(channel));
+        }
+        model.addChangeListener(this :: modelStateChanged);
+    }
+
+    /**
+     * Returns the color last shown by the preview.
+     *
+     * @return The packed color of the preview, or {@code -1} if nothing has
+     *         been shown yet.
+     */
+    int getDisplayedRgb() {
+        return displayedRgb;
+    }
+
+    /**
+     * Forwards an edit of a slider to the {@link #model}, along with its
+     * adjusting state, so that listeners can tell a drag apart from a single
+     * edit.
+     */
+    private void sliderStateChanged(int channel) {
+        if (!syncingViews) {
+            JSlider slider = sliders[channel];
+            monitor.inputReceived("Slider");
+            model.setValueIsAdjusting(slider.getValueIsAdjusting());
+            setChannel(channel, slider.getValue());
+        }
+    }
+
+    /**
+     * Forwards an edit of a spinner to the {@link #model}.
+     */
+    private void spinnerStateChanged(int channel) {
+        if (!syncingViews) {
+            monitor.inputReceived("Spinner");
+            setChannel(channel, (Integer) spinners[channel].getValue());
+        }
+    }
+
+    private void setChannel(int channel, int value) {
+        switch (channel) {
+            case 0:
+                model.setRed(value);
+                break;
+            case 1:
+                model.setGreen(value);
+                break;
+            default:
+                model.setBlue(value);
+                break;
+        }
+    }
+
+    /**
+     * Updates the sliders and spinners to match the {@link #model}.
+     */
+    private void modelStateChanged(ChangeEvent evt) {
+        syncingViews = true;
+        try {
+            syncViews(sliders[0], spinners[0], model.getRed());
+            syncViews(sliders[1], spinners[1], model.getGreen());
+            syncViews(sliders[2], spinners[2], model.getBlue());
+        } finally {
+            syncingViews = false;
+        }
+    }
+
+    /**
+     * Sets the given slider and spinner to the given value if they differ
+     * from it.
+     */
+    private static void syncViews(JSlider slider, JSpinner spinner, int value) {
+        if (slider.getValue() != value) {
+            slider.setValue(value);
+        }
+        if ((Integer) spinner.getValue() != value) {
+            spinner.setValue(BOXED_VALUES[value]);
+        }
+    }
+
+    /**
+     * Updates the {@link #colorLabel} and the color vision simulations below
+     * it using the {@link #model}. The tooltip for the preview is computed
+     * lazily from the same model, so no text is built while the color
+     * changes.
+     */
+    void updateColorPreview() {
+        long start = monitor.previewUpdateStarted();
+        int rgb = model.getRGB();
+        boolean changed = rgb != displayedRgb;
+        if (changed) {
+            displayedRgb = rgb;
+            colorLabel.setBackground(new Color(rgb));
+            for (int i = 0; i < DEFICIENCIES.length; i++) {
+                simulationLabels[i].setBackground(new Color(DEFICIENCIES[i].simulate(rgb)));
+            }
+        }
+        monitor.previewUpdated(start, changed);
+    }
+
+}
@@ -0,0 +1,514 @@
+package colorpicker;
+
+/**
+ * The {@code ColorConversions} class contains conversions between packed sRGB
+ * colors and other color spaces. Gamma encoding and decoding go through
+ * lookup tables rather than {@code Math.pow}, and every conversion writes its
+ * result into a caller-supplied array so that bulk conversions over whole
+ * palettes or image buffers do not allocate.
+ *
+ * <p>Components use the following ranges:
+ * <ul>
+ *   <li>HSV and HSL: hue in {@code [0, 360)}, the others in {@code [0, 100]}.
+ *   <li>XYZ: D65 white point, {@code Y} in {@code [0, 100]}.
+ *   <li>CIELAB: D65 white point, {@code L} in {@code [0, 100]}.
+ *   <li>OKLab: {@code L} in {@code [0, 1]}.
+ * </ul>
+ *
+ * @author Oliver Abdulrahim
+ */
+public final class ColorConversions {
+
+    /**
+     * Stores the linear value of every 8-bit sRGB component.
+     */
+    private static final float[] SRGB_TO_LINEAR = new float[256];
+
+    /**
+     * Stores the amount of steps in {@link #LINEAR_TO_SRGB}, which is fine
+     * enough that every 8-bit component survives a round trip.
+     */
+    private static final int LINEAR_STEPS = 1 << 14;
+
+    /**
+     * Stores the 8-bit sRGB component of every step of linear light.
+     */
+    private static final byte[] LINEAR_TO_SRGB = new byte[LINEAR_STEPS + 1];
+
+    static {
+        for (int i = 0; i < SRGB_TO_LINEAR.length; i++) {
+            double c = i / 255.0;
+            SRGB_TO_LINEAR[i] = (float) ((c <= 0.04045)
+                    ? c / 12.92
+                    : Math.pow((c + 0.055) / 1.055, 2.4));
+        }
+        for (int i = 0; i <= LINEAR_STEPS; i++) {
+            double c = (double) i / LINEAR_STEPS;
+            double s = (c <= 0.0031308)
+                    ? c * 12.92
+                    : 1.055 * Math.pow(c, 1 / 2.4) - 0.055;
+            LINEAR_TO_SRGB[i] = (byte) Math.round(s * 255);
+        }
+    }
+
+    /**
+     * Stores the D65 reference white used by CIELAB.
+     */
+    private static final float WHITE_X = 95.047f;
+    private static final float WHITE_Y = 100.0f;
+    private static final float WHITE_Z = 108.883f;
+
+    /**
+     * Stores the CIELAB constants epsilon and kappa.
+     */
+    private static final float LAB_EPSILON = 216f / 24389f;
+    private static final float LAB_KAPPA = 24389f / 27f;
+
+    /**
+     * Stores the largest CIEDE2000 lightness weighting factor, reached at
+     * the ends of the lightness range, rounded up to absorb lightnesses
+     * slightly outside of it.
+     */
+    private static final double MAX_LIGHTNESS_WEIGHT = 1.75;
+
+    /**
+     * Suppresses default constructor, ensuring non-instantiability.
+     */
+    private ColorConversions() {
+
+    }
+
+    /**
+     * Returns the linear light value of the given 8-bit sRGB component.
+     *
+     * @param component The sRGB component, in {@code [0, 255]}.
+     * @return The linear value, in {@code [0, 1]}.
+     */
+    public static float toLinear(int component) {
+        return SRGB_TO_LINEAR[component & 0xFF];
+    }
+
+    /**
+     * Returns the 8-bit sRGB component of the given linear light value.
+     *
+     * @param linear The linear value, clamped to {@code [0, 1]}.
+     * @return The sRGB component, in {@code [0, 255]}.
+     */
+    public static int fromLinear(float linear) {
+        if (!(linear > 0)) {
+            return 0;
+        }
+        if (linear >= 1) {
+            return 255;
+        }
+        return LINEAR_TO_SRGB[(int) (linear * LINEAR_STEPS + 0.5f)] & 0xFF;
+    }
+
+    /**
+     * Packs the given linear light components into an sRGB color.
+     */
+    private static int packLinear(float r, float g, float b) {
+        return (fromLinear(r) << 16) | (fromLinear(g) << 8) | fromLinear(b);
+    }
+
+    /**
+     * Converts the given packed color to HSV.
+     *
+     * @param rgb The packed color to convert.
+     * @param dest The array to write hue, saturation, and value into.
+     * @param offset The index of {@code dest} to start writing at.
+     */
+    public static void rgbToHsv(int rgb, float[] dest, int offset) {
+        int r = PackedColor.red(rgb);
+        int g = PackedColor.green(rgb);
+        int b = PackedColor.blue(rgb);
+        int max = Math.max(r, Math.max(g, b));
+        int min = Math.min(r, Math.min(g, b));
+        int chroma = max - min;
+        dest[offset] = hue(r, g, b, max, chroma);
+        dest[offset + 1] = (max == 0) ? 0 : 100f * chroma / max;
+        dest[offset + 2] = 100f * max / 255;
+    }
+
+    /**
+     * Converts the given HSV components to a packed color.
+     *
+     * @param h The hue, in degrees.
+     * @param s The saturation, in {@code [0, 100]}.
+     * @param v The value, in {@code [0, 100]}.
+     * @return The packed color.
+     */
+    public static int hsvToRgb(float h, float s, float v) {
+        float value = clampUnit(v / 100);
+        float chroma = value * clampUnit(s / 100);
+        return fromHueChroma(h, chroma, value - chroma);
+    }
+
+    /**
+     * Converts the given packed color to HSL.
+     *
+     * @param rgb The packed color to convert.
+     * @param dest The array to write hue, saturation, and lightness into.
+     * @param offset The index of {@code dest} to start writing at.
+     */
+    public static void rgbToHsl(int rgb, float[] dest, int offset) {
+        int r = PackedColor.red(rgb);
+        int g = PackedColor.green(rgb);
+        int b = PackedColor.blue(rgb);
+        int max = Math.max(r, Math.max(g, b));
+        int min = Math.min(r, Math.min(g, b));
+        int chroma = max - min;
+        float lightness = (max + min) / 510f;
+        float divisor = 1 - Math.abs(2 * lightness - 1);
+        dest[offset] = hue(r, g, b, max, chroma);
+        dest[offset + 1] = (divisor == 0) ? 0 : 100f * chroma / 255 / divisor;
+        dest[offset + 2] = 100 * lightness;
+    }
+
+    /**
+     * Converts the given HSL components to a packed color.
+     *
+     * @param h The hue, in degrees.
+     * @param s The saturation, in {@code [0, 100]}.
+     * @param l The lightness, in {@code [0, 100]}.
+     * @return The packed color.
+     */
+    public static int hslToRgb(float h, float s, float l) {
+        float lightness = clampUnit(l / 100);
+        float chroma = (1 - Math.abs(2 * lightness - 1)) * clampUnit(s / 100);
+        return fromHueChroma(h, chroma, lightness - chroma / 2);
+    }
+
+    /**
+     * Returns the hue, in degrees, of the given components.
+     */
+    private static float hue(int r, int g, int b, int max, int chroma) {
+        if (chroma == 0) {
+            return 0;
+        }
+        float h;
+        if (max == r) {
+            h = (float) (g - b) / chroma;
+            if (h < 0) {
+                h += 6;
+            }
+        } else if (max == g) {
+            h = (float) (b - r) / chroma + 2;
+        } else {
+            h = (float) (r - g) / chroma + 4;
+        }
+        return 60 * h;
+    }
+
+    /**
+     * Returns the packed color with the given hue, chroma, and offset, all
+     * components except the hue being in {@code [0, 1]}.
+     */
+    private static int fromHueChroma(float h, float chroma, float m) {
+        float sector = (((h % 360) + 360) % 360) / 60;
+        float x = chroma * (1 - Math.abs(sector % 2 - 1));
+        float r;
+        float g;
+        float b;
+        switch ((int) sector) {
+            case 0:  r = chroma; g = x;      b = 0;      break;
+            case 1:  r = x;      g = chroma; b = 0;      break;
+            case 2:  r = 0;      g = chroma; b = x;      break;
+            case 3:  r = 0;      g = x;      b = chroma; break;
+            case 4:  r = x;      g = 0;      b = chroma; break;
+            default: r = chroma; g = 0;      b = x;      break;
+        }
+        return PackedColor.pack(Math.round((r + m) * 255),
+                                Math.round((g + m) * 255),
+                                Math.round((b + m) * 255));
+    }
+
+    /**
+     * Converts the given packed color to CIE XYZ.
+     *
+     * @param rgb The packed color to convert.
+     * @param dest The array to write X, Y, and Z into.
+     * @param offset The index of {@code dest} to start writing at.
+     */
+    public static void rgbToXyz(int rgb, float[] dest, int offset) {
+        float r = SRGB_TO_LINEAR[PackedColor.red(rgb)];
+        float g = SRGB_TO_LINEAR[PackedColor.green(rgb)];
+        float b = SRGB_TO_LINEAR[PackedColor.blue(rgb)];
+        dest[offset]     = 100 * (0.4124564f * r + 0.3575761f * g + 0.1804375f * b);
+        dest[offset + 1] = 100 * (0.2126729f * r + 0.7151522f * g + 0.0721750f * b);
+        dest[offset + 2] = 100 * (0.0193339f * r + 0.1191920f * g + 0.9503041f * b);
+    }
+
+    /**
+     * Converts the given CIE XYZ components to a packed color. Colors outside
+     * of the sRGB gamut are clipped.
+     *
+     * @param x The X component.
+     * @param y The Y component.
+     * @param z The Z component.
+     * @return The packed color.
+     */
+    public static int xyzToRgb(float x, float y, float z) {
+        x /= 100;
+        y /= 100;
+        z /= 100;
+        return packLinear( 3.2404542f * x - 1.5371385f * y - 0.4985314f * z,
+                          -0.9692660f * x + 1.8760108f * y + 0.0415560f * z,
+                           0.0556434f * x - 0.2040259f * y + 1.0572252f * z);
+    }
+
+    /**
+     * Converts the given packed color to CIELAB.
+     *
+     * @param rgb The packed color to convert.
+     * @param dest The array to write L, a, and b into.
+     * @param offset The index of {@code dest} to start writing at.
+     */
+    public static void rgbToLab(int rgb, float[] dest, int offset) {
+        rgbToXyz(rgb, dest, offset);
+        float fx = labF(dest[offset] / WHITE_X);
+        float fy = labF(dest[offset + 1] / WHITE_Y);
+        float fz = labF(dest[offset + 2] / WHITE_Z);
+        dest[offset]     = 116 * fy - 16;
+        dest[offset + 1] = 500 * (fx - fy);
+        dest[offset + 2] = 200 * (fy - fz);
+    }
+
+    /**
+     * Converts the given CIELAB components to a packed color. Colors outside
+     * of the sRGB gamut are clipped.
+     *
+     * @param l The lightness.
+     * @param a The green-red component.
+     * @param b The blue-yellow component.
+     * @return The packed color.
+     */
+    public static int labToRgb(float l, float a, float b) {
+        float fy = (l + 16) / 116;
+        float fx = fy + a / 500;
+        float fz = fy - b / 200;
+        float y = (l > LAB_KAPPA * LAB_EPSILON) ? fy * fy * fy : l / LAB_KAPPA;
+        return xyzToRgb(WHITE_X * labFInverse(fx),
+                        WHITE_Y * y,
+                        WHITE_Z * labFInverse(fz));
+    }
+
+    private static float labF(float t) {
+        return (t > LAB_EPSILON)
+                ? (float) Math.cbrt(t)
+                : (LAB_KAPPA * t + 16) / 116;
+    }
+
+    private static float labFInverse(float f) {
+        float cube = f * f * f;
+        return (cube > LAB_EPSILON) ? cube : (116 * f - 16) / LAB_KAPPA;
+    }
+
+    /**
+     * Converts the given packed color to OKLab.
+     *
+     * @param rgb The packed color to convert.
+     * @param dest The array to write L, a, and b into.
+     * @param offset The index of {@code dest} to start writing at.
+     */
+    public static void rgbToOklab(int rgb, float[] dest, int offset) {
+        float r = SRGB_TO_LINEAR[PackedColor.red(rgb)];
+        float g = SRGB_TO_LINEAR[PackedColor.green(rgb)];
+        float b = SRGB_TO_LINEAR[PackedColor.blue(rgb)];
+        float l = (float) Math.cbrt(0.4122214708f * r + 0.5363325363f * g + 0.0514459929f * b);
+        float m = (float) Math.cbrt(0.2119034982f * r + 0.6806995451f * g + 0.1073969566f * b);
+        float s = (float) Math.cbrt(0.0883024619f * r + 0.2817188376f * g + 0.6299787005f * b);
+        dest[offset]     = 0.2104542553f * l + 0.7936177850f * m - 0.0040720468f * s;
+        dest[offset + 1] = 1.9779984951f * l - 2.4285922050f * m + 0.4505937099f * s;
+        dest[offset + 2] = 0.0259040371f * l + 0.7827717662f * m - 0.8086757660f * s;
+    }
+
+    /**
+     * Converts the given OKLab components to a packed color. Colors outside of
+     * the sRGB gamut are clipped.
+     *
+     * @param lightness The lightness.
+     * @param a The green-red component.
+     * @param b The blue-yellow component.
+     * @return The packed color.
+     */
+    public static int oklabToRgb(float lightness, float a, float b) {
+        float l = lightness + 0.3963377774f * a + 0.2158037573f * b;
+        float m = lightness - 0.1055613458f * a - 0.0638541728f * b;
+        float s = lightness - 0.0894841775f * a - 1.2914855480f * b;
+        l = l * l * l;
+        m = m * m * m;
+        s = s * s * s;
+        return packLinear( 4.0767416621f * l - 3.3077115913f * m + 0.2309699292f * s,
+                          -1.2684380046f * l + 2.6097574011f * m - 0.3413193965f * s,
+                          -0.0041960863f * l - 0.7034186147f * m + 1.7076147010f * s);
+    }
+
+    /**
+     * Returns the CIEDE2000 color difference between two CIELAB colors.
+     *
+     * @param l1 The lightness of the first color.
+     * @param a1 The green-red component of the first color.
+     * @param b1 The blue-yellow component of the first color.
+     * @param l2 The lightness of the second color.
+     * @param a2 The green-red component of the second color.
+     * @param b2 The blue-yellow component of the second color.
+     * @return The perceptual difference between the two colors.
+     */
+    public static double deltaE2000(double l1, double a1, double b1,
+                                    double l2, double a2, double b2) {
+        double c1 = Math.sqrt(a1 * a1 + b1 * b1);
+        double c2 = Math.sqrt(a2 * a2 + b2 * b2);
+        double cMean7 = pow7((c1 + c2) / 2);
+        double g = 0.5 * (1 - Math.sqrt(cMean7 / (cMean7 + 6103515625.0)));
+        double a1p = (1 + g) * a1;
+        double a2p = (1 + g) * a2;
+        double c1p = Math.sqrt(a1p * a1p + b1 * b1);
+        double c2p = Math.sqrt(a2p * a2p + b2 * b2);
+        double h1p = hueAngle(b1, a1p);
+        double h2p = hueAngle(b2, a2p);
+
+        double dLp = l2 - l1;
+        double dCp = c2p - c1p;
+        double dhp = 0;
+        if (c1p * c2p != 0) {
+            dhp = h2p - h1p;
+            if (dhp > 180) {
+                dhp -= 360;
+            } else if (dhp < -180) {
+                dhp += 360;
+            }
+        }
+        double dHp = 2 * Math.sqrt(c1p * c2p) * Math.sin(Math.toRadians(dhp / 2));
+
+        double lMean = (l1 + l2) / 2;
+        double cMeanP = (c1p + c2p) / 2;
+        double hMean = h1p + h2p;
+        if (c1p * c2p != 0) {
+            if (Math.abs(h1p - h2p) <= 180) {
+                hMean /= 2;
+            } else {
+                hMean = (hMean < 360) ? (hMean + 360) / 2 : (hMean - 360) / 2;
+            }
+        }
+        double t = 1 - 0.17 * Math.cos(Math.toRadians(hMean - 30))
+                     + 0.24 * Math.cos(Math.toRadians(2 * hMean))
+                     + 0.32 * Math.cos(Math.toRadians(3 * hMean + 6))
+                     - 0.20 * Math.cos(Math.toRadians(4 * hMean - 63));
+        double lOffset = (lMean - 50) * (lMean - 50);
+        double sl = 1 + 0.015 * lOffset / Math.sqrt(20 + lOffset);
+        double sc = 1 + 0.045 * cMeanP;
+        double sh = 1 + 0.015 * cMeanP * t;
+        double dTheta = 30 * Math.exp(-((hMean - 275) / 25) * ((hMean - 275) / 25));
+        double cMeanP7 = pow7(cMeanP);
+        double rt = -2 * Math.sqrt(cMeanP7 / (cMeanP7 + 6103515625.0))
+                       * Math.sin(Math.toRadians(2 * dTheta));
+
+        double lTerm = dLp / sl;
+        double cTerm = dCp / sc;
+        double hTerm = dHp / sh;
+        return Math.sqrt(lTerm * lTerm + cTerm * cTerm + hTerm * hTerm
+                         + rt * cTerm * hTerm);
+    }
+
+    /**
+     * Returns a lower bound of the CIEDE2000 color difference between two
+     * CIELAB colors, computed without trigonometry. The lightness and chroma
+     * terms are exact. The hue term uses the largest weighting factor the hue
+     * could have, and the rotation term its most negative value for the mean
+     * chroma. Rankings can skip computing {@link #deltaE2000} for colors
+     * whose bound already exceeds the best difference found.
+     *
+     * @param l1 The lightness of the first color.
+     * @param a1 The green-red component of the first color.
+     * @param b1 The blue-yellow component of the first color.
+     * @param l2 The lightness of the second color.
+     * @param a2 The green-red component of the second color.
+     * @param b2 The blue-yellow component of the second color.
+     * @return A value no greater than the perceptual difference between the
+     *         two colors.
+     */
+    public static double deltaE2000LowerBound(double l1, double a1, double b1,
+                                              double l2, double a2, double b2) {
+        double c1 = Math.sqrt(a1 * a1 + b1 * b1);
+        double c2 = Math.sqrt(a2 * a2 + b2 * b2);
+        double cMean7 = pow7((c1 + c2) / 2);
+        double g = 0.5 * (1 - Math.sqrt(cMean7 / (cMean7 + 6103515625.0)));
+        double a1p = (1 + g) * a1;
+        double a2p = (1 + g) * a2;
+        double c1p = Math.sqrt(a1p * a1p + b1 * b1);
+        double c2p = Math.sqrt(a2p * a2p + b2 * b2);
+
+        double dLp = l2 - l1;
+        double dCp = c2p - c1p;
+        // The hue difference follows from the distance in the a'b' plane
+        double dHp2 = 0;
+        if (c1p * c2p != 0) {
+            double dap = a2p - a1p;
+            double db = b2 - b1;
+            dHp2 = Math.max(0, dap * dap + db * db - dCp * dCp);
+        }
+
+        double lMean = (l1 + l2) / 2;
+        double cMeanP = (c1p + c2p) / 2;
+        double lOffset = (lMean - 50) * (lMean - 50);
+        double sl = 1 + 0.015 * lOffset / Math.sqrt(20 + lOffset);
+        double sc = 1 + 0.045 * cMeanP;
+        // T is at most 1 + 0.17 + 0.24 + 0.32 + 0.20
+        double shMax = 1 + 0.015 * cMeanP * 1.93;
+        double cMeanP7 = pow7(cMeanP);
+        double rtMax = Math.sqrt(3) * Math.sqrt(cMeanP7 / (cMeanP7 + 6103515625.0));
+
+        double lTerm = dLp / sl;
+        double cTerm = Math.abs(dCp / sc);
+        double hTermMin = Math.sqrt(dHp2) / shMax;
+        // Minimizes c^2 + h^2 - rtMax * c * h over h >= hTermMin
+        double h = Math.max(hTermMin, rtMax * cTerm / 2);
+        return Math.sqrt(lTerm * lTerm + cTerm * cTerm + h * h - rtMax * cTerm * h);
+    }
+
+    /**
+     * Returns a lower bound of the CIEDE2000 color difference between any
+     * two CIELAB colors whose lightnesses differ by at least {@code dl},
+     * whose a*b* coordinates are at least {@code dab} apart, and whose mean
+     * chroma is at most {@code chroma}. Unlike
+     * {@link #deltaE2000LowerBound(double, double, double, double, double, double)},
+     * it holds for whole regions of CIELAB space, so nearest entry searches
+     * can skip every color on the far side of a splitting plane.
+     *
+     * @param dl The least lightness difference, at least {@code 0}.
+     * @param dab The least distance in the a*b* plane, at least {@code 0}.
+     * @param chroma The greatest mean chroma of the two colors.
+     * @return A value no greater than the perceptual difference between any
+     *         two such colors.
+     */
+    public static double deltaE2000LowerBound(double dl, double dab, double chroma) {
+        // The mean of C' is at most (1 + G) C, which increases with C
+        double chroma7 = pow7(chroma);
+        double g = 0.5 * (1 - Math.sqrt(chroma7 / (chroma7 + 6103515625.0)));
+        double sc = 1 + 0.045 * (1 + g) * chroma;
+        // The hue weighting factor never exceeds the chroma one, and the
+        // rotation term removes at most sqrt(3) / 2 of the chroma and hue terms
+        double lTerm = dl / MAX_LIGHTNESS_WEIGHT;
+        double abTerm = dab / sc;
+        return Math.sqrt(lTerm * lTerm + (1 - Math.sqrt(3) / 2) * abTerm * abTerm);
+    }
+
+    private static double pow7(double x) {
+        double x2 = x * x;
+        return x2 * x2 * x2 * x;
+    }
+
+    private static double hueAngle(double b, double a) {
+        if (a == 0 && b == 0) {
+            return 0;
+        }
+        double h = Math.toDegrees(Math.atan2(b, a));
+        return (h < 0) ? h + 360 : h;
+    }
+
+    private static float clampUnit(float value) {
+        return Math.max(0, Math.min(1, value));
+    }
+
+}
@@ -0,0 +1,75 @@
+package colorpicker;
+
+/**
+ * The {@code ColorDeficiency} enum contains the forms of dichromatic color
+ * vision, each of which can simulate how a color appears to a viewer with it.
+ *
+ * <p>Simulation uses the matrices of Machado, Oliveira, and Fernandes (2009)
+ * at full severity, applied to linear RGB.
+ *
+ * @author Oliver Abdulrahim
+ */
+public enum ColorDeficiency {
+
+    /**
+     * The absence of long-wavelength (red) cones.
+     */
+    PROTANOPIA("Protanopia",
+               0.152286f,  1.052583f, -0.204868f,
+               0.114503f,  0.786281f,  0.099216f,
+              -0.003882f, -0.048116f,  1.051998f),
+
+    /**
+     * The absence of medium-wavelength (green) cones.
+     */
+    DEUTERANOPIA("Deuteranopia",
+                 0.367322f,  0.860646f, -0.227968f,
+                 0.280085f,  0.672501f,  0.047413f,
+                -0.011820f,  0.042940f,  0.968881f),
+
+    /**
+     * The absence of short-wavelength (blue) cones.
+     */
+    TRITANOPIA("Tritanopia",
+               1.255528f, -0.076749f, -0.178779f,
+              -0.078411f,  0.930809f,  0.147602f,
+               0.004733f,  0.691367f,  0.303900f);
+
+    /**
+     * Stores the display name of this deficiency.
+     */
+    private final String name;
+
+    /**
+     * Stores the simulation matrix, row-major.
+     */
+    private final float[] matrix;
+
+    private ColorDeficiency(String name, float... matrix) {
+        this.name = name;
+        this.matrix = matrix;
+    }
+
+    /**
+     * Returns the given color as it appears to a viewer with this deficiency.
+     *
+     * @param rgb The packed color to simulate.
+     * @return The packed simulated color.
+     */
+    public int simulate(int rgb) {
+        float r = ColorConversions.toLinear(PackedColor.red(rgb));
+        float g = ColorConversions.toLinear(PackedColor.green(rgb));
+        float b = ColorConversions.toLinear(PackedColor.blue(rgb));
+        float[] m = matrix;
+        return PackedColor.pack(
+                ColorConversions.fromLinear(m[0] * r + m[1] * g + m[2] * b),
+                ColorConversions.fromLinear(m[3] * r + m[4] * g + m[5] * b),
+                ColorConversions.fromLinear(m[6] * r + m[7] * g + m[8] * b));
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+
+}
@@ -0,0 +1,292 @@
+package colorpicker;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.swing.SwingUtilities;
+import javax.swing.event.ChangeEvent;
+import javax.swing.event.ChangeListener;
+import javax.swing.event.EventListenerList;
+
+/**
+ * The {@code ColorHistory} class contains the persistent history of copied
+ * colors and the set of favorite colors. Both are kept in {@link ColorLog}s
+ * that are opened, appended to, and compacted on a single background thread,
+ * so none of the methods of this class ever block on I/O.
+ *
+ * <p>Reads go straight to the memory-mapped history, so a view only touches
+ * the entries it actually shows, however long the history is. Listeners are
+ * notified on the event dispatch thread after every change.
+ *
+ * @author Oliver Abdulrahim
+ */
+public final class ColorHistory {
+
+    /**
+     * Stores the name of the system property overriding the directory the
+     * history is stored in.
+     */
+    public static final String DIRECTORY_PROPERTY = "colorpicker.home";
+
+    /**
+     * Stores the value of a favorites record that adds a favorite.
+     */
+    private static final int FAVORITE = 1 << 24;
+
+    /**
+     * Stores the log of copied colors, or {@code null} until it is opened.
+     */
+    private volatile ColorLog history;
+
+    /**
+     * Stores the log of favorite and unfavorite records, or {@code null}
+     * until it is opened.
+     */
+    private volatile ColorLog favorites;
+
+    /**
+     * Stores one bit per packed color, set if the color is a favorite.
+     */
+    private final AtomicLongArray favoriteBits =
+            new AtomicLongArray((PackedColor.RGB_MASK + 1) >>> 6);
+
+    /**
+     * Stores the thread all I/O happens on.
+     */
+    private final ExecutorService writer;
+
+    /**
+     * Stores the listeners of this history.
+     */
+    private final EventListenerList listenerList = new EventListenerList();
+
+    /**
+     * Stores the hook that closes this history when the virtual machine
+     * exits, which is removed once the history is closed.
+     */
+    private final Thread shutdownHook = new Thread(this :: close, "Color history shutdown");
+
+    private ColorHistory() {
+        writer = Executors.newSingleThreadExecutor(task -> {
+            Thread thread = new Thread(task, "Color history writer");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Returns the directory the history is stored in by default, which is
+     * {@code .colorpicker} in the home directory of the user unless the
+     * {@link #DIRECTORY_PROPERTY} system property is set.
+     *
+     * @return The default history directory.
+     */
+    public static Path defaultDirectory() {
+        String directory = System.getProperty(DIRECTORY_PROPERTY);
+        return (directory != null)
+                ? Paths.get(directory)
+                : Paths.get(System.getProperty("user.home"), ".colorpicker");
+    }
+
+    /**
+     * Opens the history stored in the given directory. This method returns
+     * immediately; the history is empty until its files are opened in the
+     * background, after which listeners are notified.
+     *
+     * @param directory The directory the history is stored in.
+     * @return The history.
+     */
+    public static ColorHistory open(Path directory) {
+        ColorHistory colorHistory = new ColorHistory();
+        colorHistory.writer.execute(() -> colorHistory.load(directory));
+        Runtime.getRuntime().addShutdownHook(colorHistory.shutdownHook);
+        return colorHistory;
+    }
+
+    private void load(Path directory) {
+        try {
+            Files.createDirectories(directory);
+            ColorLog favoriteLog = ColorLog.open(directory.resolve("favorites.log"));
+            ColorLog.Snapshot snapshot = favoriteLog.snapshot();
+            for (int i = 0; i < snapshot.size(); i++) {
+                updateFavoriteBit(snapshot.getValue(i));
+            }
+            favorites = favoriteLog;
+            history = ColorLog.open(directory.resolve("history.log"));
+            fireStateChanged();
+            compactIfNeeded();
+        } catch (IOException ex) {
+            Logger.getLogger(ColorHistory.class.getName())
+                    .log(Level.WARNING, "Could not open color history in " + directory, ex);
+        }
+    }
+
+    /**
+     * Compacts both logs if they grew enough since they were last compacted.
+     * The history keeps the newest copy of each color, and the favorites keep
+     * only the colors that are still favorites.
+     */
+    private void compactIfNeeded() throws IOException {
+        if (history.needsCompaction()) {
+            history.compact(value -> true);
+            fireStateChanged();
+        }
+        if (favorites.needsCompaction()) {
+            favorites.compact(value -> (value & FAVORITE) != 0);
+        }
+    }
+
+    private void updateFavoriteBit(int value) {
+        int rgb = value & PackedColor.RGB_MASK;
+        long bit = 1L << rgb;
+        if ((value & FAVORITE) != 0) {
+            favoriteBits.getAndAccumulate(rgb >>> 6, bit, (a, b) -> a | b);
+        } else {
+            favoriteBits.getAndAccumulate(rgb >>> 6, ~bit, (a, b) -> a & b);
+        }
+    }
+
+    /**
+     * Adds the given color to the end of the history in the background.
+     *
+     * @param rgb The packed color to add.
+     */
+    public void add(int rgb) {
+        long time = System.currentTimeMillis();
+        submit(() -> {
+            history.append(time, rgb & PackedColor.RGB_MASK);
+            compactIfNeeded();
+        });
+    }
+
+    /**
+     * Sets whether or not the given color is a favorite. The change is
+     * visible immediately and stored in the background.
+     *
+     * @param rgb The packed color to change.
+     * @param favorite Whether or not the color is a favorite.
+     */
+    public void setFavorite(int rgb, boolean favorite) {
+        long time = System.currentTimeMillis();
+        int value = (rgb & PackedColor.RGB_MASK) | (favorite ? FAVORITE : 0);
+        updateFavoriteBit(value);
+        submit(() -> favorites.append(time, value));
+    }
+
+    /**
+     * Returns whether or not the given color is a favorite.
+     *
+     * @param rgb The packed color to check.
+     * @return {@code true} if the color is a favorite.
+     */
+    public boolean isFavorite(int rgb) {
+        rgb &= PackedColor.RGB_MASK;
+        return (favoriteBits.get(rgb >>> 6) & (1L << rgb)) != 0;
+    }
+
+    /**
+     * Returns a consistent view of the history for reading. Entries of the
+     * view are indexed oldest first.
+     *
+     * @return The current view of the history, or {@code null} if it is not
+     *         opened yet.
+     */
+    ColorLog.Snapshot snapshot() {
+        ColorLog log = history;
+        return (log == null) ? null : log.snapshot();
+    }
+
+    /**
+     * Runs the given I/O task on the writer thread, then notifies listeners.
+     */
+    private void submit(IOTask task) {
+        writer.execute(() -> {
+            if (history == null) {
+                return;
+            }
+            try {
+                task.run();
+                fireStateChanged();
+            } catch (IOException ex) {
+                Logger.getLogger(ColorHistory.class.getName())
+                        .log(Level.WARNING, "Could not write color history", ex);
+            }
+        });
+    }
+
+    /**
+     * Flushes and closes the history. Pending writes are finished first.
+     */
+    public void close() {
+        if (writer.isShutdown()) {
+            return;
+        }
+        try {
+            Runtime.getRuntime().removeShutdownHook(shutdownHook);
+        } catch (IllegalStateException ex) {
+            // The virtual machine is exiting, and this is the hook running
+        }
+        writer.execute(() -> {
+            try {
+                if (history != null) {
+                    history.close();
+                    favorites.close();
+                }
+            } catch (IOException ex) {
+                Logger.getLogger(ColorHistory.class.getName())
+                        .log(Level.WARNING, "Could not close color history", ex);
+            }
+        });
+        writer.shutdown();
+        try {
+            writer.awaitTermination(1, TimeUnit.SECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Adds the given listener, which is notified on the event dispatch thread.
+     *
+     * @param l The listener to add.
+     */
+    public void addChangeListener(ChangeListener l) {
+        listenerList.add(ChangeListener.class, l);
+    }
+
+    /**
+     * Removes the given listener.
+     *
+     * @param l The listener to remove.
+     */
+    public void removeChangeListener(ChangeListener l) {
+        listenerList.remove(ChangeListener.class, l);
+    }
+
+    private void fireStateChanged() {
+        SwingUtilities.invokeLater(() -> {
+            ChangeEvent evt = new ChangeEvent(this);
+            for (ChangeListener l : listenerList.getListeners(ChangeListener.class)) {
+                l.stateChanged(evt);
+            }
+        });
+    }
+
+    /**
+     * The {@code IOTask} interface represents a write to the history.
+     */
+    @FunctionalInterface
+    private interface IOTask {
+
+        void run() throws IOException;
+
+    }
+
+}
@@ -0,0 +1,352 @@
+package colorpicker;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.IntPredicate;
+
+/**
+ * The {@code ColorLog} class contains an append-only log of timestamped
+ * integers, usually packed colors, stored in a memory-mapped file. Opening a
+ * log only reads its header, so it takes the same time whatever its size.
+ *
+ * <p>The file starts with a header holding the amount of committed records,
+ * followed by fixed-size records of a {@code long} timestamp and an
+ * {@code int} value. A record is written before the header is updated, so a
+ * record is either fully committed or ignored.
+ *
+ * <p>Only one thread may append to or compact a log. Any amount of threads
+ * may read it concurrently; readers see a consistent prefix of the log until
+ * it is compacted. Each snapshot pins the compactions done before it was
+ * taken, and {@link Snapshot#validate()} tells readers whether the records
+ * they read may have been moved since, in which case they should take a new
+ * snapshot and read again.
+ *
+ * @author Oliver Abdulrahim
+ */
+final class ColorLog implements Closeable {
+
+    /**
+     * Stores the magic number identifying log files.
+     */
+    private static final int MAGIC = 0x43504C47;
+
+    /**
+     * Stores the version of the file format.
+     */
+    private static final int VERSION = 1;
+
+    /**
+     * Stores the position of the amount of committed records in the header.
+     */
+    private static final int COUNT_OFFSET = 8;
+
+    /**
+     * Stores the position of the amount of records after the last compaction
+     * in the header.
+     */
+    private static final int COMPACTED_OFFSET = 16;
+
+    /**
+     * Stores the size of the header, in bytes.
+     */
+    static final int HEADER_SIZE = 24;
+
+    /**
+     * Stores the size of a record, in bytes.
+     */
+    static final int RECORD_SIZE = 12;
+
+    /**
+     * Stores the amount of records a new log has room for.
+     */
+    private static final int INITIAL_CAPACITY = 4096;
+
+    /**
+     * Stores the maximum amount of records, which keeps the whole log within
+     * a single mapping.
+     */
+    static final int MAX_RECORDS = (Integer.MAX_VALUE - HEADER_SIZE) / RECORD_SIZE;
+
+    /**
+     * Stores the amount of records below which a log is never compacted.
+     */
+    private static final int MIN_COMPACTION = 1024;
+
+    /**
+     * Stores the location of this log.
+     */
+    private final Path path;
+
+    /**
+     * Stores the channel the current mapping was created from.
+     */
+    private FileChannel channel;
+
+    /**
+     * Stores the current mapping and the amount of records readable from it.
+     */
+    private volatile Snapshot snapshot;
+
+    /**
+     * Stores the amount of records after the last compaction.
+     */
+    private long compacted;
+
+    /**
+     * Stores the lock held by compactions while they move records, which
+     * snapshots validate their reads against.
+     */
+    private final StampedLock lock = new StampedLock();
+
+    private ColorLog(Path path) {
+        this.path = path;
+    }
+
+    /**
+     * Opens the log at the given location, creating it if needed.
+     *
+     * @param path The location of the log.
+     * @return The opened log.
+     * @throws IOException if the file cannot be opened or is not a log.
+     */
+    static ColorLog open(Path path) throws IOException {
+        ColorLog log = new ColorLog(path);
+        log.map();
+        return log;
+    }
+
+    private void map() throws IOException {
+        channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                                   StandardOpenOption.READ, StandardOpenOption.WRITE);
+        if (channel.size() < HEADER_SIZE) {
+            MappedByteBuffer buffer = mapCapacity(INITIAL_CAPACITY);
+            buffer.putInt(0, MAGIC);
+            buffer.putInt(4, VERSION);
+            buffer.putLong(COUNT_OFFSET, 0);
+            buffer.putLong(COMPACTED_OFFSET, 0);
+            snapshot = new Snapshot(buffer, 0, INITIAL_CAPACITY);
+            compacted = 0;
+            return;
+        }
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        channel.read(header, 0);
+        if (header.getInt(0) != MAGIC || header.getInt(4) != VERSION) {
+            throw new IOException("Not a color log: " + path);
+        }
+        int count = (int) Math.min(header.getLong(COUNT_OFFSET), MAX_RECORDS);
+        compacted = header.getLong(COMPACTED_OFFSET);
+        int capacity = (int) Math.min(MAX_RECORDS,
+                Math.max(INITIAL_CAPACITY, 2L * count));
+        snapshot = new Snapshot(mapCapacity(capacity), count, capacity);
+    }
+
+    private MappedByteBuffer mapCapacity(int capacity) throws IOException {
+        return channel.map(FileChannel.MapMode.READ_WRITE, 0,
+                           HEADER_SIZE + (long) capacity * RECORD_SIZE);
+    }
+
+    /**
+     * Returns the amount of committed records.
+     *
+     * @return The size of this log.
+     */
+    int size() {
+        return snapshot.count;
+    }
+
+    /**
+     * Returns the current mapping of this log, which readers should hold on
+     * to while reading a consistent set of records. If a compaction is moving
+     * records, this method waits for it to finish.
+     *
+     * @return The current snapshot of this log.
+     */
+    Snapshot snapshot() {
+        long stamp = lock.tryOptimisticRead();
+        while (stamp == 0) {
+            lock.unlockRead(lock.readLock());
+            stamp = lock.tryOptimisticRead();
+        }
+        Snapshot current = snapshot;
+        return new Snapshot(current.buffer, current.count, current.capacity, lock, stamp);
+    }
+
+    /**
+     * Appends a record to this log.
+     *
+     * @param time The timestamp of the record, in epoch milliseconds.
+     * @param value The value of the record.
+     * @throws IOException if the log could not be grown.
+     */
+    void append(long time, int value) throws IOException {
+        Snapshot current = snapshot;
+        if (current.count == MAX_RECORDS) {
+            throw new IOException("Color log is full: " + path);
+        }
+        if (current.count == current.capacity) {
+            int capacity = (int) Math.min(MAX_RECORDS, 2L * current.capacity);
+            current = new Snapshot(mapCapacity(capacity), current.count, capacity);
+        }
+        MappedByteBuffer buffer = current.buffer;
+        int position = HEADER_SIZE + current.count * RECORD_SIZE;
+        buffer.putLong(position, time);
+        buffer.putInt(position + 8, value);
+        buffer.putLong(COUNT_OFFSET, current.count + 1);
+        snapshot = new Snapshot(buffer, current.count + 1, current.capacity);
+    }
+
+    /**
+     * Returns whether or not this log has grown enough since its last
+     * compaction to be worth compacting again.
+     *
+     * @return {@code true} if this log should be compacted.
+     */
+    boolean needsCompaction() {
+        int count = snapshot.count;
+        return count >= MIN_COMPACTION && count > 2 * compacted;
+    }
+
+    /**
+     * Rewrites this log, keeping only the newest record of each packed color
+     * (the low 24 bits of the value), and only if it matches the given
+     * predicate. The order of kept records is preserved.
+     *
+     * <p>Records are moved towards the start of the file in place, through
+     * the current mapping, and the header is updated last. The file is never
+     * replaced while it is mapped, which most platforms do not allow. Every
+     * kept record is still in the file if the rewrite is interrupted, and the
+     * newest record of each color still follows its older ones, so an
+     * interrupted compaction only leaves records the next one removes.
+     * Snapshots taken before a compaction may read moved records, and no
+     * longer {@linkplain Snapshot#validate() validate} once it has started.
+     *
+     * @param keep The predicate the newest record of each color must match to
+     *        be kept.
+     * @throws IOException if the log could not be rewritten.
+     */
+    void compact(IntPredicate keep) throws IOException {
+        Snapshot current = snapshot;
+        long[] seen = new long[(PackedColor.RGB_MASK + 1) >>> 6];
+        int[] kept = new int[current.count];
+        int keptCount = 0;
+        for (int i = current.count - 1; i >= 0; i--) {
+            int value = current.getValue(i);
+            int rgb = value & PackedColor.RGB_MASK;
+            long bit = 1L << rgb;
+            if ((seen[rgb >>> 6] & bit) == 0) {
+                seen[rgb >>> 6] |= bit;
+                if (keep.test(value)) {
+                    kept[keptCount++] = i;
+                }
+            }
+        }
+
+        // The record moved into slot j comes from slot kept[j] >= j, which is
+        // never overwritten before it is read
+        MappedByteBuffer buffer = current.buffer;
+        long stamp = lock.writeLock();
+        try {
+            for (int j = 0; j < keptCount; j++) {
+                int from = kept[keptCount - 1 - j];
+                if (from != j) {
+                    long time = current.getTime(from);
+                    int value = current.getValue(from);
+                    int position = HEADER_SIZE + j * RECORD_SIZE;
+                    buffer.putLong(position, time);
+                    buffer.putInt(position + 8, value);
+                }
+            }
+            buffer.force();
+            buffer.putLong(COMPACTED_OFFSET, keptCount);
+            buffer.putLong(COUNT_OFFSET, keptCount);
+            buffer.force();
+            compacted = keptCount;
+            snapshot = new Snapshot(buffer, keptCount, current.capacity);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        snapshot.buffer.force();
+        channel.close();
+    }
+
+    /**
+     * The {@code Snapshot} class contains a mapping of a log and the amount
+     * of records committed when it was taken. A snapshot stays readable even
+     * after the log is grown or compacted, although the records it reads may
+     * have been moved by a compaction.
+     */
+    static final class Snapshot {
+
+        private final MappedByteBuffer buffer;
+        private final int count;
+        private final int capacity;
+        private final StampedLock lock;
+        private final long stamp;
+
+        Snapshot(MappedByteBuffer buffer, int count, int capacity) {
+            this(buffer, count, capacity, null, 0);
+        }
+
+        Snapshot(MappedByteBuffer buffer, int count, int capacity,
+                 StampedLock lock, long stamp) {
+            this.buffer = buffer;
+            this.count = count;
+            this.capacity = capacity;
+            this.lock = lock;
+            this.stamp = stamp;
+        }
+
+        /**
+         * Returns whether or not the records read through this snapshot so
+         * far are the ones it was taken with, which is the case until the log
+         * starts being compacted.
+         *
+         * @return {@code true} if the reads of this snapshot are consistent,
+         *         {@code false} if a new snapshot should be taken.
+         */
+        boolean validate() {
+            return lock == null || lock.validate(stamp);
+        }
+
+        /**
+         * Returns the amount of records in this snapshot.
+         *
+         * @return The size of this snapshot.
+         */
+        int size() {
+            return count;
+        }
+
+        /**
+         * Returns the timestamp of the given record.
+         *
+         * @param index The index of the record, oldest first.
+         * @return The timestamp of the record.
+         */
+        long getTime(int index) {
+            return buffer.getLong(HEADER_SIZE + index * RECORD_SIZE);
+        }
+
+        /**
+         * Returns the value of the given record.
+         *
+         * @param index The index of the record, oldest first.
+         * @return The value of the record.
+         */
+        int getValue(int index) {
+            return buffer.getInt(HEADER_SIZE + index * RECORD_SIZE + 8);
+        }
+
+    }
+
+}
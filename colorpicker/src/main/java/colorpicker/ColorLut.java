@@ -0,0 +1,420 @@
+package colorpicker;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * The {@code ColorLut} class contains a three-dimensional color lookup table
+ * read from a {@code .cube} file, as used for color grading. The lattice is
+ * kept as a flat {@code float[]} in file order, red varying fastest.
+ *
+ * <p>Since every input is a packed color, the lower lattice point and the
+ * fraction of each 8-bit component are computed once into tables, so looking
+ * up a color is three table reads followed by the interpolation itself.
+ *
+ * @author Oliver Abdulrahim
+ */
+public final class ColorLut {
+
+    /**
+     * The {@code Interpolation} enum contains the ways a color between the
+     * points of the lattice is computed.
+     */
+    public enum Interpolation {
+
+        /**
+         * Blends the 8 corners of the enclosing cube.
+         */
+        TRILINEAR("Trilinear"),
+
+        /**
+         * Blends the 4 corners of the enclosing tetrahedron, which keeps the
+         * neutral axis free of blending with off-axis colors.
+         */
+        TETRAHEDRAL("Tetrahedral");
+
+        /**
+         * Stores the display name of this interpolation.
+         */
+        private final String name;
+
+        private Interpolation(String name) {
+            this.name = name;
+        }
+
+        @Override
+        public String toString() {
+            return name;
+        }
+
+    }
+
+    /**
+     * Stores the largest lattice size accepted, which bounds the memory used
+     * by a malformed file.
+     */
+    public static final int MAX_SIZE = 129;
+
+    /**
+     * Stores the amount of levels of an 8-bit component.
+     */
+    private static final int LEVELS = 256;
+
+    /**
+     * Stores the title of this table, or an empty string.
+     */
+    private final String title;
+
+    /**
+     * Stores the amount of points along each axis of the lattice.
+     */
+    private final int size;
+
+    /**
+     * Stores the output of every lattice point, three floats each.
+     */
+    private final float[] lattice;
+
+    /**
+     * Stores the index into the lattice of the lower point for each level of
+     * red, green, and blue, in that order.
+     */
+    private final int[] bases = new int[3 * LEVELS];
+
+    /**
+     * Stores the fraction of the way to the upper point for each level of red,
+     * green, and blue, in that order.
+     */
+    private final float[] fractions = new float[3 * LEVELS];
+
+    private ColorLut(String title, int size, float[] lattice, float[] domainMin,
+                     float[] domainMax) {
+        this.title = title;
+        this.size = size;
+        this.lattice = lattice;
+        int[] strides = { 3, 3 * size, 3 * size * size };
+        for (int c = 0; c < 3; c++) {
+            float scale = (size - 1) / (domainMax[c] - domainMin[c]);
+            for (int level = 0; level < LEVELS; level++) {
+                float position = (level / 255f - domainMin[c]) * scale;
+                position = Math.max(0, Math.min(size - 1, position));
+                int lower = Math.min((int) position, size - 2);
+                bases[c * LEVELS + level] = lower * strides[c];
+                fractions[c * LEVELS + level] = position - lower;
+            }
+        }
+    }
+
+    /**
+     * Reads the table in the given {@code .cube} file.
+     *
+     * @param file The file to read.
+     * @return The table of the file.
+     * @throws IOException if the file cannot be read or is not a 3D table.
+     */
+    public static ColorLut read(Path file) throws IOException {
+        try (InputStream in = Files.newInputStream(file)) {
+            return read(in);
+        }
+    }
+
+    /**
+     * Reads a table in the {@code .cube} format from the given stream.
+     *
+     * @param in The stream to read.
+     * @return The table read.
+     * @throws IOException if the stream cannot be read or is not a 3D table.
+     */
+    public static ColorLut read(InputStream in) throws IOException {
+        BufferedReader reader = new BufferedReader(
+                new InputStreamReader(in, StandardCharsets.UTF_8));
+        String title = "";
+        int size = 0;
+        float[] domainMin = { 0, 0, 0 };
+        float[] domainMax = { 1, 1, 1 };
+        float[] lattice = null;
+        int count = 0;
+        float[] values = new float[3];
+        String line;
+        int lineNumber = 0;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            line = line.trim();
+            if (line.isEmpty() || line.charAt(0) == '#') {
+                continue;
+            }
+            char first = line.charAt(0);
+            if (Character.isLetter(first)) {
+                int space = line.indexOf(' ');
+                String keyword = (space < 0) ? line : line.substring(0, space);
+                String rest = (space < 0) ? "" : line.substring(space + 1).trim();
+                switch (keyword) {
+                    case "TITLE":
+                        title = rest.replace("\"", "");
+                        break;
+                    case "LUT_3D_SIZE":
+                        size = parseSize(rest, lineNumber);
+                        lattice = new float[3 * size * size * size];
+                        break;
+                    case "DOMAIN_MIN":
+                        parseTriple(rest, domainMin, lineNumber);
+                        break;
+                    case "DOMAIN_MAX":
+                        parseTriple(rest, domainMax, lineNumber);
+                        break;
+                    case "LUT_3D_INPUT_RANGE":
+                        parseTriple(rest + " 0", values, lineNumber);
+                        domainMin[0] = domainMin[1] = domainMin[2] = values[0];
+                        domainMax[0] = domainMax[1] = domainMax[2] = values[1];
+                        break;
+                    case "LUT_1D_SIZE":
+                        throw new IOException("Only 3D lookup tables are supported");
+                    default:
+                        // Unknown keywords are extensions that can be ignored
+                        break;
+                }
+                continue;
+            }
+            if (lattice == null) {
+                throw new IOException("Line " + lineNumber + ": data before LUT_3D_SIZE");
+            }
+            if (count == lattice.length) {
+                throw new IOException("Line " + lineNumber + ": more than "
+                        + size + "^3 entries");
+            }
+            parseTriple(line, values, lineNumber);
+            lattice[count++] = values[0];
+            lattice[count++] = values[1];
+            lattice[count++] = values[2];
+        }
+        if (lattice == null) {
+            throw new IOException("Missing LUT_3D_SIZE");
+        }
+        if (count != lattice.length) {
+            throw new IOException("Expected " + size + "^3 entries, found " + (count / 3));
+        }
+        for (int c = 0; c < 3; c++) {
+            if (!(domainMax[c] > domainMin[c])) {
+                throw new IOException("Empty domain");
+            }
+        }
+        return new ColorLut(title, size, lattice, domainMin, domainMax);
+    }
+
+    private static int parseSize(String text, int lineNumber) throws IOException {
+        try {
+            int size = Integer.parseInt(text);
+            if (size >= 2 && size <= MAX_SIZE) {
+                return size;
+            }
+        } catch (NumberFormatException ex) {
+            // Reported below
+        }
+        throw new IOException("Line " + lineNumber + ": invalid size " + text);
+    }
+
+    /**
+     * Parses three floats separated by whitespace into the given array.
+     */
+    private static void parseTriple(String text, float[] dest, int lineNumber)
+            throws IOException {
+        int length = text.length();
+        int position = 0;
+        for (int i = 0; i < 3; i++) {
+            while (position < length && Character.isWhitespace(text.charAt(position))) {
+                position++;
+            }
+            int start = position;
+            while (position < length && !Character.isWhitespace(text.charAt(position))) {
+                position++;
+            }
+            try {
+                dest[i] = Float.parseFloat(text.substring(start, position));
+            } catch (NumberFormatException ex) {
+                throw new IOException("Line " + lineNumber + ": expected three numbers", ex);
+            }
+        }
+    }
+
+    /**
+     * Returns the title of this table.
+     *
+     * @return The title, or an empty string if the file has none.
+     */
+    public String getTitle() {
+        return title;
+    }
+
+    /**
+     * Returns the amount of points along each axis of this table.
+     *
+     * @return The size of the lattice.
+     */
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * Returns the given color after this table.
+     *
+     * @param rgb The packed color to look up.
+     * @param interpolation The way to interpolate between lattice points.
+     * @return The packed output color.
+     */
+    public int apply(int rgb, Interpolation interpolation) {
+        int red = (rgb >> 16) & 0xFF;
+        int green = (rgb >> 8) & 0xFF;
+        int blue = rgb & 0xFF;
+        int base = bases[red] + bases[LEVELS + green] + bases[2 * LEVELS + blue];
+        float fr = fractions[red];
+        float fg = fractions[LEVELS + green];
+        float fb = fractions[2 * LEVELS + blue];
+        return (interpolation == Interpolation.TETRAHEDRAL)
+                ? tetrahedral(base, fr, fg, fb)
+                : trilinear(base, fr, fg, fb);
+    }
+
+    /**
+     * Looks up a range of colors, which may be done in place.
+     *
+     * @param src The packed colors to look up.
+     * @param srcOffset The index of the first color to look up.
+     * @param dest The array to write the packed output colors into.
+     * @param destOffset The index of the first output color.
+     * @param length The amount of colors to look up.
+     * @param interpolation The way to interpolate between lattice points.
+     */
+    public void apply(int[] src, int srcOffset, int[] dest, int destOffset, int length,
+                      Interpolation interpolation) {
+        if (interpolation == Interpolation.TETRAHEDRAL) {
+            for (int i = 0; i < length; i++) {
+                int rgb = src[srcOffset + i];
+                int red = (rgb >> 16) & 0xFF;
+                int green = (rgb >> 8) & 0xFF;
+                int blue = rgb & 0xFF;
+                dest[destOffset + i] = tetrahedral(
+                        bases[red] + bases[LEVELS + green] + bases[2 * LEVELS + blue],
+                        fractions[red], fractions[LEVELS + green], fractions[2 * LEVELS + blue]);
+            }
+        } else {
+            for (int i = 0; i < length; i++) {
+                int rgb = src[srcOffset + i];
+                int red = (rgb >> 16) & 0xFF;
+                int green = (rgb >> 8) & 0xFF;
+                int blue = rgb & 0xFF;
+                dest[destOffset + i] = trilinear(
+                        bases[red] + bases[LEVELS + green] + bases[2 * LEVELS + blue],
+                        fractions[red], fractions[LEVELS + green], fractions[2 * LEVELS + blue]);
+            }
+        }
+    }
+
+    private int trilinear(int base, float fr, float fg, float fb) {
+        float[] lattice = this.lattice;
+        int sg = 3 * size;
+        int sb = sg * size;
+        return (toLevel(trilinear(lattice, base, sg, sb, fr, fg, fb)) << 16)
+                | (toLevel(trilinear(lattice, base + 1, sg, sb, fr, fg, fb)) << 8)
+                | toLevel(trilinear(lattice, base + 2, sg, sb, fr, fg, fb));
+    }
+
+    /**
+     * Returns one output component blended from the 8 corners of the cube
+     * whose lower corner is at the given index.
+     */
+    private static float trilinear(float[] lattice, int i, int sg, int sb,
+                                   float fr, float fg, float fb) {
+        float c00 = lattice[i] + fr * (lattice[i + 3] - lattice[i]);
+        float c10 = lattice[i + sg] + fr * (lattice[i + sg + 3] - lattice[i + sg]);
+        float c01 = lattice[i + sb] + fr * (lattice[i + sb + 3] - lattice[i + sb]);
+        float c11 = lattice[i + sb + sg] + fr * (lattice[i + sb + sg + 3] - lattice[i + sb + sg]);
+        float c0 = c00 + fg * (c10 - c00);
+        float c1 = c01 + fg * (c11 - c01);
+        return c0 + fb * (c1 - c0);
+    }
+
+    private int tetrahedral(int base, float fr, float fg, float fb) {
+        float[] lattice = this.lattice;
+        int sg = 3 * size;
+        int sb = sg * size;
+        // The tetrahedron is the path from the lower to the upper corner that
+        // steps along the axes in order of decreasing fraction
+        int first;
+        int second;
+        float w0;
+        float w1;
+        float w2;
+        float w3;
+        if (fr > fg) {
+            if (fg > fb) {
+                first = 3;
+                second = 3 + sg;
+                w0 = 1 - fr;
+                w1 = fr - fg;
+                w2 = fg - fb;
+                w3 = fb;
+            } else if (fr > fb) {
+                first = 3;
+                second = 3 + sb;
+                w0 = 1 - fr;
+                w1 = fr - fb;
+                w2 = fb - fg;
+                w3 = fg;
+            } else {
+                first = sb;
+                second = sb + 3;
+                w0 = 1 - fb;
+                w1 = fb - fr;
+                w2 = fr - fg;
+                w3 = fg;
+            }
+        } else {
+            if (fb > fg) {
+                first = sb;
+                second = sb + sg;
+                w0 = 1 - fb;
+                w1 = fb - fg;
+                w2 = fg - fr;
+                w3 = fr;
+            } else if (fb > fr) {
+                first = sg;
+                second = sg + sb;
+                w0 = 1 - fg;
+                w1 = fg - fb;
+                w2 = fb - fr;
+                w3 = fr;
+            } else {
+                first = sg;
+                second = sg + 3;
+                w0 = 1 - fg;
+                w1 = fg - fr;
+                w2 = fr - fb;
+                w3 = fb;
+            }
+        }
+        int last = 3 + sg + sb;
+        int i = base;
+        int red = toLevel(w0 * lattice[i] + w1 * lattice[i + first]
+                + w2 * lattice[i + second] + w3 * lattice[i + last]);
+        i++;
+        int green = toLevel(w0 * lattice[i] + w1 * lattice[i + first]
+                + w2 * lattice[i + second] + w3 * lattice[i + last]);
+        i++;
+        int blue = toLevel(w0 * lattice[i] + w1 * lattice[i + first]
+                + w2 * lattice[i + second] + w3 * lattice[i + last]);
+        return (red << 16) | (green << 8) | blue;
+    }
+
+    /**
+     * Returns the 8-bit level of the given output component.
+     */
+    private static int toLevel(float value) {
+        return (int) (Math.max(0, Math.min(1, value)) * 255 + 0.5f);
+    }
+
+}
@@ -0,0 +1,210 @@
+package colorpicker;
+
+import javax.swing.event.ChangeEvent;
+import javax.swing.event.ChangeListener;
+import javax.swing.event.EventListenerList;
+
+/**
+ * The {@code ColorModel} class owns the color currently being edited. Every
+ * view of the color (sliders, spinners, previews) reads from and writes to a
+ * shared instance of this class instead of to each other, so a single edit
+ * produces a single round of change notifications.
+ *
+ * <p>Notifications are never delivered re-entrantly. If a listener modifies
+ * the model while it is being notified, the new value is stored immediately
+ * and all listeners are notified again once the current round finishes.
+ *
+ * <p>Like the rest of Swing, this class is not thread-safe and should only be
+ * used from the event dispatch thread.
+ *
+ * @author Oliver Abdulrahim
+ */
+public class ColorModel {
+
+    /**
+     * Stores the current color as a packed {@code 0xRRGGBB} value.
+     */
+    private int rgb;
+
+    /**
+     * Stores whether or not the current changes are part of a series of
+     * changes, such as a slider drag.
+     */
+    private boolean valueIsAdjusting;
+
+    /**
+     * Stores whether or not listeners are currently being notified.
+     */
+    private boolean firing;
+
+    /**
+     * Stores whether or not the model changed while listeners were being
+     * notified.
+     */
+    private boolean pending;
+
+    /**
+     * Stores the listeners of this model.
+     */
+    private final EventListenerList listenerList = new EventListenerList();
+
+    /**
+     * Stores the only event ever sent by this model, since its source is the
+     * only state it carries.
+     */
+    private final ChangeEvent changeEvent = new ChangeEvent(this);
+
+    /**
+     * Creates a new {@code ColorModel} with the given initial color.
+     *
+     * @param rgb The initial packed color.
+     */
+    public ColorModel(int rgb) {
+        this.rgb = rgb & PackedColor.RGB_MASK;
+    }
+
+    /**
+     * Returns the current color as a packed {@code 0xRRGGBB} value.
+     *
+     * @return The current packed color.
+     */
+    public int getRGB() {
+        return rgb;
+    }
+
+    /**
+     * Returns the current red component.
+     *
+     * @return The current red component.
+     */
+    public int getRed() {
+        return PackedColor.red(rgb);
+    }
+
+    /**
+     * Returns the current green component.
+     *
+     * @return The current green component.
+     */
+    public int getGreen() {
+        return PackedColor.green(rgb);
+    }
+
+    /**
+     * Returns the current blue component.
+     *
+     * @return The current blue component.
+     */
+    public int getBlue() {
+        return PackedColor.blue(rgb);
+    }
+
+    /**
+     * Sets the current color, notifying listeners if it changed.
+     *
+     * @param rgb The new packed color.
+     */
+    public void setRGB(int rgb) {
+        rgb &= PackedColor.RGB_MASK;
+        if (this.rgb != rgb) {
+            this.rgb = rgb;
+            fireStateChanged();
+        }
+    }
+
+    /**
+     * Sets the current red component, notifying listeners if it changed.
+     *
+     * @param red The new red component.
+     */
+    public void setRed(int red) {
+        setRGB(PackedColor.withRed(rgb, red));
+    }
+
+    /**
+     * Sets the current green component, notifying listeners if it changed.
+     *
+     * @param green The new green component.
+     */
+    public void setGreen(int green) {
+        setRGB(PackedColor.withGreen(rgb, green));
+    }
+
+    /**
+     * Sets the current blue component, notifying listeners if it changed.
+     *
+     * @param blue The new blue component.
+     */
+    public void setBlue(int blue) {
+        setRGB(PackedColor.withBlue(rgb, blue));
+    }
+
+    /**
+     * Returns whether or not the current changes are part of a series of
+     * changes.
+     *
+     * @return {@code true} if the color is being adjusted, {@code false}
+     *         otherwise.
+     */
+    public boolean getValueIsAdjusting() {
+        return valueIsAdjusting;
+    }
+
+    /**
+     * Sets whether or not upcoming changes are part of a series of changes,
+     * notifying listeners if this property changed.
+     *
+     * @param valueIsAdjusting Whether or not the color is being adjusted.
+     */
+    public void setValueIsAdjusting(boolean valueIsAdjusting) {
+        if (this.valueIsAdjusting != valueIsAdjusting) {
+            this.valueIsAdjusting = valueIsAdjusting;
+            fireStateChanged();
+        }
+    }
+
+    /**
+     * Adds the given listener to this model.
+     *
+     * @param l The listener to add.
+     */
+    public void addChangeListener(ChangeListener l) {
+        listenerList.add(ChangeListener.class, l);
+    }
+
+    /**
+     * Removes the given listener from this model.
+     *
+     * @param l The listener to remove.
+     */
+    public void removeChangeListener(ChangeListener l) {
+        listenerList.remove(ChangeListener.class, l);
+    }
+
+    /**
+     * Notifies every listener that this model changed. Calls made while
+     * listeners are already being notified are deferred until the current
+     * round finishes.
+     */
+    protected void fireStateChanged() {
+        if (firing) {
+            pending = true;
+            return;
+        }
+        firing = true;
+        try {
+            do {
+                pending = false;
+                Object[] listeners = listenerList.getListenerList();
+                for (int i = listeners.length - 2; i >= 0; i -= 2) {
+                    if (listeners[i] == ChangeListener.class) {
+                        ((ChangeListener) listeners[i + 1]).stateChanged(changeEvent);
+                    }
+                }
+            } while (pending);
+        } finally {
+            firing = false;
+        }
+    }
+
+}
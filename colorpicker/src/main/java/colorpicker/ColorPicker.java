@@ -3,14 +3,16 @@ package colorpicker;
 import java.awt.Color;
 import java.awt.Component;
 import java.awt.Dimension;
-import java.awt.Toolkit;
-import java.awt.datatransfer.Clipboard;
-import java.awt.datatransfer.StringSelection;
+import java.awt.Font;
+import java.awt.Graphics;
 import java.awt.event.ActionEvent;
 import java.awt.event.InputEvent;
 import java.awt.event.KeyEvent;
 import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import javax.swing.BorderFactory;
@@ -20,15 +22,19 @@ import javax.swing.JLabel;
 import javax.swing.JMenu;
 import javax.swing.JMenuBar;
 import javax.swing.JMenuItem;
+import javax.swing.JOptionPane;
 import javax.swing.JPanel;
 import javax.swing.JPopupMenu;
 import javax.swing.JSlider;
 import javax.swing.JSpinner;
+import javax.swing.JTabbedPane;
+import javax.swing.JTextArea;
 import javax.swing.KeyStroke;
 import javax.swing.LayoutStyle;
 import javax.swing.SpinnerNumberModel;
 import javax.swing.SwingConstants;
 import javax.swing.SwingUtilities;
+import javax.swing.Timer;
 import javax.swing.UIManager;
 import javax.swing.UnsupportedLookAndFeelException;
 import javax.swing.WindowConstants;
@@ -61,19 +67,83 @@ public class ColorPicker extends JFrame {
     public static final int MAX_COLOR_VALUE = 255;
     
     /**
-     * Stores the current red component of the {@code colorLabel}.
+     * Stores the delay, in milliseconds, between repaints of the preview. This
+     * is roughly one frame of a 60 Hz display.
      */
-    private int red;
+    public static final int FRAME_INTERVAL = 16;
     
     /**
-     * Stores the current green component of the {@code colorLabel}.
-     */    
-    private int green;
+     * Stores the class name of the Windows look and feel.
+     */
+    private static final String WINDOWS_LOOK_AND_FEEL = 
+            "com.sun.java.swing.plaf.windows.WindowsLookAndFeel";
+    
+    /**
+     * Stores the color vision deficiencies simulated below the preview.
+     */
+    private static final ColorDeficiency[] DEFICIENCIES = ColorDeficiency.values();
+    
+    /**
+     * Stores the color being edited. The sliders, spinners, and preview are 
+     * all views of this model.
+     */
+    private final ColorModel model;
+    
+    /**
+     * Stores the wiring of the sliders, spinners, and preview to the 
+     * {@link #model}.
+     */
+    private final ColorControls controls;
+    
+    /**
+     * Stores the timer that coalesces preview updates to at most one per 
+     * {@link #FRAME_INTERVAL}.
+     */
+    private final Timer previewTimer;
+    
+    /**
+     * Stores the dictionary of named colors shown in the preview tooltip, 
+     * which is loaded in the background. The future is completed with 
+     * {@code null} if the dictionary could not be loaded.
+     */
+    private final CompletableFuture<NamedColorIndex> namedColors;
+    
+    /**
+     * Stores the steps the color went through, for undo and redo.
+     */
+    private final UndoTimeline timeline;
+    
+    /**
+     * Stores the persistent history of copied colors.
+     */
+    private final ColorHistory history;
+    
+    /**
+     * Stores the service writing copied colors to the system clipboard.
+     */
+    private final ClipboardService clipboard;
+    
+    /**
+     * Stores the instrumentation of the path from an edit to the preview.
+     */
+    private final PipelineMonitor monitor;
+    
+    /**
+     * Stores a reusable buffer for hex encoding the current color.
+     */
+    private final char[] hexBuffer = new char[PackedColor.HEX_LENGTH];
     
     /**
-     * Stores the current blue component of the {@code colorLabel}.
+     * Stores whether or not the components besides the sliders and the 
+     * preview are still to be built, which is the case in fast-start mode
+     * until the preview is first painted.
      */
-    private int blue;
+    private boolean deferredComponents;
+    
+    /**
+     * Stores whether or not the preview was painted yet.
+     */
+    private boolean painted;
     
 // GUI elements
     private JLabel aboutLabel;
@@ -82,6 +152,16 @@ public class ColorPicker extends JFrame {
     private JSlider blueSlider;
     private JSpinner blueSpinner;
     private JLabel colorLabel;
+    private JLabel[] simulationLabels;
+    private ContrastPanel contrastPanel;
+    private LutPanel lutPanel;
+    private GradientPanel gradientPanel;
+    private JMenu debugMenu;
+    private JMenu editMenu;
+    private JMenuItem editRedoItem;
+    private JMenuItem editUndoItem;
+    private JMenuItem debugReportItem;
+    private JMenuItem debugResetItem;
     private JMenuItem fileCopyMenuItem;
     private JMenuItem fileExitItem;
     private JMenu fileMenu;
@@ -94,17 +174,56 @@ public class ColorPicker extends JFrame {
     private JSlider redSlider;
     private JSpinner redSpinner;
     private JPanel settingsPanel;
+    private ColorSpacePanel colorSpacePanel;
+    private JPanel fieldPanel;
+    private SaturationValueField saturationValueField;
+    private HueStrip hueStrip;
+    private ImagePalettePanel imagePalettePanel;
+    private HistoryPanel historyPanel;
+    private TimelinePanel timelinePanel;
+    private JTabbedPane toolsPane;
     private JMenuBar topMenuBar;
     
     /**
      * Creates new {@code ColorPicker} form.
      */
     public ColorPicker() {
-        red = DEFAULT_COLOR_VALUE;
-        green = DEFAULT_COLOR_VALUE;
-        blue = DEFAULT_COLOR_VALUE;
+        this(false);
+    }
+    
+    /**
+     * Creates new {@code ColorPicker} form. In fast-start mode, only the 
+     * sliders and the preview are built before the form is first painted, and
+     * the remaining components are built right after.
+     * 
+     * @param fastStart Whether or not to defer building secondary components.
+     */
+    public ColorPicker(boolean fastStart) {
+        model = new ColorModel(PackedColor.pack(DEFAULT_COLOR_VALUE, 
+                                                DEFAULT_COLOR_VALUE, 
+                                                DEFAULT_COLOR_VALUE));
+        timeline = new UndoTimeline(model);
+        namedColors = NamedColorIndex.getDefault().exceptionally(ex -> {
+            Logger.getLogger(ColorPicker.class.getName())
+                    .log(Level.WARNING, "Could not load named colors", ex);
+            return null;
+        });
+        history = ColorHistory.open(ColorHistory.defaultDirectory());
+        clipboard = new ClipboardService();
+        monitor = new PipelineMonitor();
         initComponents();
-        updateColorPreview();
+        controls = new ColorControls(model, monitor, 
+                                     new JSlider[] {redSlider, greenSlider, blueSlider}, 
+                                     new JSpinner[] {redSpinner, greenSpinner, blueSpinner}, 
+                                     colorLabel, simulationLabels);
+        previewTimer = new Timer(FRAME_INTERVAL, evt -> controls.updateColorPreview());
+        previewTimer.setRepeats(false);
+        deferredComponents = true;
+        if (!fastStart) {
+            initDeferredComponents();
+        }
+        model.addChangeListener(this :: modelStateChanged);
+        controls.updateColorPreview();
     }
     
     @SuppressWarnings("unchecked")
@@ -119,15 +238,25 @@ public class ColorPicker extends JFrame {
         redSpinner = new JSpinner();
         greenSpinner = new JSpinner();
         blueSpinner = new JSpinner();
+        toolsPane = new JTabbedPane();
         previewPanel = new JPanel();
-        colorLabel = new JLabel();
+        colorLabel = new JLabel() {
+            
+            @Override
+            public String getToolTipText(MouseEvent evt) {
+                return previewToolTipText();
+            }
+            
+            @Override
+            protected void paintComponent(Graphics g) {
+                super.paintComponent(g);
+                monitor.previewPainted(controls.getDisplayedRgb());
+                previewPainted();
+            }
+            
+        };
         aboutPanel = new JPanel();
         aboutLabel = new JLabel();
-        topMenuBar = new JMenuBar();
-        fileMenu = new JMenu();
-        fileCopyMenuItem = new JMenuItem();
-        fileSeparator = new JPopupMenu.Separator();
-        fileExitItem = new JMenuItem();
 
         setDefaultCloseOperation(WindowConstants.EXIT_ON_CLOSE);
         setResizable(false);
@@ -147,30 +276,24 @@ public class ColorPicker extends JFrame {
         redSlider.setMinorTickSpacing(1);
         redSlider.setValue(DEFAULT_COLOR_VALUE);
         redSlider.setPreferredSize(new Dimension(255, 26));
-        redSlider.addChangeListener(this :: redSliderStateChanged);
 
         greenSlider.setMaximum(MAX_COLOR_VALUE);
         greenSlider.setValue(DEFAULT_COLOR_VALUE);
-        greenSlider.addChangeListener(this :: greenSliderStateChanged);
 
         blueSlider.setMaximum(MAX_COLOR_VALUE);
         blueSlider.setValue(DEFAULT_COLOR_VALUE);
-        blueSlider.addChangeListener(this :: blueSliderStateChanged);
 
         redSpinner.setModel(new SpinnerNumberModel(DEFAULT_COLOR_VALUE, MIN_COLOR_VALUE, MAX_COLOR_VALUE, 1));
         redSpinner.setRequestFocusEnabled(false);
         redSpinner.setValue(DEFAULT_COLOR_VALUE);
-        redSpinner.addChangeListener(this :: redSpinnerStateChanged);
 
         greenSpinner.setModel(new SpinnerNumberModel(DEFAULT_COLOR_VALUE, MIN_COLOR_VALUE, MAX_COLOR_VALUE, 1));
         greenSpinner.setRequestFocusEnabled(false);
         greenSpinner.setValue(DEFAULT_COLOR_VALUE);
-        greenSpinner.addChangeListener(this :: greenSpinnerStateChanged);
 
         blueSpinner.setModel(new SpinnerNumberModel(DEFAULT_COLOR_VALUE, MIN_COLOR_VALUE, MAX_COLOR_VALUE, 1));
         blueSpinner.setRequestFocusEnabled(false);
         blueSpinner.setValue(DEFAULT_COLOR_VALUE);
-        blueSpinner.addChangeListener(this :: blueSpinnerStateChanged);
 
         GroupLayout settingsPanelLayout = new GroupLayout(settingsPanel);
         settingsPanel.setLayout(settingsPanelLayout);
@@ -234,7 +357,9 @@ public class ColorPicker extends JFrame {
 
         previewPanel.setBorder(BorderFactory.createTitledBorder("Color Preview"));
 
-        colorLabel.setToolTipText("Currently " + red + " red, " + green + " green, " + blue + " blue.");
+        // The text is only a placeholder that registers the label with the
+        // tooltip manager, the real text is built lazily when it is shown
+        colorLabel.setToolTipText(colorToHexString(model.getRGB()));
         colorLabel.setOpaque(true);
         colorLabel.setPreferredSize(new Dimension(211, 211));
         colorLabel.addMouseListener(new MouseAdapter() {
@@ -246,13 +371,32 @@ public class ColorPicker extends JFrame {
             
         });
 
+        simulationLabels = new JLabel[DEFICIENCIES.length];
+        for (int i = 0; i < DEFICIENCIES.length; i++) {
+            simulationLabels[i] = new JLabel();
+            simulationLabels[i].setOpaque(true);
+            simulationLabels[i].setToolTipText(DEFICIENCIES[i].toString());
+            simulationLabels[i].setBorder(BorderFactory.createLineBorder(Color.GRAY));
+        }
+
         GroupLayout previewPanelLayout = new GroupLayout(previewPanel);
         previewPanel.setLayout(previewPanelLayout);
+        GroupLayout.SequentialGroup simulationHorizontal = previewPanelLayout.createSequentialGroup();
+        GroupLayout.ParallelGroup simulationVertical = previewPanelLayout.createParallelGroup(GroupLayout.Alignment.LEADING);
+        for (int i = 0; i < simulationLabels.length; i++) {
+            if (i > 0) {
+                simulationHorizontal.addPreferredGap(LayoutStyle.ComponentPlacement.RELATED);
+            }
+            simulationHorizontal.addComponent(simulationLabels[i], GroupLayout.DEFAULT_SIZE, 40, Short.MAX_VALUE);
+            simulationVertical.addComponent(simulationLabels[i], GroupLayout.PREFERRED_SIZE, 40, GroupLayout.PREFERRED_SIZE);
+        }
         previewPanelLayout.setHorizontalGroup(
             previewPanelLayout.createParallelGroup(GroupLayout.Alignment.LEADING)
             .addGroup(previewPanelLayout.createSequentialGroup()
                 .addContainerGap()
-                .addComponent(colorLabel, GroupLayout.PREFERRED_SIZE, 211, GroupLayout.PREFERRED_SIZE)
+                .addGroup(previewPanelLayout.createParallelGroup(GroupLayout.Alignment.LEADING, false)
+                    .addComponent(colorLabel, GroupLayout.PREFERRED_SIZE, 211, GroupLayout.PREFERRED_SIZE)
+                    .addGroup(simulationHorizontal))
                 .addContainerGap(GroupLayout.DEFAULT_SIZE, Short.MAX_VALUE))
         );
         previewPanelLayout.setVerticalGroup(
@@ -260,13 +404,13 @@ public class ColorPicker extends JFrame {
             .addGroup(previewPanelLayout.createSequentialGroup()
                 .addContainerGap()
                 .addComponent(colorLabel, GroupLayout.PREFERRED_SIZE, 211, GroupLayout.PREFERRED_SIZE)
+                .addPreferredGap(LayoutStyle.ComponentPlacement.RELATED)
+                .addGroup(simulationVertical)
                 .addContainerGap(GroupLayout.DEFAULT_SIZE, Short.MAX_VALUE))
         );
 
         aboutPanel.setBorder(BorderFactory.createTitledBorder("About"));
 
-        aboutLabel.setText("<html><p>This is a simple demonstrative GUI. To change the color of the preview, modify the desired component slider.</p><br><p>Once you get a color you like, double-click the color preview to add the color to your clipboard.</html>");
-
         GroupLayout aboutPanelLayout = new GroupLayout(aboutPanel);
         aboutPanel.setLayout(aboutPanelLayout);
         aboutPanelLayout.setHorizontalGroup(
@@ -284,22 +428,6 @@ public class ColorPicker extends JFrame {
                 .addContainerGap(GroupLayout.DEFAULT_SIZE, Short.MAX_VALUE))
         );
 
-        fileMenu.setText("File");
-
-        fileCopyMenuItem.setAccelerator(KeyStroke.getKeyStroke(KeyEvent.VK_C, InputEvent.CTRL_MASK));
-        fileCopyMenuItem.setText("Copy Current Color");
-        fileCopyMenuItem.addActionListener(this :: fileCopyMenuItemActionPerformed);
-        fileMenu.add(fileCopyMenuItem);
-        fileMenu.add(fileSeparator);
-
-        fileExitItem.setText("Exit");
-        fileExitItem.addActionListener(this :: fileExitItemItemActionPerformed);
-        fileMenu.add(fileExitItem);
-
-        topMenuBar.add(fileMenu);
-
-        setJMenuBar(topMenuBar);
-
         GroupLayout layout = new GroupLayout(getContentPane());
         getContentPane().setLayout(layout);
         layout.setHorizontalGroup(
@@ -308,6 +436,7 @@ public class ColorPicker extends JFrame {
                 .addContainerGap()
                 .addGroup(layout.createParallelGroup(GroupLayout.Alignment.LEADING, false)
                     .addComponent(settingsPanel, GroupLayout.DEFAULT_SIZE, GroupLayout.DEFAULT_SIZE, Short.MAX_VALUE)
+                    .addComponent(toolsPane, GroupLayout.DEFAULT_SIZE, GroupLayout.DEFAULT_SIZE, Short.MAX_VALUE)
                     .addComponent(aboutPanel, GroupLayout.DEFAULT_SIZE, GroupLayout.DEFAULT_SIZE, Short.MAX_VALUE))
                 .addPreferredGap(LayoutStyle.ComponentPlacement.RELATED)
                 .addComponent(previewPanel, GroupLayout.PREFERRED_SIZE, GroupLayout.DEFAULT_SIZE, GroupLayout.PREFERRED_SIZE)
@@ -322,12 +451,143 @@ public class ColorPicker extends JFrame {
                     .addGroup(layout.createSequentialGroup()
                         .addComponent(aboutPanel, GroupLayout.PREFERRED_SIZE, GroupLayout.DEFAULT_SIZE, GroupLayout.PREFERRED_SIZE)
                         .addPreferredGap(LayoutStyle.ComponentPlacement.RELATED)
-                        .addComponent(settingsPanel, GroupLayout.PREFERRED_SIZE, GroupLayout.DEFAULT_SIZE, GroupLayout.PREFERRED_SIZE)))
+                        .addComponent(settingsPanel, GroupLayout.PREFERRED_SIZE, GroupLayout.DEFAULT_SIZE, GroupLayout.PREFERRED_SIZE)
+                        .addPreferredGap(LayoutStyle.ComponentPlacement.RELATED)
+                        .addComponent(toolsPane, GroupLayout.PREFERRED_SIZE, GroupLayout.DEFAULT_SIZE, GroupLayout.PREFERRED_SIZE)))
                 .addContainerGap())
         );
         pack();
     }
     
+    /**
+     * Builds the components that are not needed to first show the sliders and
+     * the preview, which are the tools, the about text, and the menu bar.
+     */
+    private void initDeferredComponents() {
+        deferredComponents = false;
+        colorSpacePanel = new ColorSpacePanel(model);
+        fieldPanel = new JPanel();
+        saturationValueField = new SaturationValueField(model);
+        hueStrip = new HueStrip(saturationValueField, model);
+        imagePalettePanel = new ImagePalettePanel(model);
+        historyPanel = new HistoryPanel(history, model);
+        timelinePanel = new TimelinePanel(timeline);
+        contrastPanel = new ContrastPanel(model);
+        lutPanel = new LutPanel(model);
+        gradientPanel = new GradientPanel(model);
+        topMenuBar = new JMenuBar();
+        fileMenu = new JMenu();
+        fileCopyMenuItem = new JMenuItem();
+        fileSeparator = new JPopupMenu.Separator();
+        editMenu = new JMenu();
+        editUndoItem = new JMenuItem();
+        editRedoItem = new JMenuItem();
+        fileExitItem = new JMenuItem();
+
+        GroupLayout fieldPanelLayout = new GroupLayout(fieldPanel);
+        fieldPanel.setLayout(fieldPanelLayout);
+        fieldPanelLayout.setHorizontalGroup(
+            fieldPanelLayout.createParallelGroup(GroupLayout.Alignment.LEADING)
+            .addGroup(fieldPanelLayout.createSequentialGroup()
+                .addContainerGap()
+                .addGroup(fieldPanelLayout.createParallelGroup(GroupLayout.Alignment.LEADING)
+                    .addComponent(saturationValueField, GroupLayout.DEFAULT_SIZE, GroupLayout.DEFAULT_SIZE, Short.MAX_VALUE)
+                    .addComponent(hueStrip, GroupLayout.DEFAULT_SIZE, GroupLayout.DEFAULT_SIZE, Short.MAX_VALUE))
+                .addContainerGap())
+        );
+        fieldPanelLayout.setVerticalGroup(
+            fieldPanelLayout.createParallelGroup(GroupLayout.Alignment.LEADING)
+            .addGroup(fieldPanelLayout.createSequentialGroup()
+                .addContainerGap()
+                .addComponent(saturationValueField, GroupLayout.PREFERRED_SIZE, GroupLayout.DEFAULT_SIZE, GroupLayout.PREFERRED_SIZE)
+                .addPreferredGap(LayoutStyle.ComponentPlacement.RELATED)
+                .addComponent(hueStrip, GroupLayout.PREFERRED_SIZE, GroupLayout.DEFAULT_SIZE, GroupLayout.PREFERRED_SIZE)
+                .addContainerGap(GroupLayout.DEFAULT_SIZE, Short.MAX_VALUE))
+        );
+
+        toolsPane.addTab("Field", fieldPanel);
+        toolsPane.addTab("Color Spaces", colorSpacePanel);
+        toolsPane.addTab("Image", imagePalettePanel);
+        toolsPane.addTab("History", historyPanel);
+        toolsPane.addTab("Timeline", timelinePanel);
+        toolsPane.addTab("Contrast", contrastPanel);
+        toolsPane.addTab("LUT", lutPanel);
+        toolsPane.addTab("Gradient", gradientPanel);
+
+        aboutLabel.setText("<html><p>This is a simple demonstrative GUI. To change the color of the preview, modify the desired component slider.</p><br><p>Once you get a color you like, double-click the color preview to add the color to your clipboard.</html>");
+
+        fileMenu.setText("File");
+
+        fileCopyMenuItem.setAccelerator(KeyStroke.getKeyStroke(KeyEvent.VK_C, InputEvent.CTRL_DOWN_MASK));
+        fileCopyMenuItem.setText("Copy Current Color");
+        fileCopyMenuItem.addActionListener(this :: fileCopyMenuItemActionPerformed);
+        fileMenu.add(fileCopyMenuItem);
+        fileMenu.add(fileSeparator);
+
+        fileExitItem.setText("Exit");
+        fileExitItem.addActionListener(this :: fileExitItemItemActionPerformed);
+        fileMenu.add(fileExitItem);
+
+        topMenuBar.add(fileMenu);
+
+        editMenu.setText("Edit");
+
+        editUndoItem.setAccelerator(KeyStroke.getKeyStroke(KeyEvent.VK_Z, InputEvent.CTRL_DOWN_MASK));
+        editUndoItem.setText("Undo");
+        editUndoItem.addActionListener(evt -> timeline.undo());
+        editMenu.add(editUndoItem);
+
+        editRedoItem.setAccelerator(KeyStroke.getKeyStroke(KeyEvent.VK_Y, InputEvent.CTRL_DOWN_MASK));
+        editRedoItem.setText("Redo");
+        editRedoItem.addActionListener(evt -> timeline.redo());
+        editMenu.add(editRedoItem);
+
+        topMenuBar.add(editMenu);
+        timeline.addChangeListener(this :: timelineStateChanged);
+        timelineStateChanged(null);
+
+        if (monitor.isEnabled()) {
+            debugMenu = new JMenu();
+            debugReportItem = new JMenuItem();
+            debugResetItem = new JMenuItem();
+
+            debugMenu.setText("Debug");
+
+            debugReportItem.setText("Latency Report");
+            debugReportItem.addActionListener(this :: debugReportItemActionPerformed);
+            debugMenu.add(debugReportItem);
+
+            debugResetItem.setText("Reset Latency");
+            debugResetItem.addActionListener(evt -> monitor.reset());
+            debugMenu.add(debugResetItem);
+
+            topMenuBar.add(debugMenu);
+        }
+
+        setJMenuBar(topMenuBar);
+
+        pack();
+    }
+    
+    /**
+     * Called after every paint of the preview. On the first paint, marks the
+     * end of startup, building the deferred components first if needed.
+     */
+    private void previewPainted() {
+        if (painted) {
+            return;
+        }
+        painted = true;
+        StartupTimer.mark("First paint");
+        SwingUtilities.invokeLater(() -> {
+            if (deferredComponents) {
+                initDeferredComponents();
+                StartupTimer.mark("Deferred components");
+            }
+            StartupTimer.finish();
+        });
+    }
+    
     /**
      * If the user double-clicks on the label, then copy the current color as 
      * hex to their clipboard.
@@ -349,107 +609,113 @@ public class ColorPicker extends JFrame {
         addColorToClipboard();
     }
 
-    private void redSpinnerStateChanged(ChangeEvent evt) {                                        
-        spinnerInputReceived(evt, redSlider);
-    }
-
-    private void greenSpinnerStateChanged(ChangeEvent evt) {                                          
-        spinnerInputReceived(evt, greenSlider);
-    }
-    
-    private void blueSpinnerStateChanged(ChangeEvent evt) {                                         
-        spinnerInputReceived(evt, blueSlider);
+    private void debugReportItemActionPerformed(ActionEvent evt) {
+        JTextArea report = new JTextArea(monitor.reportText() + "\nClipboard:          " + clipboard);
+        report.setEditable(false);
+        report.setFont(new Font(Font.MONOSPACED, Font.PLAIN, 12));
+        JOptionPane.showMessageDialog(this, report, "Latency Report", JOptionPane.INFORMATION_MESSAGE);
     }
 
-    private void redSliderStateChanged(ChangeEvent evt) {                                       
-        sliderInputReceived(evt, redSpinner);
-    }
-
-    private void greenSliderStateChanged(ChangeEvent evt) {                                         
-        sliderInputReceived(evt, greenSpinner);
-    }
-
-    private void blueSliderStateChanged(ChangeEvent evt) {                                        
-        sliderInputReceived(evt, blueSpinner);
-    }
-    
     /**
-     * Delegates updates from a slider to the color preview and the respective
-     * spinner.
+     * Enables the undo and redo items when there is a step to move to.
      */
-    private void sliderInputReceived(ChangeEvent evt, JSpinner dest) {
-        JSlider spinner = ((JSlider) evt.getSource());
-        dest.setValue(spinner.getValue());
-        updateColorPreview();
+    private void timelineStateChanged(ChangeEvent evt) {
+        editUndoItem.setEnabled(timeline.canUndo());
+        editRedoItem.setEnabled(timeline.canRedo());
     }
     
     /**
-     * Delegates updates from a spinner to the color preview and the respective
-     * slider.
+     * Schedules a preview update for the next frame, once the sliders and 
+     * spinners were synced by the {@link #controls}.
      */
-    private void spinnerInputReceived(ChangeEvent evt, JSlider dest) {
-        JSpinner slider = ((JSpinner) evt.getSource());
-        dest.setValue((Integer) slider.getValue());
-        updateColorPreview();
+    private void modelStateChanged(ChangeEvent evt) {
+        if (!previewTimer.isRunning()) {
+            previewTimer.start();
+        }
     }
     
     /**
      * Returns a hex representation of the given color with zero-padding.
      * 
-     * @param c The color to process.
+     * @param rgb The packed color to process.
      * @return A padded {@code String} hex representation of the given color.
      */
-    private static String colorToHexString(Color c) {
-        return String.format("#%06X", (0xFFFFFF & c.hashCode()));
-    }
-    
-    /**
-     * Adds the color currently represented by this object to the user's 
-     * clipboard in hex.
-     */
-    private void addColorToClipboard() {
-        Color preview = new Color(red, green, blue);
-        StringSelection hexColor = new StringSelection(colorToHexString(preview));
-        Clipboard userClip = Toolkit.getDefaultToolkit().getSystemClipboard();
-        userClip.setContents(hexColor, null);
+    private String colorToHexString(int rgb) {
+        PackedColor.encodeHex(rgb, hexBuffer, 0);
+        return new String(hexBuffer);
     }
     
     /**
-     * Updates this object's {@link #red}, {@link #green}, and {@link #blue} 
-     * attributes.
+     * Returns the tooltip of the preview, which contains a hex representation 
+     * of the current color and the name of the nearest named color, if the
+     * dictionary has finished loading successfully.
+     * 
+     * @return The tooltip text of the preview.
      */
-    private void updateValues() {
-        red = (Integer) redSpinner.getValue();
-        green = (Integer) greenSpinner.getValue();
-        blue = (Integer) blueSpinner.getValue();
+    private String previewToolTipText() {
+        int rgb = model.getRGB();
+        NamedColorIndex index = namedColors.getNow(null);
+        if (index == null) {
+            return colorToHexString(rgb);
+        }
+        StringBuilder text = PackedColor.appendHex(rgb, new StringBuilder(48));
+        return text.append(" (")
+                   .append(index.getName(index.nearest(rgb)))
+                   .append(')')
+                   .toString();
     }
     
     /**
-     * Updates this object's {@code colorLabel} using this object's 
-     * {@link #red}, {@link #green}, and {@link #blue} attributes. Also updates
-     * the tooltip for the preview to contain a hex representation of the 
-     * current color.
+     * Adds the color currently represented by this object to the user's 
+     * clipboard in the background, and records it in the {@link #history}.
      */
-    private void updateColorPreview() {
-        updateValues();
-        Color c = new Color(red, green, blue);
-        colorLabel.setBackground(c);
-        colorLabel.setToolTipText(colorToHexString(c));
+    private void addColorToClipboard() {
+        int rgb = model.getRGB();
+        history.add(rgb);
+        clipboard.copy(rgb);
     }
     
     /**
-     * Creates and displays an instance of this class.
+     * Creates and displays an instance of this class. If the first argument is
+     * {@code --convert}, the remaining arguments are instead passed to the
+     * headless {@link BatchConverter} and no window is shown, and likewise 
+     * for {@code --audit} and the {@link ContrastAudit}, {@code --serve}
+     * and the {@link ConversionServer}, {@code --match} and the 
+     * {@link PaletteMatcher}, and {@code --ramp} and the {@link ColorRamp}.
+     * If the first argument is {@code --fast-start}, the picker is shown
+     * before its secondary components are built.
      * 
      * @param args The command-line arguments.
+     * @throws IOException if an I/O error occurs while converting.
      */
-    public static void main(String args[]) {
-        // Sets the Windows look and feel
+    public static void main(String args[]) throws IOException {
+        StartupTimer.mark("Main");
+        if (args.length > 0 && "--convert".equals(args[0])) {
+            BatchConverter.main(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
+        if (args.length > 0 && "--audit".equals(args[0])) {
+            ContrastAudit.main(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
+        if (args.length > 0 && "--serve".equals(args[0])) {
+            ConversionServer.main(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
+        if (args.length > 0 && "--match".equals(args[0])) {
+            PaletteMatcher.main(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
+        if (args.length > 0 && "--ramp".equals(args[0])) {
+            ColorRamp.main(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
+        boolean fastStart = args.length > 0 && "--fast-start".equals(args[0]);
+        // Sets the Windows look and feel by name, which avoids loading every 
+        // installed look and feel to find it
         try {
-            for (UIManager.LookAndFeelInfo info : UIManager.getInstalledLookAndFeels()) {
-                if ("Windows".equals(info.getName())) {
-                    UIManager.setLookAndFeel(info.getClassName());
-                    break;
-                }
+            if (System.getProperty("os.name", "").startsWith("Windows")) {
+                UIManager.setLookAndFeel(WINDOWS_LOOK_AND_FEEL);
             }
         } catch (ClassNotFoundException | InstantiationException 
                | IllegalAccessException | UnsupportedLookAndFeelException ex) {
@@ -459,8 +725,11 @@ public class ColorPicker extends JFrame {
                           + "Check if look and feels are installed correctly",
                             ex);
         }
+        StartupTimer.mark("Look and feel");
         SwingUtilities.invokeLater(() -> {
-            new ColorPicker().setVisible(true);
+            ColorPicker picker = new ColorPicker(fastStart);
+            StartupTimer.mark("Frame constructed");
+            picker.setVisible(true);
         });
     }
     
@@ -0,0 +1,490 @@
+package colorpicker;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.stream.IntStream;
+
+/**
+ * The {@code ColorRamp} class contains an evenly spaced sequence of colors
+ * interpolated in OKLab through a few stops, such as a gradient between two
+ * colors or a {@link Harmony} of one.
+ *
+ * <p>Only the stops are stored. Each step is computed when it is asked for,
+ * so a ramp of any length costs the same to create, and it can be read one
+ * step at a time, as a lazy {@link IntStream} of packed colors, or written
+ * straight to a channel in one of the export {@link Format formats} through a
+ * fixed buffer. Ramps are immutable and may be shared between threads.
+ *
+ * <p>Usage:
+ * <pre>
+ * java -jar ColorPicker.jar --ramp --from HEX [--to HEX] [--harmony NAME]
+ *         [--steps N] [--format css|json|ase] [--out FILE]
+ * </pre>
+ * where the ramp goes from one color to the other, or through the given
+ * harmony of the first color, which is one of {@code complementary},
+ * {@code triadic}, or {@code analogous}. Standard output is used if no file
+ * is given.
+ *
+ * @author Oliver Abdulrahim
+ */
+public final class ColorRamp {
+
+    /**
+     * The {@code Harmony} enum contains the color harmonies a ramp can be
+     * built from. Harmonies rotate the hue of a color in OKLab, keeping its
+     * lightness and chroma, so that every color of a harmony has about the
+     * same perceived weight.
+     */
+    public enum Harmony {
+
+        /**
+         * The color and the opposite hue.
+         */
+        COMPLEMENTARY("Complementary", 0, 180),
+
+        /**
+         * The color and the hues a third of the wheel away on either side.
+         */
+        TRIADIC("Triadic", 0, 120, 240),
+
+        /**
+         * The color between the hues 30 degrees away on either side.
+         */
+        ANALOGOUS("Analogous", -30, 0, 30);
+
+        /**
+         * Stores the display name of this harmony.
+         */
+        private final String name;
+
+        /**
+         * Stores the rotation of the hue of each color, in degrees.
+         */
+        private final int[] angles;
+
+        private Harmony(String name, int... angles) {
+            this.name = name;
+            this.angles = angles;
+        }
+
+        /**
+         * Returns the colors of this harmony of the given color. Rotated
+         * colors that fall outside of the sRGB gamut are clipped.
+         *
+         * @param rgb The packed color the harmony is based on.
+         * @return The packed colors of the harmony.
+         */
+        public int[] colors(int rgb) {
+            float[] lab = new float[ColorSpace.COMPONENTS];
+            ColorConversions.rgbToOklab(rgb, lab, 0);
+            int[] colors = new int[angles.length];
+            for (int i = 0; i < angles.length; i++) {
+                if (angles[i] == 0) {
+                    colors[i] = rgb & PackedColor.RGB_MASK;
+                } else {
+                    double theta = Math.toRadians(angles[i]);
+                    float cos = (float) Math.cos(theta);
+                    float sin = (float) Math.sin(theta);
+                    colors[i] = ColorConversions.oklabToRgb(lab[0],
+                            lab[1] * cos - lab[2] * sin,
+                            lab[1] * sin + lab[2] * cos);
+                }
+            }
+            return colors;
+        }
+
+        /**
+         * Returns the amount of colors of this harmony.
+         *
+         * @return The size of this harmony.
+         */
+        public int size() {
+            return angles.length;
+        }
+
+        /**
+         * Returns the harmony with the given case-insensitive name.
+         *
+         * @param name The name of the harmony.
+         * @return The harmony with the given name.
+         * @throws IllegalArgumentException if there is no such harmony.
+         */
+        public static Harmony of(String name) {
+            return valueOf(name.toUpperCase(Locale.ROOT));
+        }
+
+        @Override
+        public String toString() {
+            return name;
+        }
+
+    }
+
+    /**
+     * The {@code Format} enum contains the formats a ramp can be exported in.
+     */
+    public enum Format {
+
+        /**
+         * A CSS rule declaring one custom property per step, such as
+         * {@code --color-0: #FF8000;}.
+         */
+        CSS,
+
+        /**
+         * A JSON array of hex colors.
+         */
+        JSON,
+
+        /**
+         * An Adobe Swatch Exchange file of RGB swatches named after their hex
+         * representation.
+         */
+        ASE;
+
+        /**
+         * Returns the format with the given case-insensitive name.
+         *
+         * @param name The name of the format.
+         * @return The format with the given name.
+         * @throws IllegalArgumentException if there is no such format.
+         */
+        public static Format of(String name) {
+            return valueOf(name.toUpperCase(Locale.ROOT));
+        }
+
+        /**
+         * Returns the usual file name extension of this format.
+         *
+         * @return The extension, without a leading {@code '.'}.
+         */
+        public String getExtension() {
+            return name().toLowerCase(Locale.ROOT);
+        }
+
+    }
+
+    /**
+     * Stores the size of the buffer exports are written through.
+     */
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    /**
+     * Stores the maximum amount of bytes a single exported step can take.
+     */
+    private static final int MAX_RECORD_LENGTH = 48;
+
+    /**
+     * Stores the start of every CSS custom property written.
+     */
+    private static final byte[] CSS_PREFIX = "  --color-".getBytes(StandardCharsets.US_ASCII);
+
+    /**
+     * Stores the color model of every ASE swatch written.
+     */
+    private static final byte[] ASE_MODEL = "RGB ".getBytes(StandardCharsets.US_ASCII);
+
+    /**
+     * Stores the length of the body of an ASE swatch block, after its type
+     * and length. It holds the name length, the name and its terminator in
+     * UTF-16, the color model, three components, and the swatch type.
+     */
+    private static final int ASE_BLOCK_LENGTH =
+            2 + 2 * (PackedColor.HEX_LENGTH + 1) + 4 + 3 * 4 + 2;
+
+    /**
+     * Stores the packed color of each stop.
+     */
+    private final int[] stops;
+
+    /**
+     * Stores the OKLab components of each stop, interleaved.
+     */
+    private final float[] lab;
+
+    /**
+     * Stores the amount of steps.
+     */
+    private final int steps;
+
+    private ColorRamp(int[] stops, int steps) {
+        if (stops.length == 0) {
+            throw new IllegalArgumentException("A ramp needs at least one stop");
+        }
+        if (steps < 1) {
+            throw new IllegalArgumentException("Steps must be positive: " + steps);
+        }
+        this.stops = new int[stops.length];
+        this.lab = new float[ColorSpace.COMPONENTS * stops.length];
+        for (int i = 0; i < stops.length; i++) {
+            this.stops[i] = stops[i] & PackedColor.RGB_MASK;
+            ColorConversions.rgbToOklab(stops[i], lab, ColorSpace.COMPONENTS * i);
+        }
+        this.steps = steps;
+    }
+
+    /**
+     * Returns a ramp going through the given colors in order, evenly spaced.
+     * Every stop falls on a step if {@code steps - 1} is a multiple of the
+     * amount of stops minus one.
+     *
+     * @param stops The packed colors to go through.
+     * @param steps The amount of steps of the ramp.
+     * @return A new ramp.
+     */
+    public static ColorRamp of(int[] stops, int steps) {
+        return new ColorRamp(stops, steps);
+    }
+
+    /**
+     * Returns a ramp going from one color to another.
+     *
+     * @param from The packed color of the first step.
+     * @param to The packed color of the last step.
+     * @param steps The amount of steps of the ramp.
+     * @return A new ramp.
+     */
+    public static ColorRamp between(int from, int to, int steps) {
+        return new ColorRamp(new int[] { from, to }, steps);
+    }
+
+    /**
+     * Returns a ramp of exactly the colors of the given harmony.
+     *
+     * @param rgb The packed color the harmony is based on.
+     * @param harmony The harmony to build.
+     * @return A new ramp with one step per color of the harmony.
+     */
+    public static ColorRamp harmony(int rgb, Harmony harmony) {
+        int[] colors = harmony.colors(rgb);
+        return new ColorRamp(colors, colors.length);
+    }
+
+    /**
+     * Returns the amount of steps of this ramp.
+     *
+     * @return The size of this ramp.
+     */
+    public int size() {
+        return steps;
+    }
+
+    /**
+     * Returns the color of the given step. Steps that fall on a stop are
+     * exactly its color.
+     *
+     * @param step The index of the step.
+     * @return The packed color of the step.
+     */
+    public int get(int step) {
+        Objects.checkIndex(step, steps);
+        int last = stops.length - 1;
+        if (last == 0 || step == 0) {
+            return stops[0];
+        }
+        if (step == steps - 1) {
+            return stops[last];
+        }
+        double position = (double) step * last / (steps - 1);
+        int segment = (int) position;
+        float t = (float) (position - segment);
+        if (t == 0) {
+            return stops[segment];
+        }
+        int i = ColorSpace.COMPONENTS * segment;
+        int j = i + ColorSpace.COMPONENTS;
+        return ColorConversions.oklabToRgb(lab[i] + t * (lab[j] - lab[i]),
+                                           lab[i + 1] + t * (lab[j + 1] - lab[i + 1]),
+                                           lab[i + 2] + t * (lab[j + 2] - lab[i + 2]));
+    }
+
+    /**
+     * Returns the steps of this ramp as a stream of packed colors, computed
+     * only as the stream is consumed.
+     *
+     * @return A lazy stream of the colors of this ramp.
+     */
+    public IntStream stream() {
+        return IntStream.range(0, steps).map(this :: get);
+    }
+
+    /**
+     * Writes every step of this ramp to the given channel in the given
+     * format, through a fixed buffer.
+     *
+     * @param format The format to write in.
+     * @param out The channel to write to.
+     * @throws IOException if an I/O error occurs.
+     */
+    public void write(Format format, WritableByteChannel out) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+        byte[] bytes = buffer.array();
+        byte[] hex = new byte[PackedColor.HEX_LENGTH];
+        switch (format) {
+            case CSS:
+                putAscii(buffer, ":root {\n");
+                break;
+            case JSON:
+                putAscii(buffer, "[\n");
+                break;
+            case ASE:
+                putAscii(buffer, "ASEF");
+                buffer.putShort((short) 1).putShort((short) 0).putInt(steps);
+                break;
+            default:
+                throw new AssertionError(format);
+        }
+        for (int step = 0; step < steps; step++) {
+            if (buffer.remaining() < MAX_RECORD_LENGTH) {
+                flush(buffer, out);
+            }
+            int rgb = get(step);
+            int offset = buffer.position();
+            switch (format) {
+                case CSS:
+                    buffer.put(CSS_PREFIX);
+                    offset = BatchConverter.writeDecimal(step, bytes, buffer.position());
+                    bytes[offset++] = ':';
+                    bytes[offset++] = ' ';
+                    offset = PackedColor.encodeHex(rgb, bytes, offset);
+                    bytes[offset++] = ';';
+                    bytes[offset++] = '\n';
+                    buffer.position(offset);
+                    break;
+                case JSON:
+                    if (step > 0) {
+                        bytes[offset++] = ',';
+                        bytes[offset++] = '\n';
+                    }
+                    bytes[offset++] = ' ';
+                    bytes[offset++] = ' ';
+                    bytes[offset++] = '"';
+                    offset = PackedColor.encodeHex(rgb, bytes, offset);
+                    bytes[offset++] = '"';
+                    buffer.position(offset);
+                    break;
+                case ASE:
+                    putAseSwatch(buffer, rgb, hex);
+                    break;
+                default:
+                    throw new AssertionError(format);
+            }
+        }
+        if (format == Format.CSS) {
+            putAscii(buffer, "}\n");
+        } else if (format == Format.JSON) {
+            putAscii(buffer, "\n]\n");
+        }
+        flush(buffer, out);
+    }
+
+    /**
+     * Writes a single RGB swatch block named after the hex representation of
+     * the given color, using the given array to encode the name.
+     */
+    private static void putAseSwatch(ByteBuffer buffer, int rgb, byte[] hex) {
+        buffer.putShort((short) 0x0001).putInt(ASE_BLOCK_LENGTH);
+        buffer.putShort((short) (PackedColor.HEX_LENGTH + 1));
+        PackedColor.encodeHex(rgb, hex, 0);
+        for (byte b : hex) {
+            buffer.putChar((char) b);
+        }
+        buffer.putChar('\0');
+        buffer.put(ASE_MODEL);
+        buffer.putFloat(PackedColor.red(rgb) / 255f)
+              .putFloat(PackedColor.green(rgb) / 255f)
+              .putFloat(PackedColor.blue(rgb) / 255f)
+              .putShort((short) 2);
+    }
+
+    private static void putAscii(ByteBuffer buffer, String text) {
+        for (int i = 0; i < text.length(); i++) {
+            buffer.put((byte) text.charAt(i));
+        }
+    }
+
+    private static void flush(ByteBuffer buffer, WritableByteChannel out)
+            throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            out.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    /**
+     * Writes the ramp given by the command-line arguments.
+     *
+     * @param args The command-line arguments.
+     * @throws IOException if an I/O error occurs.
+     */
+    public static void main(String[] args) throws IOException {
+        int from = -1;
+        int to = -1;
+        Harmony harmony = null;
+        int steps = 0;
+        Format format = Format.CSS;
+        String outPath = null;
+        try {
+            for (int i = 0; i < args.length; i++) {
+                String arg = args[i];
+                if (arg.equals("--from") && i + 1 < args.length) {
+                    String hex = args[++i];
+                    from = PackedColor.decodeHex(hex, 0, hex.length());
+                } else if (arg.equals("--to") && i + 1 < args.length) {
+                    String hex = args[++i];
+                    to = PackedColor.decodeHex(hex, 0, hex.length());
+                } else if (arg.equals("--harmony") && i + 1 < args.length) {
+                    harmony = Harmony.of(args[++i]);
+                } else if (arg.equals("--steps") && i + 1 < args.length) {
+                    steps = Integer.parseInt(args[++i]);
+                } else if (arg.equals("--format") && i + 1 < args.length) {
+                    format = Format.of(args[++i]);
+                } else if (arg.equals("--out") && i + 1 < args.length) {
+                    outPath = args[++i];
+                } else {
+                    usage();
+                }
+            }
+        } catch (IllegalArgumentException ex) {
+            // Unknown harmony or format, or malformed step count
+            usage();
+        }
+        if (from < 0 || (to < 0) == (harmony == null)) {
+            usage();
+        }
+        int[] stops = (harmony == null) ? new int[] { from, to } : harmony.colors(from);
+        ColorRamp ramp = of(stops, (steps > 0) ? steps : stops.length);
+        long start = System.nanoTime();
+        if (outPath == null) {
+            // Standard output is flushed rather than closed with the channel
+            ramp.write(format, Channels.newChannel(System.out));
+            System.out.flush();
+        } else {
+            try (FileChannel out = FileChannel.open(Paths.get(outPath),
+                    StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING,
+                    StandardOpenOption.WRITE)) {
+                ramp.write(format, out);
+            }
+        }
+        System.err.printf("Wrote %d colors in %.3f s%n", ramp.size(),
+                          (System.nanoTime() - start) / 1e9);
+    }
+
+    private static void usage() {
+        System.err.println("Usage: ColorRamp --from HEX (--to HEX | --harmony "
+                + "complementary|triadic|analogous) [--steps N] "
+                + "[--format css|json|ase] [--out FILE]");
+        System.exit(2);
+    }
+
+}
@@ -0,0 +1,342 @@
+package colorpicker;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * The {@code ColorSpace} enum contains the color spaces a packed sRGB color
+ * can be converted to and from. Besides per-color conversions, every space
+ * offers bulk conversions between {@code int[]} buffers of packed colors and
+ * {@code float[]} buffers of interleaved components, which split large
+ * buffers across the common fork-join pool.
+ *
+ * @author Oliver Abdulrahim
+ * @see ColorConversions
+ */
+public enum ColorSpace {
+
+    HSV("HSV", new String[] {"H", "S", "V"},
+        new float[] {0, 0, 0}, new float[] {359, 100, 100}),
+
+    HSL("HSL", new String[] {"H", "S", "L"},
+        new float[] {0, 0, 0}, new float[] {359, 100, 100}),
+
+    XYZ("CIE XYZ", new String[] {"X", "Y", "Z"},
+        new float[] {0, 0, 0}, new float[] {95.05f, 100, 108.9f}),
+
+    LAB("CIELAB", new String[] {"L", "a", "b"},
+        new float[] {0, -128, -128}, new float[] {100, 127, 127}),
+
+    OKLAB("OKLab", new String[] {"L", "a", "b"},
+          new float[] {0, -0.4f, -0.4f}, new float[] {1, 0.4f, 0.4f});
+
+    /**
+     * Stores the amount of components of every color space.
+     */
+    public static final int COMPONENTS = 3;
+
+    /**
+     * Stores the amount of colors below which bulk conversions are not split
+     * across threads.
+     */
+    private static final int PARALLEL_THRESHOLD = 1 << 14;
+
+    /**
+     * Stores the display name of this space.
+     */
+    private final String displayName;
+
+    /**
+     * Stores the short names of the components of this space.
+     */
+    private final String[] componentNames;
+
+    /**
+     * Stores the minimum value of each component.
+     */
+    private final float[] min;
+
+    /**
+     * Stores the maximum value of each component.
+     */
+    private final float[] max;
+
+    private ColorSpace(String displayName, String[] componentNames,
+                       float[] min, float[] max) {
+        this.displayName = displayName;
+        this.componentNames = componentNames;
+        this.min = min;
+        this.max = max;
+    }
+
+    /**
+     * Returns the short name of the given component of this space.
+     *
+     * @param component The index of the component.
+     * @return The name of the component.
+     */
+    public String getComponentName(int component) {
+        return componentNames[component];
+    }
+
+    /**
+     * Returns the minimum value of the given component of this space.
+     *
+     * @param component The index of the component.
+     * @return The minimum value of the component.
+     */
+    public float getMinimum(int component) {
+        return min[component];
+    }
+
+    /**
+     * Returns the maximum value of the given component of this space.
+     *
+     * @param component The index of the component.
+     * @return The maximum value of the component.
+     */
+    public float getMaximum(int component) {
+        return max[component];
+    }
+
+    @Override
+    public String toString() {
+        return displayName;
+    }
+
+    /**
+     * Converts the given packed color to this space.
+     *
+     * @param rgb The packed color to convert.
+     * @param dest The array to write the components into.
+     * @param offset The index of {@code dest} to start writing at.
+     */
+    public void fromRGB(int rgb, float[] dest, int offset) {
+        switch (this) {
+            case HSV:
+                ColorConversions.rgbToHsv(rgb, dest, offset);
+                break;
+            case HSL:
+                ColorConversions.rgbToHsl(rgb, dest, offset);
+                break;
+            case XYZ:
+                ColorConversions.rgbToXyz(rgb, dest, offset);
+                break;
+            case LAB:
+                ColorConversions.rgbToLab(rgb, dest, offset);
+                break;
+            case OKLAB:
+                ColorConversions.rgbToOklab(rgb, dest, offset);
+                break;
+            default:
+                throw new AssertionError(this);
+        }
+    }
+
+    /**
+     * Converts the given components of this space to a packed color. Colors
+     * outside of the sRGB gamut are clipped.
+     *
+     * @param c0 The first component.
+     * @param c1 The second component.
+     * @param c2 The third component.
+     * @return The packed color.
+     */
+    public int toRGB(float c0, float c1, float c2) {
+        switch (this) {
+            case HSV:
+                return ColorConversions.hsvToRgb(c0, c1, c2);
+            case HSL:
+                return ColorConversions.hslToRgb(c0, c1, c2);
+            case XYZ:
+                return ColorConversions.xyzToRgb(c0, c1, c2);
+            case LAB:
+                return ColorConversions.labToRgb(c0, c1, c2);
+            case OKLAB:
+                return ColorConversions.oklabToRgb(c0, c1, c2);
+            default:
+                throw new AssertionError(this);
+        }
+    }
+
+    /**
+     * Converts a run of packed colors to interleaved components of this
+     * space. Large runs are converted in parallel.
+     *
+     * @param src The packed colors to convert.
+     * @param srcOffset The index of the first color to convert.
+     * @param dest The array to write {@link #COMPONENTS} components per color
+     *        into.
+     * @param destOffset The index of {@code dest} to start writing at.
+     * @param count The amount of colors to convert.
+     */
+    public void fromRGB(int[] src, int srcOffset, float[] dest, int destOffset,
+                        int count) {
+        checkRange(src.length, srcOffset, dest.length, destOffset, count);
+        if (count < PARALLEL_THRESHOLD) {
+            fromRGBRange(src, srcOffset, dest, destOffset, count);
+        } else {
+            ForkJoinPool.commonPool().invoke(
+                    new BulkTask(this, src, srcOffset, dest, destOffset, count, true));
+        }
+    }
+
+    /**
+     * Converts a run of interleaved components of this space to packed
+     * colors. Large runs are converted in parallel.
+     *
+     * @param src The interleaved components to convert, {@link #COMPONENTS}
+     *        per color.
+     * @param srcOffset The index of {@code src} to start reading at.
+     * @param dest The array to write packed colors into.
+     * @param destOffset The index of the first color to write.
+     * @param count The amount of colors to convert.
+     */
+    public void toRGB(float[] src, int srcOffset, int[] dest, int destOffset,
+                      int count) {
+        checkRange(dest.length, destOffset, src.length, srcOffset, count);
+        if (count < PARALLEL_THRESHOLD) {
+            toRGBRange(src, srcOffset, dest, destOffset, count);
+        } else {
+            ForkJoinPool.commonPool().invoke(
+                    new BulkTask(this, dest, destOffset, src, srcOffset, count, false));
+        }
+    }
+
+    /**
+     * Converts a run of colors on the calling thread. The switch is hoisted
+     * out of the loop so each loop stays monomorphic.
+     */
+    private void fromRGBRange(int[] src, int srcOffset, float[] dest,
+                              int destOffset, int count) {
+        int end = srcOffset + count;
+        switch (this) {
+            case HSV:
+                for (int i = srcOffset, j = destOffset; i < end; i++, j += COMPONENTS) {
+                    ColorConversions.rgbToHsv(src[i], dest, j);
+                }
+                break;
+            case HSL:
+                for (int i = srcOffset, j = destOffset; i < end; i++, j += COMPONENTS) {
+                    ColorConversions.rgbToHsl(src[i], dest, j);
+                }
+                break;
+            case XYZ:
+                for (int i = srcOffset, j = destOffset; i < end; i++, j += COMPONENTS) {
+                    ColorConversions.rgbToXyz(src[i], dest, j);
+                }
+                break;
+            case LAB:
+                for (int i = srcOffset, j = destOffset; i < end; i++, j += COMPONENTS) {
+                    ColorConversions.rgbToLab(src[i], dest, j);
+                }
+                break;
+            case OKLAB:
+                for (int i = srcOffset, j = destOffset; i < end; i++, j += COMPONENTS) {
+                    ColorConversions.rgbToOklab(src[i], dest, j);
+                }
+                break;
+            default:
+                throw new AssertionError(this);
+        }
+    }
+
+    /**
+     * Converts a run of components on the calling thread, with the switch
+     * hoisted out of the loop as in {@link #fromRGBRange}.
+     */
+    private void toRGBRange(float[] src, int srcOffset, int[] dest,
+                            int destOffset, int count) {
+        int end = destOffset + count;
+        switch (this) {
+            case HSV:
+                for (int i = destOffset, j = srcOffset; i < end; i++, j += COMPONENTS) {
+                    dest[i] = ColorConversions.hsvToRgb(src[j], src[j + 1], src[j + 2]);
+                }
+                break;
+            case HSL:
+                for (int i = destOffset, j = srcOffset; i < end; i++, j += COMPONENTS) {
+                    dest[i] = ColorConversions.hslToRgb(src[j], src[j + 1], src[j + 2]);
+                }
+                break;
+            case XYZ:
+                for (int i = destOffset, j = srcOffset; i < end; i++, j += COMPONENTS) {
+                    dest[i] = ColorConversions.xyzToRgb(src[j], src[j + 1], src[j + 2]);
+                }
+                break;
+            case LAB:
+                for (int i = destOffset, j = srcOffset; i < end; i++, j += COMPONENTS) {
+                    dest[i] = ColorConversions.labToRgb(src[j], src[j + 1], src[j + 2]);
+                }
+                break;
+            case OKLAB:
+                for (int i = destOffset, j = srcOffset; i < end; i++, j += COMPONENTS) {
+                    dest[i] = ColorConversions.oklabToRgb(src[j], src[j + 1], src[j + 2]);
+                }
+                break;
+            default:
+                throw new AssertionError(this);
+        }
+    }
+
+    private static void checkRange(int rgbLength, int rgbOffset,
+                                   int componentLength, int componentOffset,
+                                   int count) {
+        if (count < 0 || rgbOffset < 0 || componentOffset < 0
+                || rgbOffset + (long) count > rgbLength
+                || componentOffset + (long) count * COMPONENTS > componentLength) {
+            throw new ArrayIndexOutOfBoundsException("Range out of bounds: "
+                    + count + " colors");
+        }
+    }
+
+    /**
+     * The {@code BulkTask} class splits a bulk conversion in halves until
+     * each half is small enough to convert sequentially.
+     */
+    private static final class BulkTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final ColorSpace space;
+        private final int[] rgb;
+        private final int rgbOffset;
+        private final float[] components;
+        private final int componentOffset;
+        private final int count;
+        private final boolean fromRGB;
+
+        BulkTask(ColorSpace space, int[] rgb, int rgbOffset,
+                 float[] components, int componentOffset, int count,
+                 boolean fromRGB) {
+            this.space = space;
+            this.rgb = rgb;
+            this.rgbOffset = rgbOffset;
+            this.components = components;
+            this.componentOffset = componentOffset;
+            this.count = count;
+            this.fromRGB = fromRGB;
+        }
+
+        @Override
+        protected void compute() {
+            if (count <= PARALLEL_THRESHOLD) {
+                if (fromRGB) {
+                    space.fromRGBRange(rgb, rgbOffset, components, componentOffset, count);
+                } else {
+                    space.toRGBRange(components, componentOffset, rgb, rgbOffset, count);
+                }
+                return;
+            }
+            int half = count >>> 1;
+            invokeAll(new BulkTask(space, rgb, rgbOffset,
+                                   components, componentOffset,
+                                   half, fromRGB),
+                      new BulkTask(space, rgb, rgbOffset + half,
+                                   components, componentOffset + half * COMPONENTS,
+                                   count - half, fromRGB));
+        }
+
+    }
+
+}
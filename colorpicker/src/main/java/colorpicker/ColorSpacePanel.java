@@ -0,0 +1,203 @@
+package colorpicker;
+
+import java.awt.Component;
+import java.awt.event.HierarchyEvent;
+import javax.swing.GroupLayout;
+import javax.swing.JComboBox;
+import javax.swing.JLabel;
+import javax.swing.JPanel;
+import javax.swing.JSpinner;
+import javax.swing.LayoutStyle;
+import javax.swing.SpinnerNumberModel;
+import javax.swing.SwingConstants;
+import javax.swing.Timer;
+import javax.swing.event.ChangeEvent;
+
+/**
+ * The {@code ColorSpacePanel} class contains spinners that view and edit the
+ * color of a {@link ColorModel} in a selectable {@link ColorSpace}.
+ *
+ * @author Oliver Abdulrahim
+ */
+public class ColorSpacePanel extends JPanel {
+
+    private static final long serialVersionUID = 4721906358L;
+
+    /**
+     * Stores the model viewed by this panel.
+     */
+    private final ColorModel model;
+
+    /**
+     * Stores the components of the current color in the selected space.
+     */
+    private final float[] components = new float[ColorSpace.COMPONENTS];
+
+    /**
+     * Stores whether or not the spinners are being updated from the model or
+     * the model from the spinners, in which case events are ignored.
+     */
+    private boolean syncing;
+
+    /**
+     * Stores the timer that coalesces spinner updates to at most one per
+     * frame.
+     */
+    private final Timer refreshTimer;
+
+// GUI elements
+    private JComboBox<ColorSpace> spaceComboBox;
+    private JLabel[] componentLabels;
+    private JSpinner[] componentSpinners;
+
+    /**
+     * Creates a new {@code ColorSpacePanel} viewing the given model.
+     *
+     * @param model The model to view and edit.
+     */
+    public ColorSpacePanel(ColorModel model) {
+        this.model = model;
+        refreshTimer = new Timer(ColorPicker.FRAME_INTERVAL, evt -> refresh());
+        refreshTimer.setRepeats(false);
+        initComponents();
+        model.addChangeListener(this :: modelStateChanged);
+        addHierarchyListener(this :: hierarchyChanged);
+        spaceChanged();
+    }
+
+    private void initComponents() {
+        spaceComboBox = new JComboBox<>(ColorSpace.values());
+        componentLabels = new JLabel[ColorSpace.COMPONENTS];
+        componentSpinners = new JSpinner[ColorSpace.COMPONENTS];
+
+        spaceComboBox.addActionListener(evt -> spaceChanged());
+
+        for (int i = 0; i < ColorSpace.COMPONENTS; i++) {
+            componentLabels[i] = new JLabel();
+            componentLabels[i].setHorizontalAlignment(SwingConstants.RIGHT);
+            componentSpinners[i] = new JSpinner();
+            componentSpinners[i].setRequestFocusEnabled(false);
+            componentSpinners[i].addChangeListener(this :: spinnerStateChanged);
+        }
+
+        GroupLayout layout = new GroupLayout(this);
+        setLayout(layout);
+        GroupLayout.SequentialGroup horizontal = layout.createSequentialGroup()
+                .addContainerGap()
+                .addComponent(spaceComboBox, GroupLayout.PREFERRED_SIZE,
+                              GroupLayout.DEFAULT_SIZE, GroupLayout.PREFERRED_SIZE);
+        GroupLayout.ParallelGroup vertical = layout.createParallelGroup(GroupLayout.Alignment.BASELINE)
+                .addComponent(spaceComboBox);
+        for (int i = 0; i < ColorSpace.COMPONENTS; i++) {
+            horizontal.addPreferredGap(LayoutStyle.ComponentPlacement.UNRELATED)
+                    .addComponent(componentLabels[i])
+                    .addPreferredGap(LayoutStyle.ComponentPlacement.RELATED)
+                    .addComponent(componentSpinners[i], GroupLayout.PREFERRED_SIZE,
+                                  60, GroupLayout.PREFERRED_SIZE);
+            vertical.addComponent(componentLabels[i])
+                    .addComponent(componentSpinners[i], GroupLayout.PREFERRED_SIZE,
+                                  GroupLayout.DEFAULT_SIZE, GroupLayout.PREFERRED_SIZE);
+        }
+        horizontal.addContainerGap(GroupLayout.DEFAULT_SIZE, Short.MAX_VALUE);
+        layout.setHorizontalGroup(horizontal);
+        layout.setVerticalGroup(layout.createSequentialGroup()
+                .addContainerGap()
+                .addGroup(vertical)
+                .addContainerGap(GroupLayout.DEFAULT_SIZE, Short.MAX_VALUE));
+        layout.linkSize(SwingConstants.HORIZONTAL, (Component[]) componentLabels);
+    }
+
+    /**
+     * Returns the currently selected color space.
+     *
+     * @return The selected color space.
+     */
+    public ColorSpace getColorSpace() {
+        return (ColorSpace) spaceComboBox.getSelectedItem();
+    }
+
+    /**
+     * Reconfigures the labels and spinners for the selected color space.
+     */
+    private void spaceChanged() {
+        ColorSpace space = getColorSpace();
+        syncing = true;
+        try {
+            for (int i = 0; i < ColorSpace.COMPONENTS; i++) {
+                double min = space.getMinimum(i);
+                double max = space.getMaximum(i);
+                double step = (max - min > 10) ? 1 : 0.01;
+                componentLabels[i].setText(space.getComponentName(i));
+                componentSpinners[i].setModel(new SpinnerNumberModel(min, min, max, step));
+                componentSpinners[i].setEditor(
+                        new JSpinner.NumberEditor(componentSpinners[i], "0.###"));
+            }
+        } finally {
+            syncing = false;
+        }
+        refresh();
+    }
+
+    /**
+     * Schedules a refresh of the spinners, unless this panel caused the
+     * change itself.
+     */
+    private void modelStateChanged(ChangeEvent evt) {
+        if (!syncing && !refreshTimer.isRunning()) {
+            refreshTimer.start();
+        }
+    }
+
+    /**
+     * Converts the color of the model to the selected space and updates the
+     * spinners. Skipped while this panel is not showing, since it is redone
+     * once the panel is shown.
+     */
+    private void refresh() {
+        if (!isShowing()) {
+            return;
+        }
+        ColorSpace space = getColorSpace();
+        space.fromRGB(model.getRGB(), components, 0);
+        syncing = true;
+        try {
+            for (int i = 0; i < ColorSpace.COMPONENTS; i++) {
+                double value = Math.max(space.getMinimum(i),
+                                        Math.min(space.getMaximum(i), components[i]));
+                componentSpinners[i].setValue(value);
+            }
+        } finally {
+            syncing = false;
+        }
+    }
+
+    /**
+     * Refreshes the spinners once this panel becomes visible.
+     */
+    private void hierarchyChanged(HierarchyEvent evt) {
+        if ((evt.getChangeFlags() & HierarchyEvent.SHOWING_CHANGED) != 0 && isShowing()) {
+            refresh();
+        }
+    }
+
+    /**
+     * Converts the spinner values to a packed color and stores it in the
+     * model.
+     */
+    private void spinnerStateChanged(ChangeEvent evt) {
+        if (syncing) {
+            return;
+        }
+        for (int i = 0; i < ColorSpace.COMPONENTS; i++) {
+            components[i] = ((Number) componentSpinners[i].getValue()).floatValue();
+        }
+        int rgb = getColorSpace().toRGB(components[0], components[1], components[2]);
+        syncing = true;
+        try {
+            model.setRGB(rgb);
+        } finally {
+            syncing = false;
+        }
+    }
+
+}
@@ -0,0 +1,128 @@
+package colorpicker;
+
+import java.awt.datatransfer.DataFlavor;
+import java.awt.datatransfer.Transferable;
+import java.awt.datatransfer.UnsupportedFlavorException;
+
+/**
+ * The {@code ColorTransferable} class contains a color in every format it can
+ * be pasted as. Plain text is the hex representation, so pasting into a text
+ * field behaves as before; applications asking for a specific flavor get the
+ * CSS {@code rgb()} or {@code hsl()} representation, or the packed color.
+ *
+ * <p>Representations are only built when a flavor is requested, since the
+ * receiving application usually asks for just one.
+ *
+ * @author Oliver Abdulrahim
+ */
+public final class ColorTransferable implements Transferable {
+
+    /**
+     * Stores the flavor of the CSS {@code rgb()} representation.
+     */
+    public static final DataFlavor RGB_FLAVOR =
+            textFlavor("text/x-css-rgb", "CSS rgb() color");
+
+    /**
+     * Stores the flavor of the CSS {@code hsl()} representation.
+     */
+    public static final DataFlavor HSL_FLAVOR =
+            textFlavor("text/x-css-hsl", "CSS hsl() color");
+
+    /**
+     * Stores the flavor of the packed color.
+     */
+    public static final DataFlavor PACKED_FLAVOR =
+            new DataFlavor(Integer.class, "Packed RGB color");
+
+    /**
+     * Stores every supported flavor, most preferred first.
+     */
+    private static final DataFlavor[] FLAVORS = {
+        DataFlavor.stringFlavor, RGB_FLAVOR, HSL_FLAVOR, PACKED_FLAVOR
+    };
+
+    /**
+     * Stores the color being transferred.
+     */
+    private final int rgb;
+
+    /**
+     * Creates a new {@code ColorTransferable} for the given color.
+     *
+     * @param rgb The packed color to transfer.
+     */
+    public ColorTransferable(int rgb) {
+        this.rgb = rgb & PackedColor.RGB_MASK;
+    }
+
+    private static DataFlavor textFlavor(String mimeType, String name) {
+        return new DataFlavor(mimeType + ";class=java.lang.String", name);
+    }
+
+    @Override
+    public DataFlavor[] getTransferDataFlavors() {
+        return FLAVORS.clone();
+    }
+
+    @Override
+    public boolean isDataFlavorSupported(DataFlavor flavor) {
+        for (DataFlavor supported : FLAVORS) {
+            if (supported.equals(flavor)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public Object getTransferData(DataFlavor flavor) throws UnsupportedFlavorException {
+        if (DataFlavor.stringFlavor.equals(flavor)) {
+            return PackedColor.toHexString(rgb);
+        }
+        if (RGB_FLAVOR.equals(flavor)) {
+            return toRgbString(rgb);
+        }
+        if (HSL_FLAVOR.equals(flavor)) {
+            return toHslString(rgb);
+        }
+        if (PACKED_FLAVOR.equals(flavor)) {
+            return rgb;
+        }
+        throw new UnsupportedFlavorException(flavor);
+    }
+
+    /**
+     * Returns the CSS {@code rgb()} representation of the given color.
+     *
+     * @param rgb The packed color to represent.
+     * @return The color as {@code rgb(r, g, b)}.
+     */
+    public static String toRgbString(int rgb) {
+        return new StringBuilder(18)
+                .append("rgb(").append(PackedColor.red(rgb))
+                .append(", ").append(PackedColor.green(rgb))
+                .append(", ").append(PackedColor.blue(rgb))
+                .append(')')
+                .toString();
+    }
+
+    /**
+     * Returns the CSS {@code hsl()} representation of the given color, with
+     * every component rounded to an integer.
+     *
+     * @param rgb The packed color to represent.
+     * @return The color as {@code hsl(h, s%, l%)}.
+     */
+    public static String toHslString(int rgb) {
+        float[] hsl = new float[ColorSpace.COMPONENTS];
+        ColorConversions.rgbToHsl(rgb, hsl, 0);
+        return new StringBuilder(20)
+                .append("hsl(").append(Math.round(hsl[0]) % 360)
+                .append(", ").append(Math.round(hsl[1]))
+                .append("%, ").append(Math.round(hsl[2]))
+                .append("%)")
+                .toString();
+    }
+
+}
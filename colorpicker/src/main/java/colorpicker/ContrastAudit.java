@@ -0,0 +1,350 @@
+package colorpicker;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * The {@code ContrastAudit} class contains a check of the contrast ratio of
+ * every pair of colors in a palette against a WCAG threshold. For each color,
+ * the audit counts the colors it can be paired with, as text or background.
+ *
+ * <p>The relative luminance of every color is computed once into a
+ * {@code float[]}, offset by the {@link WcagContrast#FLARE}, so checking a
+ * pair is a single comparison of the lighter one against the threshold times
+ * the darker one. The comparison is made in {@code double} and does not
+ * depend on the order of the pair, so both colors of a pair always agree on
+ * whether it passes. The matrix of
+ * pairs is split into tiles of rows across the common fork-join pool, and
+ * each tile walks its columns in blocks that stay in the L1 cache. Every task
+ * owns the counts of its rows, so no synchronization is needed.
+ *
+ * <p>Usage:
+ * <pre>
+ * java -jar ColorPicker.jar --audit [--from FORMAT] [--in FILE]
+ *         [--threshold RATIO]
+ * </pre>
+ * where {@code FORMAT} is one of the {@link BatchConverter.Format}s, with one
+ * color per line. Standard input is used if no file is given. The threshold
+ * defaults to {@link WcagContrast#AA}.
+ *
+ * @author Oliver Abdulrahim
+ */
+public final class ContrastAudit {
+
+    /**
+     * Stores the amount of rows below which a task is not split.
+     */
+    private static final int ROW_TILE = 64;
+
+    /**
+     * Stores the amount of columns compared with every row of a tile before
+     * moving to the next columns.
+     */
+    private static final int COLUMN_TILE = 4096;
+
+    /**
+     * Stores the audited colors.
+     */
+    private final int[] colors;
+
+    /**
+     * Stores the relative luminance of each color.
+     */
+    private final float[] luminances;
+
+    /**
+     * Stores the amount of colors each color passes the threshold with.
+     */
+    private final int[] passingCounts;
+
+    /**
+     * Stores the minimum contrast ratio of a passing pair.
+     */
+    private final double threshold;
+
+    private ContrastAudit(int[] colors, float[] luminances, int[] passingCounts,
+                          double threshold) {
+        this.colors = colors;
+        this.luminances = luminances;
+        this.passingCounts = passingCounts;
+        this.threshold = threshold;
+    }
+
+    /**
+     * Checks every pair of the given colors against the given threshold.
+     *
+     * @param colors The packed colors to audit.
+     * @param threshold The minimum contrast ratio of a passing pair, such as
+     *        {@link WcagContrast#AA}.
+     * @return The result of the audit.
+     */
+    public static ContrastAudit audit(int[] colors, double threshold) {
+        int[] palette = colors.clone();
+        int n = palette.length;
+        float[] luminances = new float[n];
+        float[] offsets = new float[n];
+        for (int i = 0; i < n; i++) {
+            luminances[i] = WcagContrast.luminance(palette[i]);
+            offsets[i] = luminances[i] + WcagContrast.FLARE;
+        }
+        int[] passingCounts = new int[n];
+        ForkJoinPool.commonPool().invoke(
+                new AuditTask(offsets, threshold, passingCounts, 0, n));
+        return new ContrastAudit(palette, luminances, passingCounts, threshold);
+    }
+
+    /**
+     * The {@code AuditTask} class contains the comparison of a range of rows
+     * with every column of the matrix of pairs.
+     */
+    private static final class AuditTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final float[] offsets;
+        private final double threshold;
+        private final int[] passingCounts;
+        private final int from;
+        private final int to;
+
+        AuditTask(float[] offsets, double threshold, int[] passingCounts,
+                  int from, int to) {
+            this.offsets = offsets;
+            this.threshold = threshold;
+            this.passingCounts = passingCounts;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > ROW_TILE) {
+                int middle = (from + to) >>> 1;
+                invokeAll(new AuditTask(offsets, threshold, passingCounts, from, middle),
+                          new AuditTask(offsets, threshold, passingCounts, middle, to));
+                return;
+            }
+            float[] offsets = this.offsets;
+            double threshold = this.threshold;
+            for (int column = 0; column < offsets.length; column += COLUMN_TILE) {
+                int columnEnd = Math.min(offsets.length, column + COLUMN_TILE);
+                for (int i = from; i < to; i++) {
+                    double row = offsets[i];
+                    int count = 0;
+                    for (int j = column; j < columnEnd; j++) {
+                        double other = offsets[j];
+                        double lighter = Math.max(row, other);
+                        double darker = Math.min(row, other);
+                        count += (lighter >= threshold * darker) ? 1 : 0;
+                    }
+                    passingCounts[i] += count;
+                }
+            }
+            if (threshold <= 1) {
+                // Every color passes with itself
+                for (int i = from; i < to; i++) {
+                    passingCounts[i]--;
+                }
+            }
+        }
+
+    }
+
+    /**
+     * Returns the amount of audited colors.
+     *
+     * @return The size of the palette.
+     */
+    public int size() {
+        return colors.length;
+    }
+
+    /**
+     * Returns the given audited color.
+     *
+     * @param index The index of the color.
+     * @return The packed color.
+     */
+    public int getColor(int index) {
+        return colors[index];
+    }
+
+    /**
+     * Returns the relative luminance of the given color.
+     *
+     * @param index The index of the color.
+     * @return The relative luminance of the color.
+     */
+    public float getLuminance(int index) {
+        return luminances[index];
+    }
+
+    /**
+     * Returns the amount of other colors of the palette the given color has
+     * enough contrast with.
+     *
+     * @param index The index of the color.
+     * @return The amount of passing pairs including the color.
+     */
+    public int getPassingCount(int index) {
+        return passingCounts[index];
+    }
+
+    /**
+     * Returns the amount of distinct pairs of colors.
+     *
+     * @return The amount of audited pairs.
+     */
+    public long getPairCount() {
+        long n = colors.length;
+        return n * (n - 1) / 2;
+    }
+
+    /**
+     * Returns the amount of distinct pairs of colors with enough contrast.
+     *
+     * @return The amount of passing pairs.
+     */
+    public long getPassingPairCount() {
+        long total = 0;
+        for (int count : passingCounts) {
+            total += count;
+        }
+        return total / 2;
+    }
+
+    /**
+     * Returns the threshold the pairs were checked against.
+     *
+     * @return The minimum contrast ratio of a passing pair.
+     */
+    public double getThreshold() {
+        return threshold;
+    }
+
+    /**
+     * Returns the indices of the colors with the fewest passing pairs, fewest
+     * first.
+     *
+     * @param limit The maximum amount of indices to return.
+     * @return The indices of the least usable colors.
+     */
+    public int[] leastUsable(int limit) {
+        long[] keys = new long[colors.length];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = ((long) passingCounts[i] << 32) | i;
+        }
+        Arrays.sort(keys);
+        int[] indices = new int[Math.min(limit, keys.length)];
+        for (int i = 0; i < indices.length; i++) {
+            indices[i] = (int) keys[i];
+        }
+        return indices;
+    }
+
+    /**
+     * Returns a summary of this audit, listing the given amount of least
+     * usable colors.
+     *
+     * @param limit The maximum amount of colors to list.
+     * @return The text of the summary.
+     */
+    public String summary(int limit) {
+        long pairs = getPairCount();
+        long passing = getPassingPairCount();
+        StringBuilder text = new StringBuilder(64 * (limit + 2));
+        text.append(String.format("%d colors, %d of %d pairs (%.1f%%) reach %.1f:1%n",
+                size(), passing, pairs, (pairs == 0) ? 0 : 100.0 * passing / pairs,
+                threshold));
+        for (int index : leastUsable(limit)) {
+            PackedColor.appendHex(colors[index], text)
+                    .append(String.format("  L=%.4f  %d partners%n",
+                            luminances[index], passingCounts[index]));
+        }
+        return text.toString();
+    }
+
+    /**
+     * Reads a palette with one color per line in the given format. Malformed
+     * lines are skipped.
+     *
+     * @param in The stream to read.
+     * @param format The format of each line.
+     * @return The packed colors of the palette.
+     * @throws IOException if an I/O error occurs.
+     */
+    public static int[] readPalette(InputStream in, BatchConverter.Format format)
+            throws IOException {
+        byte[] bytes = in.readAllBytes();
+        int[] colors = new int[64];
+        int count = 0;
+        int start = 0;
+        for (int i = 0; i <= bytes.length; i++) {
+            if (i == bytes.length || bytes[i] == '\n') {
+                int end = (i > start && bytes[i - 1] == '\r') ? i - 1 : i;
+                int rgb = (end > start) ? BatchConverter.decode(format, bytes, start, end) : -1;
+                if (rgb >= 0) {
+                    if (count == colors.length) {
+                        colors = Arrays.copyOf(colors, 2 * count);
+                    }
+                    colors[count++] = rgb;
+                }
+                start = i + 1;
+            }
+        }
+        return Arrays.copyOf(colors, count);
+    }
+
+    /**
+     * Audits the palette given by the command-line arguments and prints every
+     * color with its amount of partners, fewest first.
+     *
+     * @param args The command-line arguments.
+     * @throws IOException if an I/O error occurs.
+     */
+    public static void main(String[] args) throws IOException {
+        BatchConverter.Format from = BatchConverter.Format.HEX;
+        String inPath = null;
+        double threshold = WcagContrast.AA;
+        try {
+            for (int i = 0; i < args.length; i++) {
+                String arg = args[i];
+                if (arg.equals("--from") && i + 1 < args.length) {
+                    from = BatchConverter.Format.of(args[++i]);
+                } else if (arg.equals("--in") && i + 1 < args.length) {
+                    inPath = args[++i];
+                } else if (arg.equals("--threshold") && i + 1 < args.length) {
+                    threshold = Double.parseDouble(args[++i]);
+                } else {
+                    usage();
+                }
+            }
+        } catch (IllegalArgumentException ex) {
+            // Unknown format or malformed threshold
+            usage();
+        }
+        int[] colors;
+        try (InputStream in = (inPath == null)
+                ? System.in
+                : Files.newInputStream(Paths.get(inPath))) {
+            colors = readPalette(in, from);
+        }
+        long start = System.nanoTime();
+        ContrastAudit audit = audit(colors, threshold);
+        double seconds = Math.max(System.nanoTime() - start, 1) / 1e9;
+        System.out.print(audit.summary(audit.size()));
+        System.err.printf("Audited %d pairs in %.3f s%n", audit.getPairCount(), seconds);
+    }
+
+    private static void usage() {
+        System.err.println("Usage: ContrastAudit [--from hex|rgb|csv|int] "
+                + "[--in FILE] [--threshold RATIO]");
+        System.exit(2);
+    }
+
+}
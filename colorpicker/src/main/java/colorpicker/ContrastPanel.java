@@ -0,0 +1,252 @@
+package colorpicker;
+
+import java.awt.Color;
+import java.awt.Dimension;
+import java.awt.Font;
+import java.awt.event.HierarchyEvent;
+import java.io.File;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.util.concurrent.ExecutionException;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.swing.BorderFactory;
+import javax.swing.GroupLayout;
+import javax.swing.JButton;
+import javax.swing.JFileChooser;
+import javax.swing.JLabel;
+import javax.swing.JPanel;
+import javax.swing.JScrollPane;
+import javax.swing.JTextArea;
+import javax.swing.JTextField;
+import javax.swing.LayoutStyle;
+import javax.swing.SwingWorker;
+import javax.swing.event.ChangeEvent;
+
+/**
+ * The {@code ContrastPanel} class contains the WCAG contrast ratio of the
+ * color of a {@link ColorModel} against a background the user can edit, and
+ * a {@link ContrastAudit} of whole palette files run in the background.
+ *
+ * @author Oliver Abdulrahim
+ */
+public class ContrastPanel extends JPanel {
+
+    private static final long serialVersionUID = 8243015967L;
+
+    /**
+     * Stores the amount of least usable colors listed after an audit.
+     */
+    private static final int AUDIT_LISTED = 8;
+
+    /**
+     * Stores the model viewed by this panel.
+     */
+    private final ColorModel model;
+
+    /**
+     * Stores the color the model is compared against.
+     */
+    private int background = 0xFFFFFF;
+
+    /**
+     * Stores the audit running in the background, if any.
+     */
+    private SwingWorker<ContrastAudit, Void> worker;
+
+// GUI elements
+    private JLabel backgroundLabel;
+    private JTextField backgroundField;
+    private JLabel backgroundSwatch;
+    private JLabel ratioLabel;
+    private JButton auditButton;
+    private JTextArea auditArea;
+    private JScrollPane auditScrollPane;
+    private JFileChooser fileChooser;
+
+    /**
+     * Creates a new {@code ContrastPanel} viewing the given model.
+     *
+     * @param model The model to view.
+     */
+    public ContrastPanel(ColorModel model) {
+        this.model = model;
+        initComponents();
+        model.addChangeListener(this :: modelStateChanged);
+        addHierarchyListener(this :: hierarchyChanged);
+        refresh();
+    }
+
+    private void initComponents() {
+        backgroundLabel = new JLabel();
+        backgroundField = new JTextField(7);
+        backgroundSwatch = new JLabel();
+        ratioLabel = new JLabel();
+        auditButton = new JButton();
+        auditArea = new JTextArea(4, 20);
+        auditScrollPane = new JScrollPane(auditArea);
+
+        backgroundLabel.setText("Background");
+
+        backgroundField.setText(PackedColor.toHexString(background));
+        backgroundField.addActionListener(evt -> backgroundFieldActionPerformed());
+
+        backgroundSwatch.setOpaque(true);
+        backgroundSwatch.setBackground(new Color(background));
+        backgroundSwatch.setBorder(BorderFactory.createLineBorder(Color.GRAY));
+        backgroundSwatch.setPreferredSize(new Dimension(20, 20));
+
+        auditButton.setText("Audit palette...");
+        auditButton.addActionListener(evt -> auditButtonActionPerformed());
+
+        auditArea.setEditable(false);
+        auditArea.setFont(new Font(Font.MONOSPACED, Font.PLAIN, 11));
+
+        GroupLayout layout = new GroupLayout(this);
+        setLayout(layout);
+        layout.setHorizontalGroup(
+            layout.createParallelGroup(GroupLayout.Alignment.LEADING)
+            .addGroup(layout.createSequentialGroup()
+                .addContainerGap()
+                .addGroup(layout.createParallelGroup(GroupLayout.Alignment.LEADING)
+                    .addGroup(layout.createSequentialGroup()
+                        .addComponent(backgroundLabel)
+                        .addPreferredGap(LayoutStyle.ComponentPlacement.RELATED)
+                        .addComponent(backgroundField, GroupLayout.PREFERRED_SIZE, GroupLayout.DEFAULT_SIZE, GroupLayout.PREFERRED_SIZE)
+                        .addPreferredGap(LayoutStyle.ComponentPlacement.RELATED)
+                        .addComponent(backgroundSwatch, GroupLayout.PREFERRED_SIZE, 20, GroupLayout.PREFERRED_SIZE))
+                    .addComponent(ratioLabel)
+                    .addComponent(auditButton)
+                    .addComponent(auditScrollPane, GroupLayout.DEFAULT_SIZE, GroupLayout.DEFAULT_SIZE, Short.MAX_VALUE))
+                .addContainerGap())
+        );
+        layout.setVerticalGroup(
+            layout.createParallelGroup(GroupLayout.Alignment.LEADING)
+            .addGroup(layout.createSequentialGroup()
+                .addContainerGap()
+                .addGroup(layout.createParallelGroup(GroupLayout.Alignment.CENTER)
+                    .addComponent(backgroundLabel)
+                    .addComponent(backgroundField, GroupLayout.PREFERRED_SIZE, GroupLayout.DEFAULT_SIZE, GroupLayout.PREFERRED_SIZE)
+                    .addComponent(backgroundSwatch, GroupLayout.PREFERRED_SIZE, 20, GroupLayout.PREFERRED_SIZE))
+                .addPreferredGap(LayoutStyle.ComponentPlacement.RELATED)
+                .addComponent(ratioLabel)
+                .addPreferredGap(LayoutStyle.ComponentPlacement.UNRELATED)
+                .addComponent(auditButton)
+                .addPreferredGap(LayoutStyle.ComponentPlacement.RELATED)
+                .addComponent(auditScrollPane, GroupLayout.PREFERRED_SIZE, GroupLayout.DEFAULT_SIZE, GroupLayout.PREFERRED_SIZE)
+                .addContainerGap(GroupLayout.DEFAULT_SIZE, Short.MAX_VALUE))
+        );
+    }
+
+    /**
+     * Returns the color the model is compared against.
+     *
+     * @return The packed background color.
+     */
+    public int getBackgroundRGB() {
+        return background;
+    }
+
+    /**
+     * Sets the color the model is compared against.
+     *
+     * @param rgb The packed background color.
+     */
+    public void setBackgroundRGB(int rgb) {
+        background = rgb & PackedColor.RGB_MASK;
+        backgroundField.setText(PackedColor.toHexString(background));
+        backgroundSwatch.setBackground(new Color(background));
+        refresh();
+    }
+
+    private void backgroundFieldActionPerformed() {
+        String text = backgroundField.getText().trim();
+        int rgb = PackedColor.decodeHex(text, 0, text.length());
+        if (rgb >= 0) {
+            setBackgroundRGB(rgb);
+        } else {
+            backgroundField.setText(PackedColor.toHexString(background));
+        }
+    }
+
+    private void modelStateChanged(ChangeEvent evt) {
+        refresh();
+    }
+
+    /**
+     * Refreshes the contrast ratio once this panel becomes visible.
+     */
+    private void hierarchyChanged(HierarchyEvent evt) {
+        if ((evt.getChangeFlags() & HierarchyEvent.SHOWING_CHANGED) != 0 && isShowing()) {
+            refresh();
+        }
+    }
+
+    /**
+     * Updates the contrast ratio and the levels it passes. Skipped while this
+     * panel is not showing, since it is redone once the panel is shown.
+     */
+    private void refresh() {
+        if (!isShowing()) {
+            return;
+        }
+        double ratio = WcagContrast.contrastRatio(model.getRGB(), background);
+        ratioLabel.setText(String.format("%.2f:1   AA %s   AA large %s   AAA %s", ratio,
+                                         pass(ratio, WcagContrast.AA),
+                                         pass(ratio, WcagContrast.AA_LARGE),
+                                         pass(ratio, WcagContrast.AAA)));
+    }
+
+    private static String pass(double ratio, double level) {
+        return (ratio >= level) ? "✓" : "✗";
+    }
+
+    /**
+     * Asks the user for a palette of hex colors, one per line, and audits
+     * every pair of it against level AA in the background.
+     */
+    private void auditButtonActionPerformed() {
+        if (fileChooser == null) {
+            fileChooser = new JFileChooser();
+        }
+        if (fileChooser.showOpenDialog(this) != JFileChooser.APPROVE_OPTION) {
+            return;
+        }
+        File file = fileChooser.getSelectedFile();
+        if (worker != null) {
+            worker.cancel(true);
+        }
+        auditArea.setText("Auditing " + file.getName() + "...");
+        auditButton.setEnabled(false);
+        worker = new SwingWorker<ContrastAudit, Void>() {
+
+            @Override
+            protected ContrastAudit doInBackground() throws Exception {
+                int[] colors;
+                try (InputStream in = Files.newInputStream(file.toPath())) {
+                    colors = ContrastAudit.readPalette(in, BatchConverter.Format.HEX);
+                }
+                return ContrastAudit.audit(colors, WcagContrast.AA);
+            }
+
+            @Override
+            protected void done() {
+                if (isCancelled()) {
+                    return;
+                }
+                auditButton.setEnabled(true);
+                try {
+                    auditArea.setText(get().summary(AUDIT_LISTED));
+                    auditArea.setCaretPosition(0);
+                } catch (InterruptedException | ExecutionException ex) {
+                    Logger.getLogger(ContrastPanel.class.getName())
+                            .log(Level.WARNING, "Could not audit palette", ex);
+                    auditArea.setText("Could not read " + file.getName() + ".");
+                }
+            }
+
+        };
+        worker.execute();
+    }
+
+}
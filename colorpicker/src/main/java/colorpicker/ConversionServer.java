@@ -0,0 +1,479 @@
+package colorpicker;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.reflect.Method;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * The {@code ConversionServer} class contains a local server answering color
+ * queries, so tools that would otherwise start the picker once per conversion
+ * can keep a connection open instead. It only listens on the loopback
+ * address.
+ *
+ * <p>Requests and responses are single lines of ASCII text:
+ * <pre>
+ * CONVERT FROM TO VALUE   converts VALUE from a {@link BatchConverter.Format}
+ *                         to a format or a {@link ColorSpace}
+ * NEAREST HEX             the nearest named color, its hex, and the ΔE2000
+ * CONTRAST HEX HEX        the WCAG contrast ratio
+ * PING                    PONG
+ * </pre>
+ * Color space components are written with four decimals, or six for OKLab.
+ * Failed requests are answered with a line starting with {@code ERR}.
+ * Clients may pipeline any amount of requests; responses come back in order.
+ *
+ * <p>Each connection is served by its own thread, which is a virtual thread
+ * when the runtime has them. Every request already read from a connection is
+ * answered into a single buffer, which is written with one call, so a batch
+ * of pipelined requests costs one write. Responses are encoded directly into
+ * that buffer from the packed color, and constant parts such as the names of
+ * colors and errors are encoded once when the server is created.
+ *
+ * @author Oliver Abdulrahim
+ */
+public final class ConversionServer implements Closeable {
+
+    /**
+     * Stores the default port of the server.
+     */
+    public static final int DEFAULT_PORT = 7677;
+
+    /**
+     * Stores the maximum length of a request, in bytes.
+     */
+    private static final int MAX_REQUEST = 4096;
+
+    /**
+     * Stores the size of the read buffer of each connection.
+     */
+    private static final int READ_BUFFER = 64 * 1024;
+
+    private static final byte[] CONVERT = ascii("convert");
+    private static final byte[] NEAREST = ascii("nearest");
+    private static final byte[] CONTRAST = ascii("contrast");
+    private static final byte[] PING = ascii("ping");
+    private static final byte[] PONG = ascii("PONG\n");
+    private static final byte[] UNKNOWN_COMMAND = ascii("ERR unknown command\n");
+    private static final byte[] UNKNOWN_FORMAT = ascii("ERR unknown format\n");
+    private static final byte[] MALFORMED_COLOR = ascii("ERR malformed color\n");
+    private static final byte[] TOO_LONG = ascii("ERR request too long\n");
+
+    /**
+     * Stores the formats a value can be converted from and to.
+     */
+    private static final BatchConverter.Format[] FORMATS = BatchConverter.Format.values();
+
+    /**
+     * Stores the color spaces a value can be converted to.
+     */
+    private static final ColorSpace[] SPACES = ColorSpace.values();
+
+    /**
+     * Stores the amount of decimals written for the components of each of
+     * the {@link #SPACES}. Components in {@code [0, 1]} or smaller get six
+     * decimals and larger ones four, which keeps about as many significant
+     * digits as a {@code float} has.
+     */
+    private static final int[] SPACE_DECIMALS = new int[SPACES.length];
+
+    /**
+     * Stores the amount of decimals written for ΔE and contrast ratios.
+     */
+    private static final int RESULT_DECIMALS = 2;
+
+    /**
+     * Stores the lowercase names of the {@link #FORMATS}, then of the
+     * {@link #SPACES}.
+     */
+    private static final byte[][] TARGET_NAMES = new byte[FORMATS.length + SPACES.length][];
+
+    static {
+        for (int i = 0; i < FORMATS.length; i++) {
+            TARGET_NAMES[i] = ascii(FORMATS[i].name().toLowerCase(Locale.ROOT));
+        }
+        for (int i = 0; i < SPACES.length; i++) {
+            TARGET_NAMES[FORMATS.length + i] = ascii(SPACES[i].name().toLowerCase(Locale.ROOT));
+            SPACE_DECIMALS[i] = (SPACES[i] == ColorSpace.OKLAB) ? 6 : 4;
+        }
+    }
+
+    /**
+     * Stores the dictionary of named colors.
+     */
+    private final NamedColorIndex names;
+
+    /**
+     * Stores the name of each entry of the dictionary, encoded in UTF-8.
+     */
+    private final byte[][] encodedNames;
+
+    /**
+     * Stores the threads serving connections.
+     */
+    private final ExecutorService connections;
+
+    /**
+     * Stores the socket accepting connections, or {@code null} until
+     * started.
+     */
+    private volatile ServerSocket serverSocket;
+
+    /**
+     * Creates a new {@code ConversionServer} answering nearest color queries
+     * from the given dictionary.
+     *
+     * @param names The dictionary of named colors.
+     */
+    public ConversionServer(NamedColorIndex names) {
+        this.names = names;
+        this.encodedNames = new byte[names.size()][];
+        for (int i = 0; i < encodedNames.length; i++) {
+            encodedNames[i] = names.getName(i).getBytes(StandardCharsets.UTF_8);
+        }
+        this.connections = newConnectionExecutor();
+    }
+
+    /**
+     * Returns an executor running each task on a new virtual thread, or on a
+     * pooled platform thread if the runtime has no virtual threads.
+     */
+    private static ExecutorService newConnectionExecutor() {
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        } catch (ReflectiveOperationException | UnsupportedOperationException ex) {
+            return Executors.newCachedThreadPool(task -> {
+                Thread thread = new Thread(task, "Conversion connection");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    /**
+     * Starts accepting connections on the given loopback port in the
+     * background.
+     *
+     * @param port The port to listen on, or {@code 0} for any free port.
+     * @return The port the server listens on.
+     * @throws IOException if the port cannot be bound.
+     */
+    public int start(int port) throws IOException {
+        ServerSocket socket = new ServerSocket();
+        socket.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), port));
+        serverSocket = socket;
+        Thread acceptor = new Thread(this :: acceptConnections, "Conversion server");
+        acceptor.start();
+        return socket.getLocalPort();
+    }
+
+    private void acceptConnections() {
+        ServerSocket socket = serverSocket;
+        while (!socket.isClosed()) {
+            try {
+                Socket connection = socket.accept();
+                connections.execute(() -> serve(connection));
+            } catch (SocketException ex) {
+                // Closed
+            } catch (IOException ex) {
+                Logger.getLogger(ConversionServer.class.getName())
+                        .log(Level.WARNING, "Could not accept connection", ex);
+            }
+        }
+    }
+
+    /**
+     * Stops accepting connections. Open connections are served until their
+     * clients close them.
+     */
+    @Override
+    public void close() throws IOException {
+        ServerSocket socket = serverSocket;
+        if (socket != null) {
+            socket.close();
+        }
+        connections.shutdown();
+    }
+
+    /**
+     * Answers every request of the given connection until it is closed.
+     */
+    private void serve(Socket connection) {
+        try (Socket socket = connection;
+             InputStream in = socket.getInputStream();
+             OutputStream out = socket.getOutputStream()) {
+            socket.setTcpNoDelay(true);
+            byte[] buffer = new byte[READ_BUFFER];
+            Response response = new Response();
+            int filled = 0;
+            int scanned = 0;
+            for (int read; (read = in.read(buffer, filled, buffer.length - filled)) >= 0; ) {
+                filled += read;
+                int start = 0;
+                for (int i = scanned; i < filled; i++) {
+                    if (buffer[i] == '\n') {
+                        int end = (i > start && buffer[i - 1] == '\r') ? i - 1 : i;
+                        if (end - start > MAX_REQUEST) {
+                            response.put(TOO_LONG);
+                        } else {
+                            answer(buffer, start, end, response);
+                        }
+                        start = i + 1;
+                    }
+                }
+                if (response.length > 0) {
+                    out.write(response.bytes, 0, response.length);
+                    response.length = 0;
+                }
+                if (start == 0 && filled == buffer.length) {
+                    // A single request fills the buffer; drop it and answer
+                    // once its end is found
+                    response.put(TOO_LONG);
+                    filled = 0;
+                    scanned = 0;
+                    skipLine(in, buffer);
+                    out.write(response.bytes, 0, response.length);
+                    response.length = 0;
+                    continue;
+                }
+                System.arraycopy(buffer, start, buffer, 0, filled - start);
+                filled -= start;
+                scanned = filled;
+            }
+        } catch (IOException ex) {
+            // The client went away; nothing to answer
+        }
+    }
+
+    /**
+     * Reads from the given stream up to and including the next line feed.
+     */
+    private static void skipLine(InputStream in, byte[] buffer) throws IOException {
+        for (int read; (read = in.read(buffer, 0, 1)) >= 0; ) {
+            if (read > 0 && buffer[0] == '\n') {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Answers the request between the given indices into the response.
+     *
+     * @param request The bytes containing the request.
+     * @param start The index of the first byte of the request.
+     * @param end The index following the last byte of the request.
+     * @param response The response to append to.
+     */
+    void answer(byte[] request, int start, int end, Response response) {
+        int commandEnd = tokenEnd(request, start, end);
+        if (matches(request, start, commandEnd, CONVERT)) {
+            convert(request, skipBlanks(request, commandEnd, end), end, response);
+        } else if (matches(request, start, commandEnd, NEAREST)) {
+            nearest(request, skipBlanks(request, commandEnd, end), end, response);
+        } else if (matches(request, start, commandEnd, CONTRAST)) {
+            contrast(request, skipBlanks(request, commandEnd, end), end, response);
+        } else if (matches(request, start, commandEnd, PING)) {
+            response.put(PONG);
+        } else {
+            response.put(UNKNOWN_COMMAND);
+        }
+    }
+
+    private void convert(byte[] request, int start, int end, Response response) {
+        int fromEnd = tokenEnd(request, start, end);
+        int from = target(request, start, fromEnd);
+        int toStart = skipBlanks(request, fromEnd, end);
+        int toEnd = tokenEnd(request, toStart, end);
+        int to = target(request, toStart, toEnd);
+        if (from < 0 || from >= FORMATS.length || to < 0) {
+            response.put(UNKNOWN_FORMAT);
+            return;
+        }
+        int rgb = BatchConverter.decode(FORMATS[from], request, toEnd, end);
+        if (rgb < 0) {
+            response.put(MALFORMED_COLOR);
+            return;
+        }
+        response.ensure(64);
+        if (to < FORMATS.length) {
+            response.length = BatchConverter.encode(FORMATS[to], rgb, response.bytes, response.length);
+        } else {
+            float[] components = response.components;
+            int space = to - FORMATS.length;
+            SPACES[space].fromRGB(rgb, components, 0);
+            for (int i = 0; i < components.length; i++) {
+                if (i > 0) {
+                    response.bytes[response.length++] = ' ';
+                }
+                response.putFixed(components[i], SPACE_DECIMALS[space]);
+            }
+        }
+        response.bytes[response.length++] = '\n';
+    }
+
+    private void nearest(byte[] request, int start, int end, Response response) {
+        int rgb = BatchConverter.decode(BatchConverter.Format.HEX, request, start, end);
+        if (rgb < 0) {
+            response.put(MALFORMED_COLOR);
+            return;
+        }
+        int entry = names.nearest(rgb);
+        response.put(encodedNames[entry]);
+        response.ensure(32);
+        response.bytes[response.length++] = ' ';
+        response.length = PackedColor.encodeHex(names.getRGB(entry), response.bytes, response.length);
+        response.bytes[response.length++] = ' ';
+        response.putFixed(names.deltaE(entry, rgb), RESULT_DECIMALS);
+        response.bytes[response.length++] = '\n';
+    }
+
+    private void contrast(byte[] request, int start, int end, Response response) {
+        int firstEnd = tokenEnd(request, start, end);
+        int first = BatchConverter.decode(BatchConverter.Format.HEX, request, start, firstEnd);
+        int second = BatchConverter.decode(BatchConverter.Format.HEX, request, firstEnd, end);
+        if (first < 0 || second < 0) {
+            response.put(MALFORMED_COLOR);
+            return;
+        }
+        response.ensure(32);
+        response.putFixed(WcagContrast.contrastRatio(first, second), RESULT_DECIMALS);
+        response.bytes[response.length++] = '\n';
+    }
+
+    /**
+     * Returns the index into {@link #TARGET_NAMES} of the given name, or
+     * {@code -1} if there is none.
+     */
+    private static int target(byte[] src, int start, int end) {
+        for (int i = 0; i < TARGET_NAMES.length; i++) {
+            if (matches(src, start, end, TARGET_NAMES[i])) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Returns whether or not the given bytes are the given lowercase ASCII
+     * word, ignoring case.
+     */
+    private static boolean matches(byte[] src, int start, int end, byte[] word) {
+        if (end - start != word.length) {
+            return false;
+        }
+        for (int i = 0; i < word.length; i++) {
+            if ((src[start + i] | 0x20) != word[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int tokenEnd(byte[] src, int start, int end) {
+        while (start < end && src[start] != ' ' && src[start] != '\t') {
+            start++;
+        }
+        return start;
+    }
+
+    private static int skipBlanks(byte[] src, int start, int end) {
+        while (start < end && (src[start] == ' ' || src[start] == '\t')) {
+            start++;
+        }
+        return start;
+    }
+
+    private static byte[] ascii(String text) {
+        return text.getBytes(StandardCharsets.US_ASCII);
+    }
+
+    /**
+     * The {@code Response} class contains the growable buffer the responses
+     * to a batch of requests are encoded into, reused for every batch of a
+     * connection.
+     */
+    static final class Response {
+
+        byte[] bytes = new byte[READ_BUFFER];
+        int length;
+        final float[] components = new float[ColorSpace.COMPONENTS];
+
+        /**
+         * Ensures room for the given amount of additional bytes.
+         */
+        void ensure(int additional) {
+            if (length + additional > bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.max(2 * bytes.length, length + additional));
+            }
+        }
+
+        void put(byte[] src) {
+            ensure(src.length);
+            System.arraycopy(src, 0, bytes, length, src.length);
+            length += src.length;
+        }
+
+        /**
+         * Appends the given number rounded to the given amount of decimals,
+         * at most 9. A value that rounds to zero is written without a sign.
+         * Room must be ensured beforehand.
+         */
+        void putFixed(double value, int decimals) {
+            long scale = 1;
+            for (int i = 0; i < decimals; i++) {
+                scale *= 10;
+            }
+            long scaled = Math.round(Math.abs(value) * scale);
+            if (value < 0 && scaled != 0) {
+                bytes[length++] = '-';
+            }
+            length = BatchConverter.writeDecimal((int) (scaled / scale), bytes, length);
+            if (decimals > 0) {
+                bytes[length++] = '.';
+                long fraction = scaled % scale;
+                for (long digit = scale / 10; digit > 0; digit /= 10) {
+                    bytes[length++] = (byte) ('0' + fraction / digit % 10);
+                }
+            }
+        }
+
+    }
+
+    /**
+     * Starts a server on the port given by {@code --port}, or on the
+     * {@link #DEFAULT_PORT}, and serves until the process is stopped.
+     *
+     * @param args The command-line arguments.
+     * @throws IOException if the server cannot be started.
+     */
+    public static void main(String[] args) throws IOException {
+        int port = DEFAULT_PORT;
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("--port") && i + 1 < args.length) {
+                port = Integer.parseInt(args[++i]);
+            } else {
+                System.err.println("Usage: ConversionServer [--port PORT]");
+                System.exit(2);
+            }
+        }
+        ConversionServer server = new ConversionServer(NamedColorIndex.getDefault().join());
+        int bound = server.start(port);
+        System.err.println("Serving on " + InetAddress.getLoopbackAddress().getHostAddress()
+                           + ":" + bound);
+    }
+
+}
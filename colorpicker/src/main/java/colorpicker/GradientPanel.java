@@ -0,0 +1,452 @@
+package colorpicker;
+
+import java.awt.Color;
+import java.awt.Component;
+import java.awt.Cursor;
+import java.awt.Dimension;
+import java.awt.Graphics;
+import java.awt.event.HierarchyEvent;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.concurrent.ExecutionException;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.swing.AbstractListModel;
+import javax.swing.BorderFactory;
+import javax.swing.DefaultListCellRenderer;
+import javax.swing.GroupLayout;
+import javax.swing.Icon;
+import javax.swing.JButton;
+import javax.swing.JCheckBox;
+import javax.swing.JComboBox;
+import javax.swing.JFileChooser;
+import javax.swing.JLabel;
+import javax.swing.JList;
+import javax.swing.JPanel;
+import javax.swing.JScrollPane;
+import javax.swing.JSpinner;
+import javax.swing.JTextField;
+import javax.swing.LayoutStyle;
+import javax.swing.ListSelectionModel;
+import javax.swing.SpinnerNumberModel;
+import javax.swing.SwingConstants;
+import javax.swing.SwingWorker;
+import javax.swing.event.ChangeEvent;
+
+/**
+ * The {@code GradientPanel} class contains the harmonies of the color of a
+ * {@link ColorModel} and a {@link ColorRamp} starting from it, which can be
+ * exported to a file. Steps of the ramp are computed only when their row is
+ * painted, so the panel costs the same whatever the amount of steps.
+ * Clicking a harmony swatch or double-clicking a step selects it into the
+ * model.
+ *
+ * @author Oliver Abdulrahim
+ */
+public class GradientPanel extends JPanel {
+
+    private static final long serialVersionUID = 4417093286L;
+
+    /**
+     * Stores the largest amount of steps of the ramp.
+     */
+    public static final int MAX_STEPS = 1 << 16;
+
+    /**
+     * Stores the size of the swatch of each step, in pixels.
+     */
+    private static final int SWATCH_SIZE = 12;
+
+    /**
+     * Stores the model viewed by this panel.
+     */
+    private final ColorModel model;
+
+    /**
+     * Stores the list model reading from the current ramp.
+     */
+    private final RampListModel listModel;
+
+    /**
+     * Stores the color the ramp goes to, unless it goes through the harmony.
+     */
+    private int end = 0xFFFFFF;
+
+// GUI elements
+    private JLabel harmonyLabel;
+    private JComboBox<ColorRamp.Harmony> harmonyBox;
+    private JLabel[] harmonySwatches;
+    private JCheckBox throughBox;
+    private JLabel endLabel;
+    private JTextField endField;
+    private JLabel endSwatch;
+    private JLabel stepsLabel;
+    private JSpinner stepsSpinner;
+    private JList<Integer> rampList;
+    private JScrollPane rampScrollPane;
+    private JComboBox<ColorRamp.Format> formatBox;
+    private JButton exportButton;
+    private JLabel statusLabel;
+    private JFileChooser fileChooser;
+
+    /**
+     * Creates a new {@code GradientPanel} viewing the given model.
+     *
+     * @param model The model to view.
+     */
+    public GradientPanel(ColorModel model) {
+        this.model = model;
+        this.listModel = new RampListModel();
+        initComponents();
+        model.addChangeListener(this :: modelStateChanged);
+        addHierarchyListener(this :: hierarchyChanged);
+        refresh();
+    }
+
+    private void initComponents() {
+        harmonyLabel = new JLabel();
+        harmonyBox = new JComboBox<>(ColorRamp.Harmony.values());
+        harmonySwatches = new JLabel[Arrays.stream(ColorRamp.Harmony.values())
+                .mapToInt(ColorRamp.Harmony :: size).max().getAsInt()];
+        throughBox = new JCheckBox();
+        endLabel = new JLabel();
+        endField = new JTextField(7);
+        endSwatch = new JLabel();
+        stepsLabel = new JLabel();
+        stepsSpinner = new JSpinner(new SpinnerNumberModel(16, 1, MAX_STEPS, 1));
+        rampList = new JList<>(listModel);
+        rampScrollPane = new JScrollPane(rampList);
+        formatBox = new JComboBox<>(ColorRamp.Format.values());
+        exportButton = new JButton();
+        statusLabel = new JLabel();
+
+        harmonyLabel.setText("Harmony");
+        harmonyBox.addActionListener(evt -> refresh());
+
+        for (int i = 0; i < harmonySwatches.length; i++) {
+            JLabel swatch = new JLabel();
+            swatch.setOpaque(true);
+            swatch.setHorizontalAlignment(SwingConstants.CENTER);
+            swatch.setBorder(BorderFactory.createLineBorder(Color.GRAY));
+            swatch.setPreferredSize(new Dimension(64, 20));
+            swatch.setCursor(Cursor.getPredefinedCursor(Cursor.HAND_CURSOR));
+            swatch.addMouseListener(new MouseAdapter() {
+
+                @Override
+                public void mouseClicked(MouseEvent evt) {
+                    model.setRGB(swatch.getBackground().getRGB() & PackedColor.RGB_MASK);
+                }
+
+            });
+            harmonySwatches[i] = swatch;
+        }
+
+        throughBox.setText("Ramp through harmony");
+        throughBox.addActionListener(evt -> throughBoxActionPerformed());
+
+        endLabel.setText("Ramp to");
+
+        endField.setText(PackedColor.toHexString(end));
+        endField.addActionListener(evt -> endFieldActionPerformed());
+
+        endSwatch.setOpaque(true);
+        endSwatch.setBackground(new Color(end));
+        endSwatch.setBorder(BorderFactory.createLineBorder(Color.GRAY));
+        endSwatch.setPreferredSize(new Dimension(20, 20));
+
+        stepsLabel.setText("Steps");
+        stepsSpinner.addChangeListener(evt -> refresh());
+
+        // Fixed cell sizes keep the list from measuring every step
+        rampList.setFixedCellHeight(SWATCH_SIZE + 6);
+        rampList.setFixedCellWidth(180);
+        rampList.setVisibleRowCount(6);
+        rampList.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+        rampList.setCellRenderer(new StepRenderer());
+        rampList.addMouseListener(new MouseAdapter() {
+
+            @Override
+            public void mouseClicked(MouseEvent evt) {
+                if (evt.getClickCount() == 2) {
+                    int index = rampList.locationToIndex(evt.getPoint());
+                    if (index >= 0) {
+                        model.setRGB(listModel.getRGB(index));
+                    }
+                }
+            }
+
+        });
+
+        exportButton.setText("Export...");
+        exportButton.addActionListener(evt -> exportButtonActionPerformed());
+
+        GroupLayout layout = new GroupLayout(this);
+        setLayout(layout);
+        GroupLayout.SequentialGroup swatchRow = layout.createSequentialGroup();
+        GroupLayout.ParallelGroup swatchColumn = layout.createParallelGroup(GroupLayout.Alignment.CENTER);
+        for (JLabel swatch : harmonySwatches) {
+            swatchRow.addPreferredGap(LayoutStyle.ComponentPlacement.RELATED)
+                     .addComponent(swatch, GroupLayout.PREFERRED_SIZE, GroupLayout.DEFAULT_SIZE, GroupLayout.PREFERRED_SIZE);
+            swatchColumn.addComponent(swatch, GroupLayout.PREFERRED_SIZE, GroupLayout.DEFAULT_SIZE, GroupLayout.PREFERRED_SIZE);
+        }
+        layout.setHorizontalGroup(
+            layout.createParallelGroup(GroupLayout.Alignment.LEADING)
+            .addGroup(layout.createSequentialGroup()
+                .addContainerGap()
+                .addGroup(layout.createParallelGroup(GroupLayout.Alignment.LEADING)
+                    .addGroup(layout.createSequentialGroup()
+                        .addComponent(harmonyLabel)
+                        .addPreferredGap(LayoutStyle.ComponentPlacement.RELATED)
+                        .addComponent(harmonyBox, GroupLayout.PREFERRED_SIZE, GroupLayout.DEFAULT_SIZE, GroupLayout.PREFERRED_SIZE)
+                        .addGroup(swatchRow))
+                    .addGroup(layout.createSequentialGroup()
+                        .addComponent(endLabel)
+                        .addPreferredGap(LayoutStyle.ComponentPlacement.RELATED)
+                        .addComponent(endField, GroupLayout.PREFERRED_SIZE, GroupLayout.DEFAULT_SIZE, GroupLayout.PREFERRED_SIZE)
+                        .addPreferredGap(LayoutStyle.ComponentPlacement.RELATED)
+                        .addComponent(endSwatch, GroupLayout.PREFERRED_SIZE, 20, GroupLayout.PREFERRED_SIZE)
+                        .addPreferredGap(LayoutStyle.ComponentPlacement.UNRELATED)
+                        .addComponent(stepsLabel)
+                        .addPreferredGap(LayoutStyle.ComponentPlacement.RELATED)
+                        .addComponent(stepsSpinner, GroupLayout.PREFERRED_SIZE, GroupLayout.DEFAULT_SIZE, GroupLayout.PREFERRED_SIZE))
+                    .addComponent(throughBox)
+                    .addComponent(rampScrollPane, GroupLayout.DEFAULT_SIZE, GroupLayout.DEFAULT_SIZE, Short.MAX_VALUE)
+                    .addGroup(layout.createSequentialGroup()
+                        .addComponent(formatBox, GroupLayout.PREFERRED_SIZE, GroupLayout.DEFAULT_SIZE, GroupLayout.PREFERRED_SIZE)
+                        .addPreferredGap(LayoutStyle.ComponentPlacement.RELATED)
+                        .addComponent(exportButton)
+                        .addPreferredGap(LayoutStyle.ComponentPlacement.RELATED)
+                        .addComponent(statusLabel, GroupLayout.DEFAULT_SIZE, GroupLayout.DEFAULT_SIZE, Short.MAX_VALUE)))
+                .addContainerGap())
+        );
+        layout.setVerticalGroup(
+            layout.createParallelGroup(GroupLayout.Alignment.LEADING)
+            .addGroup(layout.createSequentialGroup()
+                .addContainerGap()
+                .addGroup(layout.createParallelGroup(GroupLayout.Alignment.CENTER)
+                    .addComponent(harmonyLabel)
+                    .addComponent(harmonyBox, GroupLayout.PREFERRED_SIZE, GroupLayout.DEFAULT_SIZE, GroupLayout.PREFERRED_SIZE)
+                    .addGroup(swatchColumn))
+                .addPreferredGap(LayoutStyle.ComponentPlacement.UNRELATED)
+                .addGroup(layout.createParallelGroup(GroupLayout.Alignment.CENTER)
+                    .addComponent(endLabel)
+                    .addComponent(endField, GroupLayout.PREFERRED_SIZE, GroupLayout.DEFAULT_SIZE, GroupLayout.PREFERRED_SIZE)
+                    .addComponent(endSwatch, GroupLayout.PREFERRED_SIZE, 20, GroupLayout.PREFERRED_SIZE)
+                    .addComponent(stepsLabel)
+                    .addComponent(stepsSpinner, GroupLayout.PREFERRED_SIZE, GroupLayout.DEFAULT_SIZE, GroupLayout.PREFERRED_SIZE))
+                .addPreferredGap(LayoutStyle.ComponentPlacement.RELATED)
+                .addComponent(throughBox)
+                .addPreferredGap(LayoutStyle.ComponentPlacement.RELATED)
+                .addComponent(rampScrollPane, GroupLayout.PREFERRED_SIZE, GroupLayout.DEFAULT_SIZE, GroupLayout.PREFERRED_SIZE)
+                .addPreferredGap(LayoutStyle.ComponentPlacement.RELATED)
+                .addGroup(layout.createParallelGroup(GroupLayout.Alignment.BASELINE)
+                    .addComponent(formatBox, GroupLayout.PREFERRED_SIZE, GroupLayout.DEFAULT_SIZE, GroupLayout.PREFERRED_SIZE)
+                    .addComponent(exportButton)
+                    .addComponent(statusLabel))
+                .addContainerGap(GroupLayout.DEFAULT_SIZE, Short.MAX_VALUE))
+        );
+    }
+
+    private void throughBoxActionPerformed() {
+        boolean through = throughBox.isSelected();
+        endField.setEnabled(!through);
+        if (through) {
+            stepsSpinner.setValue(((ColorRamp.Harmony) harmonyBox.getSelectedItem()).size());
+        }
+        refresh();
+    }
+
+    private void endFieldActionPerformed() {
+        String text = endField.getText().trim();
+        int rgb = PackedColor.decodeHex(text, 0, text.length());
+        if (rgb >= 0) {
+            end = rgb;
+            endSwatch.setBackground(new Color(end));
+            refresh();
+        }
+        endField.setText(PackedColor.toHexString(end));
+    }
+
+    private void modelStateChanged(ChangeEvent evt) {
+        refresh();
+    }
+
+    /**
+     * Refreshes the harmony and the ramp once this panel becomes visible.
+     */
+    private void hierarchyChanged(HierarchyEvent evt) {
+        if ((evt.getChangeFlags() & HierarchyEvent.SHOWING_CHANGED) != 0 && isShowing()) {
+            refresh();
+        }
+    }
+
+    /**
+     * Rebuilds the harmony swatches and the ramp from the model. Only the
+     * stops are computed here, the steps being computed by the list as they
+     * are painted. Skipped while this panel is not showing, since it is redone
+     * once the panel is shown.
+     */
+    private void refresh() {
+        if (!isShowing()) {
+            return;
+        }
+        int rgb = model.getRGB();
+        int[] harmony = ((ColorRamp.Harmony) harmonyBox.getSelectedItem()).colors(rgb);
+        for (int i = 0; i < harmonySwatches.length; i++) {
+            JLabel swatch = harmonySwatches[i];
+            swatch.setVisible(i < harmony.length);
+            if (i < harmony.length) {
+                swatch.setBackground(new Color(harmony[i]));
+                swatch.setForeground((WcagContrast.luminance(harmony[i]) > 0.18f) ? Color.BLACK : Color.WHITE);
+                swatch.setText(PackedColor.toHexString(harmony[i]));
+            }
+        }
+        int steps = (Integer) stepsSpinner.getValue();
+        listModel.setRamp(throughBox.isSelected()
+                ? ColorRamp.of(harmony, steps)
+                : ColorRamp.between(rgb, end, steps));
+    }
+
+    /**
+     * Asks the user for a file and writes the ramp to it in the background,
+     * in the selected format.
+     */
+    private void exportButtonActionPerformed() {
+        ColorRamp.Format format = (ColorRamp.Format) formatBox.getSelectedItem();
+        if (fileChooser == null) {
+            fileChooser = new JFileChooser();
+        }
+        fileChooser.setSelectedFile(new File(fileChooser.getCurrentDirectory(),
+                                             "ramp." + format.getExtension()));
+        if (fileChooser.showSaveDialog(this) != JFileChooser.APPROVE_OPTION) {
+            return;
+        }
+        File file = fileChooser.getSelectedFile();
+        ColorRamp ramp = listModel.ramp;
+        statusLabel.setText("Writing " + file.getName() + "...");
+        exportButton.setEnabled(false);
+        new SwingWorker<Void, Void>() {
+
+            @Override
+            protected Void doInBackground() throws IOException {
+                try (FileChannel out = FileChannel.open(file.toPath(),
+                        StandardOpenOption.CREATE,
+                        StandardOpenOption.TRUNCATE_EXISTING,
+                        StandardOpenOption.WRITE)) {
+                    ramp.write(format, out);
+                }
+                return null;
+            }
+
+            @Override
+            protected void done() {
+                exportButton.setEnabled(true);
+                try {
+                    get();
+                    statusLabel.setText(String.format("Wrote %d colors to %s.",
+                                                      ramp.size(), file.getName()));
+                } catch (InterruptedException | ExecutionException ex) {
+                    Logger.getLogger(GradientPanel.class.getName())
+                            .log(Level.WARNING, "Could not export ramp", ex);
+                    statusLabel.setText("Could not write " + file.getName() + ".");
+                }
+            }
+
+        }.execute();
+    }
+
+    /**
+     * The {@code RampListModel} class contains the steps of the current ramp,
+     * each computed when it is read.
+     */
+    private final class RampListModel extends AbstractListModel<Integer> {
+
+        private static final long serialVersionUID = 1L;
+
+        private ColorRamp ramp;
+
+        @Override
+        public int getSize() {
+            return (ramp == null) ? 0 : ramp.size();
+        }
+
+        @Override
+        public Integer getElementAt(int index) {
+            return index;
+        }
+
+        int getRGB(int index) {
+            return ramp.get(index);
+        }
+
+        /**
+         * Replaces the ramp, reporting a change in size as an insertion or
+         * removal at the end of the list.
+         */
+        void setRamp(ColorRamp ramp) {
+            int oldSize = getSize();
+            this.ramp = ramp;
+            int newSize = getSize();
+            if (newSize > oldSize) {
+                fireIntervalAdded(this, oldSize, newSize - 1);
+            } else if (newSize < oldSize) {
+                fireIntervalRemoved(this, newSize, oldSize - 1);
+            }
+            if (newSize > 0) {
+                fireContentsChanged(this, 0, newSize - 1);
+            }
+        }
+
+    }
+
+    /**
+     * The {@code StepRenderer} class renders a step as a swatch, its index,
+     * and its hex representation.
+     */
+    private final class StepRenderer extends DefaultListCellRenderer {
+
+        private static final long serialVersionUID = 1L;
+
+        private int rgb;
+
+        private final Icon swatch = new Icon() {
+
+            @Override
+            public void paintIcon(Component c, Graphics g, int x, int y) {
+                g.setColor(new Color(rgb));
+                g.fillRect(x, y, SWATCH_SIZE, SWATCH_SIZE);
+                g.setColor(Color.GRAY);
+                g.drawRect(x, y, SWATCH_SIZE - 1, SWATCH_SIZE - 1);
+            }
+
+            @Override
+            public int getIconWidth() {
+                return SWATCH_SIZE;
+            }
+
+            @Override
+            public int getIconHeight() {
+                return SWATCH_SIZE;
+            }
+
+        };
+
+        @Override
+        public Component getListCellRendererComponent(JList<?> list, Object value,
+                int index, boolean isSelected, boolean cellHasFocus) {
+            super.getListCellRendererComponent(list, value, index, isSelected, cellHasFocus);
+            rgb = listModel.getRGB(index);
+            StringBuilder text = new StringBuilder(24).append(index).append("  ");
+            setText(PackedColor.appendHex(rgb, text).toString());
+            setIcon(swatch);
+            return this;
+        }
+
+    }
+
+}
@@ -0,0 +1,288 @@
+package colorpicker;
+
+import java.awt.Color;
+import java.awt.Component;
+import java.awt.Graphics;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.time.format.FormatStyle;
+import javax.swing.AbstractListModel;
+import javax.swing.DefaultListCellRenderer;
+import javax.swing.GroupLayout;
+import javax.swing.Icon;
+import javax.swing.JButton;
+import javax.swing.JLabel;
+import javax.swing.JList;
+import javax.swing.JPanel;
+import javax.swing.JScrollPane;
+import javax.swing.LayoutStyle;
+import javax.swing.ListSelectionModel;
+import javax.swing.event.ChangeEvent;
+
+/**
+ * The {@code HistoryPanel} class contains a list of the colors in a
+ * {@link ColorHistory}, newest first. Entries are read from the history only
+ * when their row is painted, so the panel costs the same whatever the length
+ * of the history. Double-clicking an entry selects it into a
+ * {@link ColorModel}.
+ *
+ * @author Oliver Abdulrahim
+ */
+public class HistoryPanel extends JPanel {
+
+    private static final long serialVersionUID = 6120948375L;
+
+    /**
+     * Stores the size of the swatch of each entry, in pixels.
+     */
+    private static final int SWATCH_SIZE = 12;
+
+    /**
+     * Stores the format of the time of each entry.
+     */
+    private static final DateTimeFormatter TIME_FORMAT = DateTimeFormatter
+            .ofLocalizedDateTime(FormatStyle.SHORT)
+            .withZone(ZoneId.systemDefault());
+
+    /**
+     * Stores the history viewed by this panel.
+     */
+    private final ColorHistory history;
+
+    /**
+     * Stores the model entries are selected into.
+     */
+    private final ColorModel model;
+
+    /**
+     * Stores the list model reading from the history.
+     */
+    private final HistoryListModel listModel;
+
+// GUI elements
+    private JList<Integer> historyList;
+    private JScrollPane historyScrollPane;
+    private JButton favoriteButton;
+    private JLabel countLabel;
+
+    /**
+     * Creates a new {@code HistoryPanel} viewing the given history.
+     *
+     * @param history The history to view.
+     * @param model The model to select entries into.
+     */
+    public HistoryPanel(ColorHistory history, ColorModel model) {
+        this.history = history;
+        this.model = model;
+        this.listModel = new HistoryListModel();
+        initComponents();
+        history.addChangeListener(this :: historyStateChanged);
+    }
+
+    private void initComponents() {
+        historyList = new JList<>(listModel);
+        historyScrollPane = new JScrollPane(historyList);
+        favoriteButton = new JButton();
+        countLabel = new JLabel();
+
+        // Fixed cell sizes keep the list from measuring every entry
+        historyList.setFixedCellHeight(SWATCH_SIZE + 6);
+        historyList.setFixedCellWidth(180);
+        historyList.setVisibleRowCount(6);
+        historyList.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+        historyList.setCellRenderer(new EntryRenderer());
+        historyList.addMouseListener(new MouseAdapter() {
+            
+            @Override
+            public void mouseClicked(MouseEvent evt) {
+                if (evt.getClickCount() == 2) {
+                    int index = historyList.locationToIndex(evt.getPoint());
+                    int rgb = (index >= 0) ? listModel.getShownRGB(index) : -1;
+                    if (rgb >= 0) {
+                        model.setRGB(rgb);
+                    }
+                }
+            }
+            
+        });
+
+        favoriteButton.setText("Toggle Favorite");
+        favoriteButton.addActionListener(evt -> favoriteButtonActionPerformed());
+
+        GroupLayout layout = new GroupLayout(this);
+        setLayout(layout);
+        layout.setHorizontalGroup(
+            layout.createParallelGroup(GroupLayout.Alignment.LEADING)
+            .addGroup(layout.createSequentialGroup()
+                .addContainerGap()
+                .addGroup(layout.createParallelGroup(GroupLayout.Alignment.LEADING)
+                    .addComponent(historyScrollPane, GroupLayout.DEFAULT_SIZE, GroupLayout.DEFAULT_SIZE, Short.MAX_VALUE)
+                    .addGroup(layout.createSequentialGroup()
+                        .addComponent(favoriteButton)
+                        .addPreferredGap(LayoutStyle.ComponentPlacement.RELATED)
+                        .addComponent(countLabel, GroupLayout.DEFAULT_SIZE, GroupLayout.DEFAULT_SIZE, Short.MAX_VALUE)))
+                .addContainerGap())
+        );
+        layout.setVerticalGroup(
+            layout.createParallelGroup(GroupLayout.Alignment.LEADING)
+            .addGroup(layout.createSequentialGroup()
+                .addContainerGap()
+                .addComponent(historyScrollPane, GroupLayout.PREFERRED_SIZE, GroupLayout.DEFAULT_SIZE, GroupLayout.PREFERRED_SIZE)
+                .addPreferredGap(LayoutStyle.ComponentPlacement.RELATED)
+                .addGroup(layout.createParallelGroup(GroupLayout.Alignment.BASELINE)
+                    .addComponent(favoriteButton)
+                    .addComponent(countLabel))
+                .addContainerGap(GroupLayout.DEFAULT_SIZE, Short.MAX_VALUE))
+        );
+        updateCountLabel();
+    }
+
+    private void favoriteButtonActionPerformed() {
+        int index = historyList.getSelectedIndex();
+        int rgb = (index >= 0) ? listModel.getShownRGB(index) : -1;
+        if (rgb >= 0) {
+            history.setFavorite(rgb, !history.isFavorite(rgb));
+            historyList.repaint();
+        }
+    }
+
+    private void historyStateChanged(ChangeEvent evt) {
+        listModel.refresh();
+        updateCountLabel();
+    }
+
+    private void updateCountLabel() {
+        countLabel.setText(listModel.getSize() + " colors");
+    }
+
+    /**
+     * The {@code HistoryListModel} class contains the entries of the history,
+     * newest first, read from the snapshot taken at the last refresh. Every
+     * read is validated against that snapshot, and if the history was
+     * compacted under it, the model is refreshed and the entry read again.
+     */
+    private final class HistoryListModel extends AbstractListModel<Integer> {
+
+        private static final long serialVersionUID = 1L;
+
+        private ColorLog.Snapshot snapshot;
+
+        @Override
+        public int getSize() {
+            return (snapshot == null) ? 0 : snapshot.size();
+        }
+
+        @Override
+        public Integer getElementAt(int index) {
+            return index;
+        }
+
+        int getRGB(int index) {
+            while (true) {
+                ColorLog.Snapshot current = snapshot;
+                int row = current.size() - 1 - index;
+                int value = (row >= 0) ? current.getValue(row) : 0;
+                if (current.validate()) {
+                    return value & PackedColor.RGB_MASK;
+                }
+                refresh();
+            }
+        }
+
+        long getTime(int index) {
+            while (true) {
+                ColorLog.Snapshot current = snapshot;
+                int row = current.size() - 1 - index;
+                long time = (row >= 0) ? current.getTime(row) : 0;
+                if (current.validate()) {
+                    return time;
+                }
+                refresh();
+            }
+        }
+
+        /**
+         * Returns the color of the given entry as the list shows it, or
+         * {@code -1} if the history was compacted since the list was last
+         * refreshed, in which case the list is refreshed and the entry at the
+         * given index may no longer be the one the user saw.
+         */
+        int getShownRGB(int index) {
+            ColorLog.Snapshot shown = snapshot;
+            int rgb = getRGB(index);
+            return (snapshot == shown) ? rgb : -1;
+        }
+
+        /**
+         * Takes a new snapshot of the history. New entries are at the top, so
+         * growth is reported as an insertion at the start of the list.
+         */
+        void refresh() {
+            int oldSize = getSize();
+            snapshot = history.snapshot();
+            int newSize = getSize();
+            if (newSize > oldSize) {
+                fireIntervalAdded(this, 0, newSize - oldSize - 1);
+            } else if (newSize < oldSize) {
+                fireIntervalRemoved(this, newSize, oldSize - 1);
+            }
+            if (newSize > 0) {
+                fireContentsChanged(this, 0, newSize - 1);
+            }
+        }
+
+    }
+
+    /**
+     * The {@code EntryRenderer} class renders an entry as a swatch, its hex
+     * representation, whether it is a favorite, and when it was copied.
+     */
+    private final class EntryRenderer extends DefaultListCellRenderer {
+
+        private static final long serialVersionUID = 1L;
+
+        private int rgb;
+
+        private final Icon swatch = new Icon() {
+            
+            @Override
+            public void paintIcon(Component c, Graphics g, int x, int y) {
+                g.setColor(new Color(rgb));
+                g.fillRect(x, y, SWATCH_SIZE, SWATCH_SIZE);
+                g.setColor(Color.GRAY);
+                g.drawRect(x, y, SWATCH_SIZE - 1, SWATCH_SIZE - 1);
+            }
+            
+            @Override
+            public int getIconWidth() {
+                return SWATCH_SIZE;
+            }
+            
+            @Override
+            public int getIconHeight() {
+                return SWATCH_SIZE;
+            }
+            
+        };
+
+        @Override
+        public Component getListCellRendererComponent(JList<?> list, Object value,
+                int index, boolean isSelected, boolean cellHasFocus) {
+            super.getListCellRendererComponent(list, value, index, isSelected, cellHasFocus);
+            rgb = listModel.getRGB(index);
+            StringBuilder text = PackedColor.appendHex(rgb, new StringBuilder(40));
+            if (history.isFavorite(rgb)) {
+                text.append(" ★");
+            }
+            text.append("  ").append(TIME_FORMAT.format(Instant.ofEpochMilli(listModel.getTime(index))));
+            setText(text.toString());
+            setIcon(swatch);
+            return this;
+        }
+
+    }
+
+}
@@ -0,0 +1,123 @@
+package colorpicker;
+
+import java.awt.Color;
+import java.awt.Dimension;
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import javax.swing.JComponent;
+
+/**
+ * The {@code HueStrip} class contains a horizontal strip of every hue, with a
+ * marker on the hue of a {@link SaturationValueField}. Clicking or dragging
+ * in the strip changes the hue of the field.
+ *
+ * <p>The strip does not depend on the current color, so its image is only
+ * drawn again when its size changes.
+ *
+ * @author Oliver Abdulrahim
+ */
+public class HueStrip extends JComponent {
+
+    private static final long serialVersionUID = 8164093275L;
+
+    /**
+     * Stores the field whose hue is viewed and edited.
+     */
+    private final SaturationValueField field;
+
+    /**
+     * Stores the image of the strip, or {@code null} if it was never drawn.
+     */
+    private BufferedImage strip;
+
+    /**
+     * Creates a new {@code HueStrip} for the given field and model.
+     *
+     * @param field The field whose hue is viewed and edited.
+     * @param model The model of the field, used to repaint the marker.
+     */
+    public HueStrip(SaturationValueField field, ColorModel model) {
+        this.field = field;
+        setPreferredSize(new Dimension(211, 16));
+        setOpaque(true);
+        model.addChangeListener(evt -> repaint());
+        MouseAdapter mouse = new MouseAdapter() {
+
+            @Override
+            public void mousePressed(MouseEvent evt) {
+                model.setValueIsAdjusting(true);
+                select(evt.getX());
+            }
+
+            @Override
+            public void mouseDragged(MouseEvent evt) {
+                select(evt.getX());
+            }
+
+            @Override
+            public void mouseReleased(MouseEvent evt) {
+                model.setValueIsAdjusting(false);
+            }
+
+        };
+        addMouseListener(mouse);
+        addMouseMotionListener(mouse);
+    }
+
+    /**
+     * Selects the hue under the given horizontal position.
+     */
+    private void select(int x) {
+        int width = Math.max(getWidth() - 1, 1);
+        field.setHue(359f * Math.max(0, Math.min(width, x)) / width);
+        repaint();
+    }
+
+    @Override
+    protected void paintComponent(Graphics g) {
+        Graphics2D g2 = (Graphics2D) g.create();
+        try {
+            AffineTransform transform = g2.getTransform();
+            int width = (int) Math.ceil(getWidth() * transform.getScaleX());
+            int height = (int) Math.ceil(getHeight() * transform.getScaleY());
+            if (width <= 0 || height <= 0) {
+                return;
+            }
+            if (strip == null || strip.getWidth() != width || strip.getHeight() != height) {
+                strip = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+                renderStrip(strip);
+            }
+            g2.drawImage(strip, 0, 0, getWidth(), getHeight(), null);
+
+            int x = Math.round(field.getHue() / 359 * (getWidth() - 1));
+            g2.setColor(Color.BLACK);
+            g2.drawRect(x - 2, 0, 4, getHeight() - 1);
+            g2.setColor(Color.WHITE);
+            g2.drawRect(x - 1, 1, 2, getHeight() - 3);
+        } finally {
+            g2.dispose();
+        }
+    }
+
+    /**
+     * Draws every hue, left to right, into the given image. Only the first
+     * row is computed, the others are copies of it.
+     */
+    private static void renderStrip(BufferedImage image) {
+        int[] pixels = ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
+        int width = image.getWidth();
+        float scale = 359f / Math.max(width - 1, 1);
+        for (int x = 0; x < width; x++) {
+            pixels[x] = ColorConversions.hsvToRgb(x * scale, 100, 100);
+        }
+        for (int y = 1; y < image.getHeight(); y++) {
+            System.arraycopy(pixels, 0, pixels, y * width, width);
+        }
+    }
+
+}
@@ -0,0 +1,185 @@
+package colorpicker;
+
+import java.awt.Color;
+import java.awt.Cursor;
+import java.awt.Dimension;
+import java.awt.FlowLayout;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.io.File;
+import java.util.concurrent.ExecutionException;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.swing.BorderFactory;
+import javax.swing.GroupLayout;
+import javax.swing.JButton;
+import javax.swing.JFileChooser;
+import javax.swing.JLabel;
+import javax.swing.JPanel;
+import javax.swing.LayoutStyle;
+import javax.swing.SwingWorker;
+import javax.swing.filechooser.FileNameExtensionFilter;
+
+/**
+ * The {@code ImagePalettePanel} class lets the user pick an image, extracts
+ * its dominant colors in the background with {@link PaletteExtractor}, and
+ * shows them as swatches that select their color into a {@link ColorModel}
+ * when clicked.
+ *
+ * @author Oliver Abdulrahim
+ */
+public class ImagePalettePanel extends JPanel {
+
+    private static final long serialVersionUID = 5830291746L;
+
+    /**
+     * Stores the amount of colors extracted from an image.
+     */
+    public static final int PALETTE_SIZE = 12;
+
+    /**
+     * Stores the size of each swatch, in pixels.
+     */
+    private static final int SWATCH_SIZE = 20;
+
+    /**
+     * Stores the model the swatches select into.
+     */
+    private final ColorModel model;
+
+    /**
+     * Stores the extraction currently running, if any.
+     */
+    private SwingWorker<int[], Void> worker;
+
+// GUI elements
+    private JButton pickButton;
+    private JLabel statusLabel;
+    private JPanel swatchPanel;
+    private JFileChooser fileChooser;
+
+    /**
+     * Creates a new {@code ImagePalettePanel} selecting into the given model.
+     *
+     * @param model The model to select swatches into.
+     */
+    public ImagePalettePanel(ColorModel model) {
+        this.model = model;
+        initComponents();
+    }
+
+    private void initComponents() {
+        pickButton = new JButton();
+        statusLabel = new JLabel();
+        swatchPanel = new JPanel();
+
+        pickButton.setText("Pick from image...");
+        pickButton.addActionListener(evt -> pickButtonActionPerformed());
+
+        statusLabel.setText("No image loaded.");
+
+        swatchPanel.setLayout(new FlowLayout(FlowLayout.LEADING, 2, 2));
+        swatchPanel.setPreferredSize(new Dimension(6 * (SWATCH_SIZE + 2) + 2, 2 * (SWATCH_SIZE + 2) + 2));
+
+        GroupLayout layout = new GroupLayout(this);
+        setLayout(layout);
+        layout.setHorizontalGroup(
+            layout.createParallelGroup(GroupLayout.Alignment.LEADING)
+            .addGroup(layout.createSequentialGroup()
+                .addContainerGap()
+                .addGroup(layout.createParallelGroup(GroupLayout.Alignment.LEADING)
+                    .addGroup(layout.createSequentialGroup()
+                        .addComponent(pickButton)
+                        .addPreferredGap(LayoutStyle.ComponentPlacement.RELATED)
+                        .addComponent(statusLabel, GroupLayout.DEFAULT_SIZE, GroupLayout.DEFAULT_SIZE, Short.MAX_VALUE))
+                    .addComponent(swatchPanel, GroupLayout.DEFAULT_SIZE, GroupLayout.DEFAULT_SIZE, Short.MAX_VALUE))
+                .addContainerGap())
+        );
+        layout.setVerticalGroup(
+            layout.createParallelGroup(GroupLayout.Alignment.LEADING)
+            .addGroup(layout.createSequentialGroup()
+                .addContainerGap()
+                .addGroup(layout.createParallelGroup(GroupLayout.Alignment.BASELINE)
+                    .addComponent(pickButton)
+                    .addComponent(statusLabel))
+                .addPreferredGap(LayoutStyle.ComponentPlacement.RELATED)
+                .addComponent(swatchPanel, GroupLayout.PREFERRED_SIZE, GroupLayout.DEFAULT_SIZE, GroupLayout.PREFERRED_SIZE)
+                .addContainerGap(GroupLayout.DEFAULT_SIZE, Short.MAX_VALUE))
+        );
+    }
+
+    /**
+     * Asks the user for an image and extracts its palette in the background.
+     */
+    private void pickButtonActionPerformed() {
+        if (fileChooser == null) {
+            fileChooser = new JFileChooser();
+            fileChooser.setFileFilter(new FileNameExtensionFilter(
+                    "Images (PNG, JPEG, raw RGB)", "png", "jpg", "jpeg", "gif", "bmp", "rgb", "raw"));
+        }
+        if (fileChooser.showOpenDialog(this) != JFileChooser.APPROVE_OPTION) {
+            return;
+        }
+        File file = fileChooser.getSelectedFile();
+        if (worker != null) {
+            worker.cancel(true);
+        }
+        statusLabel.setText("Reading " + file.getName() + "...");
+        pickButton.setEnabled(false);
+        worker = new SwingWorker<int[], Void>() {
+            
+            @Override
+            protected int[] doInBackground() throws Exception {
+                return PaletteExtractor.extract(file.toPath(), PALETTE_SIZE);
+            }
+            
+            @Override
+            protected void done() {
+                if (isCancelled()) {
+                    return;
+                }
+                pickButton.setEnabled(true);
+                try {
+                    showPalette(get());
+                    statusLabel.setText(file.getName());
+                } catch (InterruptedException | ExecutionException ex) {
+                    Logger.getLogger(ImagePalettePanel.class.getName())
+                            .log(Level.WARNING, "Could not extract palette", ex);
+                    statusLabel.setText("Could not read " + file.getName() + ".");
+                }
+            }
+            
+        };
+        worker.execute();
+    }
+
+    /**
+     * Replaces the current swatches with the given palette.
+     *
+     * @param palette The packed colors to show.
+     */
+    private void showPalette(int[] palette) {
+        swatchPanel.removeAll();
+        for (int rgb : palette) {
+            JLabel swatch = new JLabel();
+            swatch.setOpaque(true);
+            swatch.setBackground(new Color(rgb));
+            swatch.setBorder(BorderFactory.createLineBorder(Color.GRAY));
+            swatch.setPreferredSize(new Dimension(SWATCH_SIZE, SWATCH_SIZE));
+            swatch.setToolTipText(PackedColor.toHexString(rgb));
+            swatch.setCursor(Cursor.getPredefinedCursor(Cursor.HAND_CURSOR));
+            swatch.addMouseListener(new MouseAdapter() {
+                
+                @Override
+                public void mouseClicked(MouseEvent evt) {
+                    model.setRGB(rgb);
+                }
+                
+            });
+            swatchPanel.add(swatch);
+        }
+        swatchPanel.revalidate();
+        swatchPanel.repaint();
+    }
+
+}
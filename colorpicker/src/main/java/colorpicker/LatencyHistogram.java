@@ -0,0 +1,170 @@
+package colorpicker;
+
+import java.util.Arrays;
+
+/**
+ * The {@code LatencyHistogram} class contains a histogram of durations with
+ * bounded relative error, in the style of HdrHistogram. Durations are counted
+ * in buckets whose width grows with their magnitude, so the histogram covers
+ * every positive {@code long} in a fixed amount of memory, and recording a
+ * duration never allocates.
+ *
+ * <p>Each power of two is split into {@value #HALF_BUCKET_COUNT} buckets, so
+ * a percentile is reported within about 1.6% of the recorded duration.
+ *
+ * <p>Recording is meant for a single thread, usually the event dispatch
+ * thread. Reading from another thread sees approximately current counts.
+ *
+ * @author Oliver Abdulrahim
+ */
+public final class LatencyHistogram {
+
+    /**
+     * Stores the amount of bits of precision kept for each duration.
+     */
+    private static final int PRECISION_BITS = 7;
+
+    /**
+     * Stores the amount of buckets of width one at the start.
+     */
+    private static final int LINEAR_BUCKET_COUNT = 1 << PRECISION_BITS;
+
+    /**
+     * Stores the amount of buckets in each subsequent power of two.
+     */
+    private static final int HALF_BUCKET_COUNT = LINEAR_BUCKET_COUNT >>> 1;
+
+    /**
+     * Stores the amount of buckets needed to cover every positive duration.
+     */
+    private static final int BUCKET_COUNT =
+            LINEAR_BUCKET_COUNT + (Long.SIZE - 1 - PRECISION_BITS) * HALF_BUCKET_COUNT;
+
+    /**
+     * Stores the count of each bucket.
+     */
+    private final long[] counts = new long[BUCKET_COUNT];
+
+    /**
+     * Stores the total amount of recorded durations.
+     */
+    private long totalCount;
+
+    /**
+     * Stores the longest recorded duration.
+     */
+    private long max;
+
+    /**
+     * Records the given duration. Negative durations are recorded as zero.
+     *
+     * @param value The duration to record, usually in nanoseconds.
+     */
+    public void record(long value) {
+        value = Math.max(0, value);
+        counts[bucketOf(value)]++;
+        totalCount++;
+        if (value > max) {
+            max = value;
+        }
+    }
+
+    /**
+     * Adds every duration recorded by the given histogram to this one.
+     *
+     * @param other The histogram to add.
+     */
+    public void add(LatencyHistogram other) {
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] += other.counts[i];
+        }
+        totalCount += other.totalCount;
+        max = Math.max(max, other.max);
+    }
+
+    /**
+     * Returns the amount of recorded durations.
+     *
+     * @return The count of this histogram.
+     */
+    public long getCount() {
+        return totalCount;
+    }
+
+    /**
+     * Returns the longest recorded duration, exactly.
+     *
+     * @return The maximum of this histogram.
+     */
+    public long getMax() {
+        return max;
+    }
+
+    /**
+     * Returns the duration at or below which the given percentage of recorded
+     * durations fall, as the highest duration of the bucket it is counted in.
+     *
+     * @param percentile The percentile to compute, in {@code [0, 100]}.
+     * @return The duration at the percentile, or {@code 0} if nothing was
+     *         recorded.
+     */
+    public long getValueAtPercentile(double percentile) {
+        long total = totalCount;
+        if (total == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100 * total));
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return Math.min(max, highestValueOf(i));
+            }
+        }
+        return max;
+    }
+
+    /**
+     * Removes every recorded duration.
+     */
+    public void reset() {
+        Arrays.fill(counts, 0);
+        totalCount = 0;
+        max = 0;
+    }
+
+    /**
+     * Returns a summary of this histogram in milliseconds, assuming it
+     * records nanoseconds.
+     *
+     * @return The count, median, 99th percentile, and maximum.
+     */
+    @Override
+    public String toString() {
+        return String.format("n=%d p50=%.2f ms p99=%.2f ms max=%.2f ms",
+                             getCount(),
+                             getValueAtPercentile(50) / 1e6,
+                             getValueAtPercentile(99) / 1e6,
+                             getMax() / 1e6);
+    }
+
+    private static int bucketOf(long value) {
+        if (value < LINEAR_BUCKET_COUNT) {
+            return (int) value;
+        }
+        int shift = Long.SIZE - Long.numberOfLeadingZeros(value) - PRECISION_BITS;
+        int subBucket = (int) (value >>> shift);
+        return LINEAR_BUCKET_COUNT + (shift - 1) * HALF_BUCKET_COUNT
+                + (subBucket - HALF_BUCKET_COUNT);
+    }
+
+    private static long highestValueOf(int bucket) {
+        if (bucket < LINEAR_BUCKET_COUNT) {
+            return bucket;
+        }
+        int shift = (bucket - LINEAR_BUCKET_COUNT) / HALF_BUCKET_COUNT + 1;
+        long subBucket = (bucket - LINEAR_BUCKET_COUNT) % HALF_BUCKET_COUNT + HALF_BUCKET_COUNT;
+        return ((subBucket + 1) << shift) - 1;
+    }
+
+}
@@ -0,0 +1,264 @@
+package colorpicker;
+
+import java.awt.Color;
+import java.awt.Dimension;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.ExecutionException;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.imageio.ImageIO;
+import javax.swing.BorderFactory;
+import javax.swing.GroupLayout;
+import javax.swing.JButton;
+import javax.swing.JCheckBox;
+import javax.swing.JComboBox;
+import javax.swing.JFileChooser;
+import javax.swing.JLabel;
+import javax.swing.JPanel;
+import javax.swing.LayoutStyle;
+import javax.swing.SwingConstants;
+import javax.swing.SwingWorker;
+import javax.swing.event.ChangeEvent;
+import javax.swing.filechooser.FileNameExtensionFilter;
+
+/**
+ * The {@code LutPanel} class lets the user load a {@code .cube} lookup table
+ * and shows the color of a {@link ColorModel} before and after it, along with
+ * a reference image tinted by the color and graded by the table, which
+ * follows the model live.
+ *
+ * @author Oliver Abdulrahim
+ */
+public class LutPanel extends JPanel {
+
+    private static final long serialVersionUID = 7152098364L;
+
+    /**
+     * Stores the size of each swatch, in pixels.
+     */
+    private static final int SWATCH_SIZE = 64;
+
+    /**
+     * Stores the model viewed by this panel.
+     */
+    private final ColorModel model;
+
+    /**
+     * Stores the loaded table, or {@code null} if none is loaded.
+     */
+    private ColorLut lut;
+
+// GUI elements
+    private JButton lutButton;
+    private JButton imageButton;
+    private JComboBox<ColorLut.Interpolation> interpolationBox;
+    private JCheckBox tintBox;
+    private JLabel statusLabel;
+    private JLabel beforeLabel;
+    private JLabel afterLabel;
+    private LutPreview preview;
+    private JFileChooser lutChooser;
+    private JFileChooser imageChooser;
+
+    /**
+     * Creates a new {@code LutPanel} viewing the given model.
+     *
+     * @param model The model to view.
+     */
+    public LutPanel(ColorModel model) {
+        this.model = model;
+        initComponents();
+        model.addChangeListener(this :: modelStateChanged);
+        refresh();
+    }
+
+    private void initComponents() {
+        lutButton = new JButton();
+        imageButton = new JButton();
+        interpolationBox = new JComboBox<>(ColorLut.Interpolation.values());
+        tintBox = new JCheckBox();
+        statusLabel = new JLabel();
+        beforeLabel = new JLabel();
+        afterLabel = new JLabel();
+        preview = new LutPreview();
+
+        lutButton.setText("Load LUT...");
+        lutButton.addActionListener(evt -> lutButtonActionPerformed());
+
+        imageButton.setText("Load image...");
+        imageButton.addActionListener(evt -> imageButtonActionPerformed());
+
+        interpolationBox.setSelectedItem(ColorLut.Interpolation.TETRAHEDRAL);
+        interpolationBox.addActionListener(evt -> interpolationBoxActionPerformed());
+
+        tintBox.setText("Tint image");
+        tintBox.setSelected(true);
+        tintBox.addActionListener(evt -> refresh());
+
+        statusLabel.setText("No LUT loaded.");
+
+        for (JLabel swatch : new JLabel[] { beforeLabel, afterLabel }) {
+            swatch.setOpaque(true);
+            swatch.setHorizontalAlignment(SwingConstants.CENTER);
+            swatch.setBorder(BorderFactory.createLineBorder(Color.GRAY));
+            swatch.setPreferredSize(new Dimension(SWATCH_SIZE, SWATCH_SIZE / 2));
+        }
+        beforeLabel.setToolTipText("Before the LUT");
+        afterLabel.setToolTipText("After the LUT");
+
+        GroupLayout layout = new GroupLayout(this);
+        setLayout(layout);
+        layout.setHorizontalGroup(
+            layout.createParallelGroup(GroupLayout.Alignment.LEADING)
+            .addGroup(layout.createSequentialGroup()
+                .addContainerGap()
+                .addGroup(layout.createParallelGroup(GroupLayout.Alignment.LEADING)
+                    .addGroup(layout.createSequentialGroup()
+                        .addComponent(lutButton)
+                        .addPreferredGap(LayoutStyle.ComponentPlacement.RELATED)
+                        .addComponent(imageButton)
+                        .addPreferredGap(LayoutStyle.ComponentPlacement.RELATED)
+                        .addComponent(interpolationBox, GroupLayout.PREFERRED_SIZE, GroupLayout.DEFAULT_SIZE, GroupLayout.PREFERRED_SIZE)
+                        .addPreferredGap(LayoutStyle.ComponentPlacement.RELATED)
+                        .addComponent(tintBox))
+                    .addGroup(layout.createSequentialGroup()
+                        .addComponent(beforeLabel, GroupLayout.DEFAULT_SIZE, GroupLayout.DEFAULT_SIZE, Short.MAX_VALUE)
+                        .addPreferredGap(LayoutStyle.ComponentPlacement.RELATED)
+                        .addComponent(afterLabel, GroupLayout.DEFAULT_SIZE, GroupLayout.DEFAULT_SIZE, Short.MAX_VALUE))
+                    .addComponent(statusLabel)
+                    .addComponent(preview, GroupLayout.DEFAULT_SIZE, GroupLayout.DEFAULT_SIZE, Short.MAX_VALUE))
+                .addContainerGap())
+        );
+        layout.setVerticalGroup(
+            layout.createParallelGroup(GroupLayout.Alignment.LEADING)
+            .addGroup(layout.createSequentialGroup()
+                .addContainerGap()
+                .addGroup(layout.createParallelGroup(GroupLayout.Alignment.BASELINE)
+                    .addComponent(lutButton)
+                    .addComponent(imageButton)
+                    .addComponent(interpolationBox, GroupLayout.PREFERRED_SIZE, GroupLayout.DEFAULT_SIZE, GroupLayout.PREFERRED_SIZE)
+                    .addComponent(tintBox))
+                .addPreferredGap(LayoutStyle.ComponentPlacement.RELATED)
+                .addComponent(statusLabel)
+                .addPreferredGap(LayoutStyle.ComponentPlacement.RELATED)
+                .addGroup(layout.createParallelGroup(GroupLayout.Alignment.LEADING)
+                    .addComponent(beforeLabel, GroupLayout.PREFERRED_SIZE, GroupLayout.DEFAULT_SIZE, GroupLayout.PREFERRED_SIZE)
+                    .addComponent(afterLabel, GroupLayout.PREFERRED_SIZE, GroupLayout.DEFAULT_SIZE, GroupLayout.PREFERRED_SIZE))
+                .addPreferredGap(LayoutStyle.ComponentPlacement.RELATED)
+                .addComponent(preview, GroupLayout.DEFAULT_SIZE, GroupLayout.DEFAULT_SIZE, Short.MAX_VALUE)
+                .addContainerGap())
+        );
+    }
+
+    private void modelStateChanged(ChangeEvent evt) {
+        refresh();
+    }
+
+    /**
+     * Updates the swatches and the tint of the preview from the model.
+     */
+    private void refresh() {
+        int rgb = model.getRGB();
+        int graded = (lut == null)
+                ? rgb
+                : lut.apply(rgb, (ColorLut.Interpolation) interpolationBox.getSelectedItem());
+        showSwatch(beforeLabel, rgb);
+        showSwatch(afterLabel, graded);
+        preview.setTint(tintBox.isSelected() ? rgb : PackedColor.RGB_MASK);
+    }
+
+    private void interpolationBoxActionPerformed() {
+        preview.setInterpolation((ColorLut.Interpolation) interpolationBox.getSelectedItem());
+        refresh();
+    }
+
+    private static void showSwatch(JLabel swatch, int rgb) {
+        swatch.setBackground(new Color(rgb));
+        swatch.setForeground((WcagContrast.luminance(rgb) > 0.18f) ? Color.BLACK : Color.WHITE);
+        swatch.setText(PackedColor.toHexString(rgb));
+    }
+
+    /**
+     * Asks the user for a {@code .cube} file and reads it in the background.
+     */
+    private void lutButtonActionPerformed() {
+        if (lutChooser == null) {
+            lutChooser = new JFileChooser();
+            lutChooser.setFileFilter(new FileNameExtensionFilter("3D LUTs (.cube)", "cube"));
+        }
+        if (lutChooser.showOpenDialog(this) != JFileChooser.APPROVE_OPTION) {
+            return;
+        }
+        File file = lutChooser.getSelectedFile();
+        statusLabel.setText("Reading " + file.getName() + "...");
+        lutButton.setEnabled(false);
+        new SwingWorker<ColorLut, Void>() {
+
+            @Override
+            protected ColorLut doInBackground() throws IOException {
+                return ColorLut.read(file.toPath());
+            }
+
+            @Override
+            protected void done() {
+                lutButton.setEnabled(true);
+                try {
+                    lut = get();
+                    String title = lut.getTitle().isEmpty() ? file.getName() : lut.getTitle();
+                    statusLabel.setText(String.format("%s (%d³)", title, lut.getSize()));
+                    preview.setLut(lut);
+                    refresh();
+                } catch (InterruptedException | ExecutionException ex) {
+                    Logger.getLogger(LutPanel.class.getName())
+                            .log(Level.WARNING, "Could not read LUT", ex);
+                    statusLabel.setText("Could not read " + file.getName() + ".");
+                }
+            }
+
+        }.execute();
+    }
+
+    /**
+     * Asks the user for a reference image and scales it down in the
+     * background.
+     */
+    private void imageButtonActionPerformed() {
+        if (imageChooser == null) {
+            imageChooser = new JFileChooser();
+            imageChooser.setFileFilter(new FileNameExtensionFilter(
+                    "Images (PNG, JPEG)", "png", "jpg", "jpeg", "gif", "bmp"));
+        }
+        if (imageChooser.showOpenDialog(this) != JFileChooser.APPROVE_OPTION) {
+            return;
+        }
+        File file = imageChooser.getSelectedFile();
+        imageButton.setEnabled(false);
+        new SwingWorker<BufferedImage, Void>() {
+
+            @Override
+            protected BufferedImage doInBackground() throws IOException {
+                BufferedImage image = ImageIO.read(file);
+                if (image == null) {
+                    throw new IOException("Unsupported image format: " + file);
+                }
+                return LutPreview.scaleToFit(image, LutPreview.MAX_WIDTH, LutPreview.MAX_HEIGHT);
+            }
+
+            @Override
+            protected void done() {
+                imageButton.setEnabled(true);
+                try {
+                    preview.setImage(get());
+                } catch (InterruptedException | ExecutionException ex) {
+                    Logger.getLogger(LutPanel.class.getName())
+                            .log(Level.WARNING, "Could not read image", ex);
+                    statusLabel.setText("Could not read " + file.getName() + ".");
+                }
+            }
+
+        }.execute();
+    }
+
+}
@@ -0,0 +1,439 @@
+package colorpicker;
+
+import java.awt.Color;
+import java.awt.Dimension;
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.event.HierarchyEvent;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.swing.JComponent;
+import javax.swing.SwingUtilities;
+
+/**
+ * The {@code LutPreview} class contains a reference image multiplied by a tint
+ * color and graded by a {@link ColorLut}, redrawn whenever either changes.
+ *
+ * <p>The image is split into square tiles rendered across the common
+ * fork-join pool into a back buffer, which is swapped with the displayed one
+ * on the event dispatch thread once every tile is done. At most one frame is
+ * rendered at a time: a frame requested meanwhile replaces any older request,
+ * and the frame in flight skips its remaining tiles, so dragging a slider
+ * never queues up stale frames. Each tile also keeps its last few outputs,
+ * so returning to a recent color, or finishing a frame that was cut short,
+ * only renders the tiles that are missing.
+ *
+ * @author Oliver Abdulrahim
+ */
+public class LutPreview extends JComponent {
+
+    private static final long serialVersionUID = 6402913857L;
+
+    /**
+     * Stores the largest size of a reference image, in pixels. Larger images
+     * are scaled down when loaded.
+     */
+    public static final int MAX_WIDTH = 480;
+    public static final int MAX_HEIGHT = 320;
+
+    /**
+     * Stores the width and height of each tile, in pixels.
+     */
+    private static final int TILE_SIZE = 64;
+
+    /**
+     * Stores the amount of outputs kept by each tile.
+     */
+    private static final int CACHE_WAYS = 4;
+
+    /**
+     * Stores the table the image is graded by, or {@code null} to show the
+     * tinted image as is.
+     */
+    private ColorLut lut;
+
+    /**
+     * Stores the way the table is interpolated.
+     */
+    private ColorLut.Interpolation interpolation = ColorLut.Interpolation.TETRAHEDRAL;
+
+    /**
+     * Stores the packed color the image is multiplied by.
+     */
+    private int tint = PackedColor.RGB_MASK;
+
+    /**
+     * Stores a count of the changes to the table and image, which is part of
+     * the key of every frame so that no stale tile is reused.
+     */
+    private int version;
+
+    /**
+     * Stores the pixels of the reference image, or {@code null} if none is
+     * loaded.
+     */
+    private int[] source;
+    private int sourceWidth;
+    private int sourceHeight;
+
+    /**
+     * Stores the tiles of the reference image.
+     */
+    private Tile[] tiles;
+
+    /**
+     * Stores the frame being displayed and the frame being rendered.
+     */
+    private BufferedImage front;
+    private BufferedImage back;
+
+    /**
+     * Stores the key of the latest requested frame, which frames in flight
+     * check to find out that they are stale.
+     */
+    private final AtomicLong requestedKey = new AtomicLong(-1);
+
+    /**
+     * Stores the key of the displayed frame.
+     */
+    private long renderedKey = -1;
+
+    /**
+     * Stores whether or not a frame is being rendered.
+     */
+    private boolean rendering;
+
+    /**
+     * Creates a new {@code LutPreview} with no image.
+     */
+    public LutPreview() {
+        setPreferredSize(new Dimension(240, 160));
+        addHierarchyListener(this :: hierarchyChanged);
+    }
+
+    /**
+     * Sets the reference image, which should be no larger than
+     * {@link #MAX_WIDTH} by {@link #MAX_HEIGHT}.
+     *
+     * @param image The new reference image, or {@code null} to clear it.
+     * @see #scaleToFit(BufferedImage, int, int)
+     */
+    public void setImage(BufferedImage image) {
+        version++;
+        front = null;
+        back = null;
+        if (image == null) {
+            source = null;
+            tiles = null;
+            repaint();
+            return;
+        }
+        sourceWidth = image.getWidth();
+        sourceHeight = image.getHeight();
+        source = image.getRGB(0, 0, sourceWidth, sourceHeight, null, 0, sourceWidth);
+        int columns = (sourceWidth + TILE_SIZE - 1) / TILE_SIZE;
+        int rows = (sourceHeight + TILE_SIZE - 1) / TILE_SIZE;
+        tiles = new Tile[columns * rows];
+        for (int row = 0; row < rows; row++) {
+            for (int column = 0; column < columns; column++) {
+                int x = column * TILE_SIZE;
+                int y = row * TILE_SIZE;
+                tiles[row * columns + column] = new Tile(
+                        x, y, Math.min(TILE_SIZE, sourceWidth - x),
+                        Math.min(TILE_SIZE, sourceHeight - y));
+            }
+        }
+        requestFrame();
+    }
+
+    /**
+     * Sets the table the image is graded by.
+     *
+     * @param lut The new table, or {@code null} to show the tinted image as
+     *        is.
+     */
+    public void setLut(ColorLut lut) {
+        this.lut = lut;
+        version++;
+        requestFrame();
+    }
+
+    /**
+     * Sets the way the table is interpolated.
+     *
+     * @param interpolation The new interpolation.
+     */
+    public void setInterpolation(ColorLut.Interpolation interpolation) {
+        this.interpolation = interpolation;
+        requestFrame();
+    }
+
+    /**
+     * Sets the color the image is multiplied by before grading.
+     *
+     * @param rgb The packed tint, or white for none.
+     */
+    public void setTint(int rgb) {
+        tint = rgb & PackedColor.RGB_MASK;
+        requestFrame();
+    }
+
+    /**
+     * Returns a copy of the given image scaled down, keeping its aspect
+     * ratio, to fit the given bounds.
+     *
+     * @param image The image to scale.
+     * @param width The maximum width.
+     * @param height The maximum height.
+     * @return The scaled image, of type {@code TYPE_INT_RGB}.
+     */
+    public static BufferedImage scaleToFit(BufferedImage image, int width, int height) {
+        double scale = Math.min(1, Math.min((double) width / image.getWidth(),
+                                            (double) height / image.getHeight()));
+        int scaledWidth = Math.max(1, (int) Math.round(image.getWidth() * scale));
+        int scaledHeight = Math.max(1, (int) Math.round(image.getHeight() * scale));
+        BufferedImage scaled = new BufferedImage(scaledWidth, scaledHeight,
+                                                 BufferedImage.TYPE_INT_RGB);
+        Graphics2D g2 = scaled.createGraphics();
+        try {
+            g2.setRenderingHint(RenderingHints.KEY_INTERPOLATION,
+                                RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g2.drawImage(image, 0, 0, scaledWidth, scaledHeight, null);
+        } finally {
+            g2.dispose();
+        }
+        return scaled;
+    }
+
+    /**
+     * Renders the latest request once this preview becomes visible.
+     */
+    private void hierarchyChanged(HierarchyEvent evt) {
+        if ((evt.getChangeFlags() & HierarchyEvent.SHOWING_CHANGED) != 0 && isShowing()) {
+            renderFrame();
+        }
+    }
+
+    private void requestFrame() {
+        requestedKey.set(((long) version << 25)
+                | ((long) interpolation.ordinal() << 24) | tint);
+        renderFrame();
+    }
+
+    /**
+     * Starts rendering the latest requested frame, unless it is displayed
+     * already, a frame is in flight, or this preview is not showing.
+     */
+    private void renderFrame() {
+        long key = requestedKey.get();
+        if (rendering || source == null || key == renderedKey || !isShowing()) {
+            return;
+        }
+        if (back == null) {
+            back = new BufferedImage(sourceWidth, sourceHeight, BufferedImage.TYPE_INT_RGB);
+        }
+        rendering = true;
+        Frame frame = new Frame(key, requestedKey, lut, interpolation, tint,
+                                source, sourceWidth, tiles,
+                                ((DataBufferInt) back.getRaster().getDataBuffer()).getData());
+        ForkJoinPool.commonPool().execute(() -> {
+            new TileTask(frame, 0, frame.tiles.length).invoke();
+            SwingUtilities.invokeLater(() -> frameFinished(frame));
+        });
+    }
+
+    /**
+     * Displays the given frame unless it was cut short, and renders the next
+     * request if there is one.
+     */
+    private void frameFinished(Frame frame) {
+        rendering = false;
+        if (!frame.stale && frame.tiles == tiles) {
+            BufferedImage rendered = back;
+            back = front;
+            front = rendered;
+            renderedKey = frame.key;
+            repaint();
+        }
+        renderFrame();
+    }
+
+    @Override
+    protected void paintComponent(Graphics g) {
+        Graphics2D g2 = (Graphics2D) g.create();
+        try {
+            if (front == null) {
+                g2.setColor(Color.GRAY);
+                g2.drawString((source == null) ? "No image loaded." : "Rendering...",
+                              8, g2.getFontMetrics().getAscent() + 8);
+                return;
+            }
+            double scale = Math.min((double) getWidth() / front.getWidth(),
+                                    (double) getHeight() / front.getHeight());
+            int width = (int) Math.round(front.getWidth() * scale);
+            int height = (int) Math.round(front.getHeight() * scale);
+            g2.setRenderingHint(RenderingHints.KEY_INTERPOLATION,
+                                RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g2.drawImage(front, (getWidth() - width) / 2, (getHeight() - height) / 2,
+                         width, height, null);
+        } finally {
+            g2.dispose();
+        }
+    }
+
+    /**
+     * The {@code Tile} class contains the bounds of a tile and its last few
+     * outputs. A tile is only ever rendered by one task at a time.
+     */
+    private static final class Tile {
+
+        private final int x;
+        private final int y;
+        private final int width;
+        private final int height;
+        private final long[] keys = new long[CACHE_WAYS];
+        private final int[][] outputs = new int[CACHE_WAYS][];
+        private int next;
+
+        Tile(int x, int y, int width, int height) {
+            this.x = x;
+            this.y = y;
+            this.width = width;
+            this.height = height;
+            Arrays.fill(keys, -1);
+        }
+
+    }
+
+    /**
+     * The {@code Frame} class contains everything needed to render one frame,
+     * captured on the event dispatch thread.
+     */
+    private static final class Frame {
+
+        private final long key;
+        private final AtomicLong requestedKey;
+        private final ColorLut lut;
+        private final ColorLut.Interpolation interpolation;
+        private final int[] redTint = new int[256];
+        private final int[] greenTint = new int[256];
+        private final int[] blueTint = new int[256];
+        private final int[] source;
+        private final int sourceWidth;
+        private final Tile[] tiles;
+        private final int[] dest;
+        private volatile boolean stale;
+
+        Frame(long key, AtomicLong requestedKey, ColorLut lut,
+              ColorLut.Interpolation interpolation, int tint, int[] source,
+              int sourceWidth, Tile[] tiles, int[] dest) {
+            this.key = key;
+            this.requestedKey = requestedKey;
+            this.lut = lut;
+            this.interpolation = interpolation;
+            this.source = source;
+            this.sourceWidth = sourceWidth;
+            this.tiles = tiles;
+            this.dest = dest;
+            int red = PackedColor.red(tint);
+            int green = PackedColor.green(tint);
+            int blue = PackedColor.blue(tint);
+            for (int level = 0; level < 256; level++) {
+                redTint[level] = ((level * red + 127) / 255) << 16;
+                greenTint[level] = ((level * green + 127) / 255) << 8;
+                blueTint[level] = (level * blue + 127) / 255;
+            }
+        }
+
+    }
+
+    /**
+     * The {@code TileTask} class contains the rendering of a range of tiles
+     * of a frame.
+     */
+    private static final class TileTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final Frame frame;
+        private final int from;
+        private final int to;
+
+        TileTask(Frame frame, int from, int to) {
+            this.frame = frame;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > 1) {
+                int middle = (from + to) >>> 1;
+                invokeAll(new TileTask(frame, from, middle),
+                          new TileTask(frame, middle, to));
+                return;
+            }
+            if (frame.requestedKey.get() != frame.key) {
+                frame.stale = true;
+                return;
+            }
+            Tile tile = frame.tiles[from];
+            int[] output = cachedOutput(tile, frame.key);
+            if (output == null) {
+                output = render(tile);
+            }
+            for (int row = 0; row < tile.height; row++) {
+                System.arraycopy(output, row * tile.width, frame.dest,
+                                 (tile.y + row) * frame.sourceWidth + tile.x, tile.width);
+            }
+        }
+
+        private static int[] cachedOutput(Tile tile, long key) {
+            for (int way = 0; way < CACHE_WAYS; way++) {
+                if (tile.keys[way] == key) {
+                    return tile.outputs[way];
+                }
+            }
+            return null;
+        }
+
+        /**
+         * Renders the given tile into its least recently rendered output.
+         */
+        private int[] render(Tile tile) {
+            int way = tile.next;
+            tile.next = (way + 1) % CACHE_WAYS;
+            int[] output = tile.outputs[way];
+            if (output == null) {
+                output = new int[tile.width * tile.height];
+                tile.outputs[way] = output;
+            }
+            int[] source = frame.source;
+            int[] redTint = frame.redTint;
+            int[] greenTint = frame.greenTint;
+            int[] blueTint = frame.blueTint;
+            for (int row = 0; row < tile.height; row++) {
+                int in = (tile.y + row) * frame.sourceWidth + tile.x;
+                int out = row * tile.width;
+                for (int x = 0; x < tile.width; x++) {
+                    int rgb = source[in + x];
+                    output[out + x] = redTint[(rgb >> 16) & 0xFF]
+                            | greenTint[(rgb >> 8) & 0xFF]
+                            | blueTint[rgb & 0xFF];
+                }
+            }
+            if (frame.lut != null) {
+                frame.lut.apply(output, 0, output, 0, output.length, frame.interpolation);
+            }
+            tile.keys[way] = frame.key;
+            return output;
+        }
+
+    }
+
+}
@@ -0,0 +1,521 @@
+package colorpicker;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * The {@code NamedColorIndex} class contains a dictionary of named colors and
+ * a k-d tree over their CIELAB coordinates, which finds the perceptually
+ * nearest entry to any color without scanning the whole dictionary.
+ *
+ * <p>The tree is searched by branch and bound on
+ * {@link ColorConversions#deltaE2000 CIEDE2000} itself. Each subtree keeps the
+ * bounding box and the greatest chroma of its entries, and every entry or
+ * subtree is skipped once a lower bound of its difference exceeds the best
+ * difference found. The result is always the entry a scan of the whole
+ * dictionary would find, while only a few entries have their exact
+ * difference computed. The tree is implicit: it lives in primitive arrays
+ * sorted so that each node is the median of its range, so an index of
+ * hundreds of thousands of entries is a handful of arrays rather than a graph
+ * of objects.
+ *
+ * <p>Instances are immutable and safe to share between threads.
+ *
+ * @author Oliver Abdulrahim
+ */
+public final class NamedColorIndex {
+
+    /**
+     * Stores the relative margin by which the lower bound of an entry or
+     * subtree must exceed the best difference for it to be skipped, which
+     * absorbs rounding differences between the bound and the exact
+     * difference.
+     */
+    private static final double PRUNE_MARGIN = 1e-9;
+
+    /**
+     * Stores the name of the system property listing extra dictionaries to
+     * load into the default index, separated by the path separator.
+     */
+    public static final String PALETTES_PROPERTY = "colorpicker.palettes";
+
+    /**
+     * Stores the bundled dictionary of CSS named colors.
+     */
+    private static final String CSS_COLORS = "css-colors.txt";
+
+    /**
+     * Stores the default index, which is loaded in the background the first
+     * time it is requested.
+     */
+    private static volatile CompletableFuture<NamedColorIndex> defaultIndex;
+
+    /**
+     * Stores the names of the entries, in tree order.
+     */
+    private final String[] names;
+
+    /**
+     * Stores the packed colors of the entries, in tree order.
+     */
+    private final int[] colors;
+
+    /**
+     * Stores the interleaved CIELAB coordinates of the entries, in tree order.
+     */
+    private final float[] lab;
+
+    /**
+     * Stores the axis each node splits on, in tree order.
+     */
+    private final byte[] axes;
+
+    /**
+     * Stores the greatest CIELAB chroma of the subtree rooted at each node,
+     * in tree order.
+     */
+    private final float[] chromas;
+
+    /**
+     * Stores the least and then the greatest CIELAB coordinates of the
+     * subtree rooted at each node, in tree order.
+     */
+    private final float[] boxes;
+
+    /**
+     * Stores per-thread search buffers, so that queries do not allocate.
+     */
+    private final ThreadLocal<Search> searches = ThreadLocal.withInitial(Search::new);
+
+    /**
+     * Creates a new {@code NamedColorIndex} over the given entries.
+     *
+     * @param names The names of the entries, or {@code null} if the entries
+     *        are unnamed.
+     * @param colors The packed colors of the entries.
+     * @throws IllegalArgumentException if there are no entries, or if the
+     *         amount of names and colors differ.
+     */
+    public NamedColorIndex(String[] names, int[] colors) {
+        if (colors.length == 0) {
+            throw new IllegalArgumentException("Index must not be empty");
+        }
+        if (names != null && names.length != colors.length) {
+            throw new IllegalArgumentException("Expected " + colors.length
+                    + " names, got " + names.length);
+        }
+        int size = colors.length;
+        float[] unsorted = new float[size * ColorSpace.COMPONENTS];
+        ColorSpace.LAB.fromRGB(colors, 0, unsorted, 0, size);
+        int[] order = new int[size];
+        for (int i = 0; i < size; i++) {
+            order[i] = i;
+        }
+        this.axes = new byte[size];
+        build(order, unsorted, 0, size);
+
+        this.names = new String[size];
+        this.colors = new int[size];
+        this.lab = new float[unsorted.length];
+        for (int i = 0; i < size; i++) {
+            int source = order[i];
+            this.names[i] = (names == null) ? null : names[source];
+            this.colors[i] = colors[source];
+            System.arraycopy(unsorted, source * ColorSpace.COMPONENTS,
+                             lab, i * ColorSpace.COMPONENTS, ColorSpace.COMPONENTS);
+        }
+        this.chromas = new float[size];
+        this.boxes = new float[2 * ColorSpace.COMPONENTS * size];
+        fillBounds(0, size);
+    }
+
+    /**
+     * Returns the amount of entries in this index.
+     *
+     * @return The size of this index.
+     */
+    public int size() {
+        return colors.length;
+    }
+
+    /**
+     * Returns the name of the given entry.
+     *
+     * @param entry The index of the entry.
+     * @return The name of the entry, or {@code null} if it is unnamed.
+     */
+    public String getName(int entry) {
+        return names[entry];
+    }
+
+    /**
+     * Returns the packed color of the given entry.
+     *
+     * @param entry The index of the entry.
+     * @return The packed color of the entry.
+     */
+    public int getRGB(int entry) {
+        return colors[entry];
+    }
+
+    /**
+     * Returns the CIEDE2000 difference between the given entry and color.
+     *
+     * @param entry The index of the entry.
+     * @param rgb The packed color to compare against.
+     * @return The perceptual difference between the entry and color.
+     */
+    public double deltaE(int entry, int rgb) {
+        Search search = searches.get();
+        ColorConversions.rgbToLab(rgb, search.target, 0);
+        return deltaE(entry, search.target);
+    }
+
+    /**
+     * Returns the entry perceptually nearest to the given color. If several
+     * entries are equally near, the first of them in tree order is returned.
+     *
+     * @param rgb The packed color to look up.
+     * @return The index of the nearest entry.
+     */
+    public int nearest(int rgb) {
+        Search search = searches.get();
+        float[] target = search.target;
+        ColorConversions.rgbToLab(rgb, target, 0);
+        search.reset();
+        search(search, 0, size());
+        return search.best;
+    }
+
+    private double deltaE(int entry, float[] target) {
+        int j = entry * ColorSpace.COMPONENTS;
+        return ColorConversions.deltaE2000(lab[j], lab[j + 1], lab[j + 2],
+                                           target[0], target[1], target[2]);
+    }
+
+    /**
+     * Searches the subtree rooted at the median of the given range. The side
+     * of the splitting plane holding the color is searched first, so that
+     * the other side can usually be skipped.
+     */
+    private void search(Search search, int from, int to) {
+        if (from >= to) {
+            return;
+        }
+        int node = (from + to) >>> 1;
+        float[] target = search.target;
+        int box = node * 2 * ColorSpace.COMPONENTS;
+        double g0 = gap(target[0], boxes[box], boxes[box + 3]);
+        double g1 = gap(target[1], boxes[box + 1], boxes[box + 4]);
+        double g2 = gap(target[2], boxes[box + 2], boxes[box + 5]);
+        double chroma = (search.chroma + chromas[node]) / 2;
+        if (search.skips(ColorConversions.deltaE2000LowerBound(g0,
+                Math.sqrt(g1 * g1 + g2 * g2), chroma))) {
+            return;
+        }
+
+        int j = node * ColorSpace.COMPONENTS;
+        int axis = axes[node];
+        boolean left = target[axis] < lab[j + axis];
+        if (left) {
+            search(search, from, node);
+        } else {
+            search(search, node + 1, to);
+        }
+        // The node is checked after the near side, which has set a tighter best
+        double d0 = (double) target[0] - lab[j];
+        double d1 = (double) target[1] - lab[j + 1];
+        double d2 = (double) target[2] - lab[j + 2];
+        if (!search.skips(ColorConversions.deltaE2000LowerBound(Math.abs(d0),
+                Math.sqrt(d1 * d1 + d2 * d2), chroma))) {
+            double bound = ColorConversions.deltaE2000LowerBound(lab[j], lab[j + 1], lab[j + 2],
+                    target[0], target[1], target[2]);
+            if (!search.skips(bound)) {
+                search.offer(node, deltaE(node, target));
+            }
+        }
+        if (left) {
+            search(search, node + 1, to);
+        } else {
+            search(search, from, node);
+        }
+    }
+
+    /**
+     * Returns the distance from the given coordinate to the given interval.
+     */
+    private static double gap(double value, double min, double max) {
+        return Math.max(0, Math.max(min - value, value - max));
+    }
+
+    /**
+     * Stores the bounding box and the greatest chroma of the subtree rooted
+     * at the median of the given range, and of every subtree below it.
+     */
+    private void fillBounds(int from, int to) {
+        int node = (from + to) >>> 1;
+        int j = node * ColorSpace.COMPONENTS;
+        int box = node * 2 * ColorSpace.COMPONENTS;
+        System.arraycopy(lab, j, boxes, box, ColorSpace.COMPONENTS);
+        System.arraycopy(lab, j, boxes, box + ColorSpace.COMPONENTS, ColorSpace.COMPONENTS);
+        // Rounded up so that it never falls below the chroma of the entry
+        double a = lab[j + 1];
+        double b = lab[j + 2];
+        chromas[node] = Math.nextUp((float) Math.sqrt(a * a + b * b));
+        if (from < node) {
+            fillBounds(from, node);
+            include(node, (from + node) >>> 1);
+        }
+        if (node + 1 < to) {
+            fillBounds(node + 1, to);
+            include(node, (node + 1 + to) >>> 1);
+        }
+    }
+
+    /**
+     * Grows the bounds of the given node to include those of the given child.
+     */
+    private void include(int node, int child) {
+        int box = node * 2 * ColorSpace.COMPONENTS;
+        int childBox = child * 2 * ColorSpace.COMPONENTS;
+        for (int axis = 0; axis < ColorSpace.COMPONENTS; axis++) {
+            boxes[box + axis] = Math.min(boxes[box + axis], boxes[childBox + axis]);
+            int max = axis + ColorSpace.COMPONENTS;
+            boxes[box + max] = Math.max(boxes[box + max], boxes[childBox + max]);
+        }
+        chromas[node] = Math.max(chromas[node], chromas[child]);
+    }
+
+    /**
+     * Arranges the given range of entries so that its median, by the axis of
+     * largest spread, is in the middle, then recurses on both halves.
+     */
+    private void build(int[] order, float[] unsorted, int from, int to) {
+        if (to - from <= 1) {
+            return;
+        }
+        int axis = widestAxis(order, unsorted, from, to);
+        int median = (from + to) >>> 1;
+        select(order, unsorted, axis, from, to - 1, median);
+        axes[median] = (byte) axis;
+        build(order, unsorted, from, median);
+        build(order, unsorted, median + 1, to);
+    }
+
+    private static int widestAxis(int[] order, float[] unsorted, int from, int to) {
+        float[] min = {Float.MAX_VALUE, Float.MAX_VALUE, Float.MAX_VALUE};
+        float[] max = {-Float.MAX_VALUE, -Float.MAX_VALUE, -Float.MAX_VALUE};
+        for (int i = from; i < to; i++) {
+            int j = order[i] * ColorSpace.COMPONENTS;
+            for (int axis = 0; axis < ColorSpace.COMPONENTS; axis++) {
+                min[axis] = Math.min(min[axis], unsorted[j + axis]);
+                max[axis] = Math.max(max[axis], unsorted[j + axis]);
+            }
+        }
+        int widest = 0;
+        for (int axis = 1; axis < ColorSpace.COMPONENTS; axis++) {
+            if (max[axis] - min[axis] > max[widest] - min[widest]) {
+                widest = axis;
+            }
+        }
+        return widest;
+    }
+
+    /**
+     * Partially sorts the given inclusive range so that the entry at index
+     * {@code k} is the one that would be there if the range were sorted by
+     * the given axis.
+     */
+    private static void select(int[] order, float[] unsorted, int axis,
+                               int lo, int hi, int k) {
+        while (hi > lo) {
+            float pivot = unsorted[order[(lo + hi) >>> 1] * ColorSpace.COMPONENTS + axis];
+            int i = lo;
+            int j = hi;
+            while (i <= j) {
+                while (unsorted[order[i] * ColorSpace.COMPONENTS + axis] < pivot) {
+                    i++;
+                }
+                while (unsorted[order[j] * ColorSpace.COMPONENTS + axis] > pivot) {
+                    j--;
+                }
+                if (i <= j) {
+                    int swap = order[i];
+                    order[i] = order[j];
+                    order[j] = swap;
+                    i++;
+                    j--;
+                }
+            }
+            if (k <= j) {
+                hi = j;
+            } else if (k >= i) {
+                lo = i;
+            } else {
+                return;
+            }
+        }
+    }
+
+    /**
+     * The {@code Search} class contains the color looked up by a query and the
+     * nearest entry found so far.
+     */
+    private static final class Search {
+
+        final float[] target = new float[ColorSpace.COMPONENTS];
+        double chroma;
+        int best;
+        double bestDistance;
+
+        void reset() {
+            double a = target[1];
+            double b = target[2];
+            chroma = Math.sqrt(a * a + b * b);
+            best = -1;
+            bestDistance = Double.MAX_VALUE;
+        }
+
+        boolean skips(double bound) {
+            return bound > bestDistance + PRUNE_MARGIN * (1 + bestDistance);
+        }
+
+        void offer(int entry, double distance) {
+            if (distance < bestDistance || (distance == bestDistance && entry < best)) {
+                best = entry;
+                bestDistance = distance;
+            }
+        }
+
+    }
+
+    /**
+     * Reads a dictionary of named colors. Each line holds a name and a hex
+     * color separated by a comma or a tab, such as {@code coral,#FF7F50}.
+     * Blank lines, lines starting with {@code '#'}, and malformed lines are
+     * skipped.
+     *
+     * @param in The dictionary to read.
+     * @param index The builder to add to, or {@code null} to start a new one.
+     * @return The builder containing the read entries.
+     * @throws IOException if an I/O error occurs.
+     */
+    public static Builder read(Reader in, Builder index) throws IOException {
+        Builder builder = (index == null) ? new Builder() : index;
+        BufferedReader reader = new BufferedReader(in);
+        for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+            line = line.trim();
+            if (line.isEmpty() || line.charAt(0) == '#') {
+                continue;
+            }
+            int split = Math.max(line.lastIndexOf(','), line.lastIndexOf('\t'));
+            if (split <= 0) {
+                continue;
+            }
+            int rgb = PackedColor.decodeHex(line, split + 1, line.length());
+            if (rgb >= 0) {
+                builder.add(line.substring(0, split).trim(), rgb);
+            }
+        }
+        return builder;
+    }
+
+    /**
+     * Returns the default index, made of the bundled CSS named colors and of
+     * the dictionaries listed by the {@link #PALETTES_PROPERTY} system
+     * property. The index is loaded once, in the background, and shared.
+     *
+     * @return A future completed with the default index.
+     */
+    public static CompletableFuture<NamedColorIndex> getDefault() {
+        CompletableFuture<NamedColorIndex> index = defaultIndex;
+        if (index == null) {
+            synchronized (NamedColorIndex.class) {
+                index = defaultIndex;
+                if (index == null) {
+                    index = CompletableFuture.supplyAsync(NamedColorIndex::loadDefault);
+                    defaultIndex = index;
+                }
+            }
+        }
+        return index;
+    }
+
+    private static NamedColorIndex loadDefault() {
+        try {
+            Builder builder;
+            try (InputStream css = NamedColorIndex.class.getResourceAsStream(CSS_COLORS)) {
+                builder = read(new InputStreamReader(css, StandardCharsets.UTF_8), null);
+            }
+            String palettes = System.getProperty(PALETTES_PROPERTY, "");
+            for (String palette : palettes.split(File.pathSeparator)) {
+                if (palette.isEmpty()) {
+                    continue;
+                }
+                Path path = Paths.get(palette);
+                try (Reader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+                    read(reader, builder);
+                } catch (IOException ex) {
+                    Logger.getLogger(NamedColorIndex.class.getName())
+                            .log(Level.WARNING, "Could not read palette " + path, ex);
+                }
+            }
+            return builder.build();
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    /**
+     * The {@code Builder} class collects entries before an index is built.
+     */
+    public static final class Builder {
+
+        private String[] names = new String[256];
+        private int[] colors = new int[256];
+        private int size;
+
+        /**
+         * Adds the given entry.
+         *
+         * @param name The name of the entry.
+         * @param rgb The packed color of the entry.
+         * @return This builder.
+         */
+        public Builder add(String name, int rgb) {
+            if (size == colors.length) {
+                names = Arrays.copyOf(names, size * 2);
+                colors = Arrays.copyOf(colors, size * 2);
+            }
+            names[size] = name;
+            colors[size] = rgb & PackedColor.RGB_MASK;
+            size++;
+            return this;
+        }
+
+        /**
+         * Builds an index of the added entries.
+         *
+         * @return The new index.
+         */
+        public NamedColorIndex build() {
+            return new NamedColorIndex(Arrays.copyOf(names, size),
+                                       Arrays.copyOf(colors, size));
+        }
+
+    }
+
+}
@@ -0,0 +1,273 @@
+package colorpicker;
+
+/**
+ * The {@code PackedColor} class contains utilities for working with colors
+ * stored as a single packed {@code 0xRRGGBB} integer. None of the methods in
+ * this class allocate unless they explicitly return a new {@code String}, so
+ * they are safe to call on every slider tick.
+ *
+ * @author Oliver Abdulrahim
+ */
+public final class PackedColor {
+
+    /**
+     * Stores the mask of the meaningful bits of a packed color.
+     */
+    public static final int RGB_MASK = 0xFFFFFF;
+
+    /**
+     * Stores the amount of characters produced by the hex encoders, including
+     * the leading {@code '#'}.
+     */
+    public static final int HEX_LENGTH = 7;
+
+    /**
+     * Stores the upper case hex digits used by the encoders.
+     */
+    private static final char[] HEX_DIGITS = "0123456789ABCDEF".toCharArray();
+
+    /**
+     * Suppresses default constructor, ensuring non-instantiability.
+     */
+    private PackedColor() {
+
+    }
+
+    /**
+     * Packs the given components into a single {@code 0xRRGGBB} value. Each
+     * component is clamped to the range {@link ColorPicker#MIN_COLOR_VALUE} to
+     * {@link ColorPicker#MAX_COLOR_VALUE}.
+     *
+     * @param red The red component.
+     * @param green The green component.
+     * @param blue The blue component.
+     * @return The packed color.
+     */
+    public static int pack(int red, int green, int blue) {
+        return (clamp(red) << 16) | (clamp(green) << 8) | clamp(blue);
+    }
+
+    /**
+     * Returns the red component of the given packed color.
+     *
+     * @param rgb The packed color to process.
+     * @return The red component of the given color.
+     */
+    public static int red(int rgb) {
+        return (rgb >> 16) & 0xFF;
+    }
+
+    /**
+     * Returns the green component of the given packed color.
+     *
+     * @param rgb The packed color to process.
+     * @return The green component of the given color.
+     */
+    public static int green(int rgb) {
+        return (rgb >> 8) & 0xFF;
+    }
+
+    /**
+     * Returns the blue component of the given packed color.
+     *
+     * @param rgb The packed color to process.
+     * @return The blue component of the given color.
+     */
+    public static int blue(int rgb) {
+        return rgb & 0xFF;
+    }
+
+    /**
+     * Returns a copy of the given packed color with its red component replaced.
+     *
+     * @param rgb The packed color to process.
+     * @param red The new red component.
+     * @return The modified packed color.
+     */
+    public static int withRed(int rgb, int red) {
+        return (rgb & 0x00FFFF) | (clamp(red) << 16);
+    }
+
+    /**
+     * Returns a copy of the given packed color with its green component
+     * replaced.
+     *
+     * @param rgb The packed color to process.
+     * @param green The new green component.
+     * @return The modified packed color.
+     */
+    public static int withGreen(int rgb, int green) {
+        return (rgb & 0xFF00FF) | (clamp(green) << 8);
+    }
+
+    /**
+     * Returns a copy of the given packed color with its blue component
+     * replaced.
+     *
+     * @param rgb The packed color to process.
+     * @param blue The new blue component.
+     * @return The modified packed color.
+     */
+    public static int withBlue(int rgb, int blue) {
+        return (rgb & 0xFFFF00) | clamp(blue);
+    }
+
+    /**
+     * Clamps the given value to the range of a single color component.
+     *
+     * @param value The value to clamp.
+     * @return The clamped value.
+     */
+    public static int clamp(int value) {
+        return Math.max(ColorPicker.MIN_COLOR_VALUE,
+                        Math.min(ColorPicker.MAX_COLOR_VALUE, value));
+    }
+
+    /**
+     * Writes the zero-padded {@code #RRGGBB} representation of the given color
+     * into the given array.
+     *
+     * @param rgb The packed color to encode.
+     * @param dest The array to write into.
+     * @param offset The index of {@code dest} to start writing at.
+     * @return The index following the last character written.
+     */
+    public static int encodeHex(int rgb, char[] dest, int offset) {
+        dest[offset] = '#';
+        for (int i = HEX_LENGTH - 1; i > 0; i--) {
+            dest[offset + i] = HEX_DIGITS[rgb & 0xF];
+            rgb >>>= 4;
+        }
+        return offset + HEX_LENGTH;
+    }
+
+    /**
+     * Writes the zero-padded {@code #RRGGBB} representation of the given color
+     * into the given array as ASCII bytes.
+     *
+     * @param rgb The packed color to encode.
+     * @param dest The array to write into.
+     * @param offset The index of {@code dest} to start writing at.
+     * @return The index following the last byte written.
+     */
+    public static int encodeHex(int rgb, byte[] dest, int offset) {
+        dest[offset] = '#';
+        for (int i = HEX_LENGTH - 1; i > 0; i--) {
+            dest[offset + i] = (byte) HEX_DIGITS[rgb & 0xF];
+            rgb >>>= 4;
+        }
+        return offset + HEX_LENGTH;
+    }
+
+    /**
+     * Appends the zero-padded {@code #RRGGBB} representation of the given color
+     * to the given builder.
+     *
+     * @param rgb The packed color to encode.
+     * @param dest The builder to append to.
+     * @return The given builder.
+     */
+    public static StringBuilder appendHex(int rgb, StringBuilder dest) {
+        dest.append('#');
+        for (int shift = 20; shift >= 0; shift -= 4) {
+            dest.append(HEX_DIGITS[(rgb >> shift) & 0xF]);
+        }
+        return dest;
+    }
+
+    /**
+     * Returns a new zero-padded {@code #RRGGBB} representation of the given
+     * color. Prefer {@link #encodeHex(int, char[], int)} in hot paths.
+     *
+     * @param rgb The packed color to encode.
+     * @return A padded {@code String} hex representation of the given color.
+     */
+    public static String toHexString(int rgb) {
+        char[] hex = new char[HEX_LENGTH];
+        encodeHex(rgb, hex, 0);
+        return new String(hex);
+    }
+
+    /**
+     * Decodes a hex color from the given characters. The leading {@code '#'}
+     * is optional, and both the six digit {@code RRGGBB} and three digit
+     * {@code RGB} forms are accepted.
+     *
+     * @param src The characters to decode.
+     * @param start The index of the first character to decode.
+     * @param end The index following the last character to decode.
+     * @return The decoded packed color, or {@code -1} if the given characters
+     *         are not a valid hex color.
+     */
+    public static int decodeHex(CharSequence src, int start, int end) {
+        if (start < end && src.charAt(start) == '#') {
+            start++;
+        }
+        int length = end - start;
+        if (length != 6 && length != 3) {
+            return -1;
+        }
+        int rgb = 0;
+        for (int i = start; i < end; i++) {
+            int digit = Character.digit(src.charAt(i), 16);
+            if (digit < 0) {
+                return -1;
+            }
+            rgb = (length == 3)
+                    ? (rgb << 8) | (digit << 4) | digit
+                    : (rgb << 4) | digit;
+        }
+        return rgb;
+    }
+
+    /**
+     * Decodes a hex color from the given ASCII bytes. Accepts the same forms
+     * as {@link #decodeHex(CharSequence, int, int)}.
+     *
+     * @param src The bytes to decode.
+     * @param start The index of the first byte to decode.
+     * @param end The index following the last byte to decode.
+     * @return The decoded packed color, or {@code -1} if the given bytes are
+     *         not a valid hex color.
+     */
+    public static int decodeHex(byte[] src, int start, int end) {
+        if (start < end && src[start] == '#') {
+            start++;
+        }
+        int length = end - start;
+        if (length != 6 && length != 3) {
+            return -1;
+        }
+        int rgb = 0;
+        for (int i = start; i < end; i++) {
+            int digit = hexDigit(src[i]);
+            if (digit < 0) {
+                return -1;
+            }
+            rgb = (length == 3)
+                    ? (rgb << 8) | (digit << 4) | digit
+                    : (rgb << 4) | digit;
+        }
+        return rgb;
+    }
+
+    /**
+     * Returns the value of the given ASCII hex digit.
+     *
+     * @param b The ASCII character to process.
+     * @return The value of the digit, or {@code -1} if it is not a hex digit.
+     */
+    private static int hexDigit(byte b) {
+        if (b >= '0' && b <= '9') {
+            return b - '0';
+        }
+        if (b >= 'a' && b <= 'f') {
+            return b - 'a' + 10;
+        }
+        if (b >= 'A' && b <= 'F') {
+            return b - 'A' + 10;
+        }
+        return -1;
+    }
+
+}
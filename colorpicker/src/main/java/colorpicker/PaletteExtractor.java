@@ -0,0 +1,447 @@
+package colorpicker;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.awt.image.Raster;
+import java.awt.image.SinglePixelPackedSampleModel;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import javax.imageio.ImageIO;
+
+/**
+ * The {@code PaletteExtractor} class extracts the dominant colors of an
+ * image. Pixels are first reduced in parallel to a histogram of 15-bit
+ * buckets, which is then split by median cut and refined with a few rounds of
+ * weighted k-means. Both steps only ever see the histogram, so their cost does
+ * not depend on the size of the image.
+ *
+ * <p>PNG, JPEG, and any other format known to {@code ImageIO} are decoded to
+ * a {@code BufferedImage} and read through its raster. Headerless raw files,
+ * with the {@code .rgb} or {@code .raw} extension and three bytes per pixel,
+ * are memory-mapped and read in place. Fully transparent pixels are left
+ * out of the histogram.
+ *
+ * @author Oliver Abdulrahim
+ */
+public final class PaletteExtractor {
+
+    /**
+     * Stores the amount of bits per channel kept by the histogram.
+     */
+    private static final int BITS = 5;
+
+    /**
+     * Stores the amount of buckets of the histogram.
+     */
+    private static final int BUCKETS = 1 << (3 * BITS);
+
+    /**
+     * Stores the amount of pixels below which the histogram of a range of
+     * pixels is not split further across threads.
+     */
+    private static final int SPLIT_THRESHOLD = 1 << 22;
+
+    /**
+     * Stores the largest region of a raw file mapped at once, which is a
+     * multiple of the pixel size.
+     */
+    private static final int MAX_MAPPING = 3 * (1 << 28);
+
+    /**
+     * Stores the amount of k-means rounds run after the median cut.
+     */
+    private static final int REFINEMENTS = 4;
+
+    /**
+     * Suppresses default constructor, ensuring non-instantiability.
+     */
+    private PaletteExtractor() {
+
+    }
+
+    /**
+     * Extracts the dominant colors of the given image file.
+     *
+     * @param file The image to read.
+     * @param colors The maximum amount of colors to extract.
+     * @return The packed colors of the palette, most common first.
+     * @throws IOException if the file cannot be read or decoded.
+     */
+    public static int[] extract(Path file, int colors) throws IOException {
+        String name = file.getFileName().toString().toLowerCase(Locale.ROOT);
+        Histogram histogram;
+        if (name.endsWith(".rgb") || name.endsWith(".raw")) {
+            histogram = readRaw(file);
+        } else {
+            BufferedImage image = ImageIO.read(file.toFile());
+            if (image == null) {
+                throw new IOException("Unsupported image format: " + file);
+            }
+            histogram = read(image);
+        }
+        return histogram.palette(colors);
+    }
+
+    /**
+     * Extracts the dominant colors of the given image.
+     *
+     * @param image The image to process.
+     * @param colors The maximum amount of colors to extract.
+     * @return The packed colors of the palette, most common first.
+     */
+    public static int[] extract(BufferedImage image, int colors) {
+        return read(image).palette(colors);
+    }
+
+    private static Histogram read(BufferedImage image) {
+        return ForkJoinPool.commonPool().invoke(
+                new ImageTask(image, 0, image.getHeight()));
+    }
+
+    private static Histogram readRaw(Path file) throws IOException {
+        Histogram total = new Histogram();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size() - channel.size() % 3;
+            for (long position = 0; position < size; position += MAX_MAPPING) {
+                int length = (int) Math.min(MAX_MAPPING, size - position);
+                MappedByteBuffer region = channel.map(
+                        FileChannel.MapMode.READ_ONLY, position, length);
+                total.add(ForkJoinPool.commonPool().invoke(
+                        new RawTask(region, 0, length / 3)));
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Returns the histogram bucket of the given packed color.
+     */
+    private static int bucket(int rgb) {
+        return ((rgb >> 9) & 0x7C00) | ((rgb >> 6) & 0x03E0) | ((rgb >> 3) & 0x001F);
+    }
+
+    /**
+     * The {@code Histogram} class counts the pixels in each bucket, along
+     * with the sum of their components so that each bucket keeps its exact
+     * mean color.
+     */
+    private static final class Histogram {
+
+        final long[] counts = new long[BUCKETS];
+        final long[] sums = new long[BUCKETS * 3];
+
+        void add(int rgb) {
+            int b = bucket(rgb);
+            counts[b]++;
+            sums[3 * b]     += PackedColor.red(rgb);
+            sums[3 * b + 1] += PackedColor.green(rgb);
+            sums[3 * b + 2] += PackedColor.blue(rgb);
+        }
+
+        void add(Histogram other) {
+            for (int i = 0; i < BUCKETS; i++) {
+                counts[i] += other.counts[i];
+            }
+            for (int i = 0; i < sums.length; i++) {
+                sums[i] += other.sums[i];
+            }
+        }
+
+        float mean(int bucket, int channel) {
+            return (float) ((double) sums[3 * bucket + channel] / counts[bucket]);
+        }
+
+        /**
+         * Splits the occupied buckets into at most the given amount of
+         * clusters and returns their mean colors, most common first.
+         */
+        int[] palette(int colors) {
+            int occupied = 0;
+            for (long count : counts) {
+                if (count != 0) {
+                    occupied++;
+                }
+            }
+            int[] buckets = new int[occupied];
+            for (int i = 0, j = 0; i < BUCKETS; i++) {
+                if (counts[i] != 0) {
+                    buckets[j++] = i;
+                }
+            }
+            if (occupied == 0 || colors <= 0) {
+                return new int[0];
+            }
+            float[] centers = medianCut(buckets, Math.min(colors, occupied));
+            int k = centers.length / 3;
+            long[] population = refine(buckets, centers, k);
+
+            Integer[] order = new Integer[k];
+            for (int i = 0; i < k; i++) {
+                order[i] = i;
+            }
+            Arrays.sort(order, (a, b) -> Long.compare(population[b], population[a]));
+            int[] palette = new int[k];
+            int size = 0;
+            for (int i : order) {
+                if (population[i] > 0) {
+                    palette[size++] = PackedColor.pack(Math.round(centers[3 * i]),
+                                                       Math.round(centers[3 * i + 1]),
+                                                       Math.round(centers[3 * i + 2]));
+                }
+            }
+            return Arrays.copyOf(palette, size);
+        }
+
+        /**
+         * Repeatedly splits the box with the widest weighted channel range at
+         * its weighted median, and returns the mean color of each box.
+         */
+        private float[] medianCut(int[] buckets, int colors) {
+            int[] starts = new int[colors];
+            int[] ends = new int[colors];
+            int boxes = 1;
+            ends[0] = buckets.length;
+            while (boxes < colors) {
+                int widest = -1;
+                int widestChannel = 0;
+                double widestScore = 0;
+                for (int box = 0; box < boxes; box++) {
+                    if (ends[box] - starts[box] < 2) {
+                        continue;
+                    }
+                    long population = 0;
+                    for (int i = starts[box]; i < ends[box]; i++) {
+                        population += counts[buckets[i]];
+                    }
+                    for (int channel = 0; channel < 3; channel++) {
+                        float min = Float.MAX_VALUE;
+                        float max = -Float.MAX_VALUE;
+                        for (int i = starts[box]; i < ends[box]; i++) {
+                            float value = mean(buckets[i], channel);
+                            min = Math.min(min, value);
+                            max = Math.max(max, value);
+                        }
+                        double score = (max - min) * (double) population;
+                        if (score > widestScore) {
+                            widestScore = score;
+                            widest = box;
+                            widestChannel = channel;
+                        }
+                    }
+                }
+                if (widest < 0) {
+                    break;
+                }
+                int split = splitBox(buckets, starts[widest], ends[widest], widestChannel);
+                starts[boxes] = split;
+                ends[boxes] = ends[widest];
+                ends[widest] = split;
+                boxes++;
+            }
+            float[] centers = new float[boxes * 3];
+            for (int box = 0; box < boxes; box++) {
+                long population = 0;
+                for (int i = starts[box]; i < ends[box]; i++) {
+                    int b = buckets[i];
+                    population += counts[b];
+                    for (int channel = 0; channel < 3; channel++) {
+                        centers[3 * box + channel] += sums[3 * b + channel];
+                    }
+                }
+                for (int channel = 0; channel < 3; channel++) {
+                    centers[3 * box + channel] /= population;
+                }
+            }
+            return centers;
+        }
+
+        /**
+         * Sorts the given range of buckets by the given channel and returns
+         * the index splitting it into two halves of equal population.
+         */
+        private int splitBox(int[] buckets, int from, int to, int channel) {
+            long[] keys = new long[to - from];
+            for (int i = from; i < to; i++) {
+                long value = (long) (mean(buckets[i], channel) * 256);
+                keys[i - from] = (value << 32) | buckets[i];
+            }
+            Arrays.sort(keys);
+            long population = 0;
+            for (int i = 0; i < keys.length; i++) {
+                buckets[from + i] = (int) keys[i];
+                population += counts[buckets[from + i]];
+            }
+            long half = 0;
+            for (int i = from; i < to - 1; i++) {
+                half += counts[buckets[i]];
+                if (2 * half >= population) {
+                    return i + 1;
+                }
+            }
+            return to - 1;
+        }
+
+        /**
+         * Runs weighted k-means over the occupied buckets, starting from the
+         * given centers, and returns the population of each center.
+         */
+        private long[] refine(int[] buckets, float[] centers, int k) {
+            long[] population = new long[k];
+            double[] next = new double[k * 3];
+            for (int round = 0; round < REFINEMENTS; round++) {
+                Arrays.fill(population, 0);
+                Arrays.fill(next, 0);
+                for (int b : buckets) {
+                    float r = mean(b, 0);
+                    float g = mean(b, 1);
+                    float bl = mean(b, 2);
+                    int nearest = 0;
+                    float nearestDistance = Float.MAX_VALUE;
+                    for (int c = 0; c < k; c++) {
+                        float dr = r - centers[3 * c];
+                        float dg = g - centers[3 * c + 1];
+                        float db = bl - centers[3 * c + 2];
+                        float distance = dr * dr + dg * dg + db * db;
+                        if (distance < nearestDistance) {
+                            nearestDistance = distance;
+                            nearest = c;
+                        }
+                    }
+                    population[nearest] += counts[b];
+                    for (int channel = 0; channel < 3; channel++) {
+                        next[3 * nearest + channel] += sums[3 * b + channel];
+                    }
+                }
+                for (int c = 0; c < k; c++) {
+                    if (population[c] > 0) {
+                        for (int channel = 0; channel < 3; channel++) {
+                            centers[3 * c + channel] =
+                                    (float) (next[3 * c + channel] / population[c]);
+                        }
+                    }
+                }
+            }
+            return population;
+        }
+
+    }
+
+    /**
+     * The {@code ImageTask} class builds the histogram of a band of rows of
+     * an image, splitting the band in halves while it is large.
+     */
+    private static final class ImageTask extends RecursiveTask<Histogram> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final BufferedImage image;
+        private final int fromRow;
+        private final int toRow;
+
+        ImageTask(BufferedImage image, int fromRow, int toRow) {
+            this.image = image;
+            this.fromRow = fromRow;
+            this.toRow = toRow;
+        }
+
+        @Override
+        protected Histogram compute() {
+            int width = image.getWidth();
+            int rows = toRow - fromRow;
+            if ((long) rows * width > SPLIT_THRESHOLD && rows > 1) {
+                int middle = fromRow + rows / 2;
+                ImageTask top = new ImageTask(image, fromRow, middle);
+                top.fork();
+                Histogram histogram = new ImageTask(image, middle, toRow).compute();
+                histogram.add(top.join());
+                return histogram;
+            }
+            Histogram histogram = new Histogram();
+            int type = image.getType();
+            boolean alpha = image.getColorModel().hasAlpha();
+            Raster raster = image.getRaster();
+            if ((type == BufferedImage.TYPE_INT_RGB || type == BufferedImage.TYPE_INT_ARGB)
+                    && raster.getSampleModel() instanceof SinglePixelPackedSampleModel) {
+                // Subimages and padded rasters share a larger buffer, so rows
+                // are found through the stride and the translation
+                SinglePixelPackedSampleModel model =
+                        (SinglePixelPackedSampleModel) raster.getSampleModel();
+                DataBufferInt buffer = (DataBufferInt) raster.getDataBuffer();
+                int[] pixels = buffer.getData();
+                int stride = model.getScanlineStride();
+                int start = buffer.getOffset() + model.getOffset(
+                        raster.getMinX() - raster.getSampleModelTranslateX(),
+                        raster.getMinY() + fromRow - raster.getSampleModelTranslateY());
+                for (int y = fromRow; y < toRow; y++, start += stride) {
+                    for (int i = start, end = start + width; i < end; i++) {
+                        int pixel = pixels[i];
+                        if (!alpha || (pixel >>> 24) != 0) {
+                            histogram.add(pixel);
+                        }
+                    }
+                }
+            } else {
+                int[] row = new int[width];
+                for (int y = fromRow; y < toRow; y++) {
+                    image.getRGB(0, y, width, 1, row, 0, width);
+                    for (int pixel : row) {
+                        if (!alpha || (pixel >>> 24) != 0) {
+                            histogram.add(pixel);
+                        }
+                    }
+                }
+            }
+            return histogram;
+        }
+
+    }
+
+    /**
+     * The {@code RawTask} class builds the histogram of a range of pixels of
+     * a memory-mapped raw file, splitting the range in halves while it is
+     * large.
+     */
+    private static final class RawTask extends RecursiveTask<Histogram> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final MappedByteBuffer region;
+        private final int fromPixel;
+        private final int toPixel;
+
+        RawTask(MappedByteBuffer region, int fromPixel, int toPixel) {
+            this.region = region;
+            this.fromPixel = fromPixel;
+            this.toPixel = toPixel;
+        }
+
+        @Override
+        protected Histogram compute() {
+            int pixels = toPixel - fromPixel;
+            if (pixels > SPLIT_THRESHOLD) {
+                int middle = fromPixel + pixels / 2;
+                RawTask first = new RawTask(region, fromPixel, middle);
+                first.fork();
+                Histogram histogram = new RawTask(region, middle, toPixel).compute();
+                histogram.add(first.join());
+                return histogram;
+            }
+            Histogram histogram = new Histogram();
+            for (int i = 3 * fromPixel, end = 3 * toPixel; i < end; i += 3) {
+                histogram.add(((region.get(i) & 0xFF) << 16)
+                            | ((region.get(i + 1) & 0xFF) << 8)
+                            | (region.get(i + 2) & 0xFF));
+            }
+            return histogram;
+        }
+
+    }
+
+}
@@ -0,0 +1,588 @@
+package colorpicker;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintStream;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Locale;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.imageio.ImageIO;
+
+/**
+ * The {@code PaletteMatcher} class contains a mapping of colors to their
+ * perceptually nearest entry of a fixed palette, as found by
+ * {@link NamedColorIndex#nearest(int)}, for matching whole images or color
+ * lists at once.
+ *
+ * <p>A matcher may precompute a table of the nearest entry of every one of
+ * the 2<sup>24</sup> packed colors, one byte per color for palettes of up to
+ * 256 entries and two bytes otherwise, so that matching a color is a single
+ * read at its packed value. The table is kept off the heap, and may be cached
+ * on disk under a name derived from a hash of the palette, in which case later
+ * runs map the file instead of building it again.
+ *
+ * <p>The table is built by searching the palette for every color of the
+ * gamut across the common fork-join pool, so a table read always agrees with
+ * a search. Searches skip candidates whose lower bound on the difference
+ * already exceeds the best found, which makes a build take about a minute
+ * of processor time.
+ *
+ * <p>Usage:
+ * <pre>
+ * java -jar ColorPicker.jar --match [--palette FILE] [--from FORMAT]
+ *         [--in FILE] [--image FILE --out FILE] [--table | --no-table]
+ *         [--no-cache]
+ * </pre>
+ * where the palette is a dictionary as read by
+ * {@link NamedColorIndex#read(Reader, NamedColorIndex.Builder)}, the CSS
+ * named colors by default. Colors are read one per line in the given
+ * {@link BatchConverter.Format}, and each is printed with the name and color
+ * of its match. An image is instead written with every pixel replaced by its
+ * match. Tables are cached in the {@code palettes} directory of
+ * {@link ColorHistory#defaultDirectory()}. Unless {@code --table} or
+ * {@code --no-table} is given, a table is only built for inputs of at least
+ * {@link #TABLE_THRESHOLD} colors, and smaller inputs are searched for color
+ * by color unless a cached table can be mapped.
+ *
+ * @author Oliver Abdulrahim
+ */
+public final class PaletteMatcher {
+
+    /**
+     * Stores the amount of packed colors.
+     */
+    public static final int GAMUT_SIZE = 1 << 24;
+
+    /**
+     * Stores the largest palette a table can be built for.
+     */
+    public static final int MAX_TABLE_ENTRIES = 1 << 16;
+
+    /**
+     * Stores the amount of colors from which a table is built to match them.
+     * Building a table searches every packed color, so it only pays off for
+     * large inputs, or once it is cached for later runs.
+     */
+    public static final int TABLE_THRESHOLD = GAMUT_SIZE / 16;
+
+    /**
+     * Stores the magic number identifying table files.
+     */
+    private static final int MAGIC = 0x43504D54;
+
+    /**
+     * Stores the version of the file format and of the build, which is part
+     * of the hash so that tables built differently are never reused.
+     */
+    private static final int VERSION = 2;
+
+    /**
+     * Stores the size of the header of a table file, in bytes.
+     */
+    private static final int HEADER_SIZE = 24;
+
+    /**
+     * Stores the amount of colors below which a bulk match is not split.
+     */
+    private static final int MATCH_THRESHOLD = 1 << 14;
+
+    /**
+     * Stores the palette matched against.
+     */
+    private final NamedColorIndex palette;
+
+    /**
+     * Stores the nearest entry of every packed color, or {@code null} to
+     * search the palette for each color instead.
+     */
+    private final ByteBuffer table;
+
+    /**
+     * Stores whether or not each entry of the table takes two bytes.
+     */
+    private final boolean wide;
+
+    private PaletteMatcher(NamedColorIndex palette, ByteBuffer table) {
+        this.palette = palette;
+        this.table = table;
+        this.wide = palette.size() > 256;
+    }
+
+    /**
+     * Returns a matcher that searches the given palette for each color.
+     *
+     * @param palette The palette to match against.
+     * @return The matcher.
+     */
+    public static PaletteMatcher of(NamedColorIndex palette) {
+        return new PaletteMatcher(palette, null);
+    }
+
+    /**
+     * Returns a matcher with a table built in memory for the given palette.
+     *
+     * @param palette The palette to match against, of at most
+     *        {@link #MAX_TABLE_ENTRIES} entries.
+     * @return The matcher.
+     */
+    public static PaletteMatcher withTable(NamedColorIndex palette) {
+        return new PaletteMatcher(palette, build(palette));
+    }
+
+    /**
+     * Returns a matcher with a table for the given palette, mapped from the
+     * given directory if it was built before, and built and saved there
+     * otherwise. If the table cannot be saved, it is kept in memory.
+     *
+     * @param palette The palette to match against, of at most
+     *        {@link #MAX_TABLE_ENTRIES} entries.
+     * @param directory The directory tables are cached in.
+     * @return The matcher.
+     * @throws IOException if the directory cannot be created.
+     */
+    public static PaletteMatcher withTable(NamedColorIndex palette, Path directory)
+            throws IOException {
+        Files.createDirectories(directory);
+        long hash = hash(palette);
+        Path file = tableFile(directory, hash);
+        ByteBuffer table = map(file, palette, hash);
+        if (table == null) {
+            ByteBuffer built = build(palette);
+            try {
+                save(file, palette, hash, built);
+                table = map(file, palette, hash);
+            } catch (IOException ex) {
+                Logger.getLogger(PaletteMatcher.class.getName())
+                        .log(Level.WARNING, "Could not cache table " + file, ex);
+            }
+            if (table == null) {
+                table = built;
+            }
+        }
+        return new PaletteMatcher(palette, table);
+    }
+
+    /**
+     * Returns a matcher suited to matching the given amount of colors: a
+     * table mapped from the given directory if it was cached before, a table
+     * built and cached there if there are at least {@link #TABLE_THRESHOLD}
+     * colors, and a search of the palette otherwise.
+     *
+     * @param palette The palette to match against.
+     * @param count The amount of colors to match.
+     * @param directory The directory tables are cached in, or {@code null} to
+     *        keep tables in memory only.
+     * @return The matcher.
+     * @throws IOException if the directory cannot be created.
+     */
+    public static PaletteMatcher forCount(NamedColorIndex palette, long count, Path directory)
+            throws IOException {
+        if (palette.size() > MAX_TABLE_ENTRIES) {
+            return of(palette);
+        }
+        if (count >= TABLE_THRESHOLD) {
+            return (directory == null) ? withTable(palette) : withTable(palette, directory);
+        }
+        if (directory != null) {
+            long hash = hash(palette);
+            ByteBuffer table = map(tableFile(directory, hash), palette, hash);
+            if (table != null) {
+                return new PaletteMatcher(palette, table);
+            }
+        }
+        return of(palette);
+    }
+
+    /**
+     * Returns the palette matched against.
+     *
+     * @return The palette of this matcher.
+     */
+    public NamedColorIndex getPalette() {
+        return palette;
+    }
+
+    /**
+     * Returns whether or not this matcher has a precomputed table.
+     *
+     * @return {@code true} if matching is a table read, {@code false} if it
+     *         searches the palette.
+     */
+    public boolean hasTable() {
+        return table != null;
+    }
+
+    /**
+     * Returns the palette entry nearest to the given color.
+     *
+     * @param rgb The packed color to match.
+     * @return The index of the nearest entry of the palette.
+     */
+    public int match(int rgb) {
+        rgb &= PackedColor.RGB_MASK;
+        if (table == null) {
+            return palette.nearest(rgb);
+        }
+        return wide ? table.getShort(rgb << 1) & 0xFFFF : table.get(rgb) & 0xFF;
+    }
+
+    /**
+     * Writes the palette entry nearest to each of a range of colors.
+     *
+     * @param src The packed colors to match.
+     * @param srcOffset The index of the first color to match.
+     * @param dest The array to write the indices of the entries into.
+     * @param destOffset The index of the first entry.
+     * @param length The amount of colors to match.
+     */
+    public void match(int[] src, int srcOffset, int[] dest, int destOffset, int length) {
+        ForkJoinPool.commonPool().invoke(
+                new MatchTask(this, false, src, srcOffset, dest, destOffset, length));
+    }
+
+    /**
+     * Replaces each of a range of colors with its nearest palette color,
+     * which may be done in place.
+     *
+     * @param src The packed colors to match.
+     * @param srcOffset The index of the first color to match.
+     * @param dest The array to write the packed palette colors into.
+     * @param destOffset The index of the first palette color.
+     * @param length The amount of colors to match.
+     */
+    public void quantize(int[] src, int srcOffset, int[] dest, int destOffset, int length) {
+        ForkJoinPool.commonPool().invoke(
+                new MatchTask(this, true, src, srcOffset, dest, destOffset, length));
+    }
+
+    /**
+     * The {@code MatchTask} class contains the matching of a range of colors.
+     */
+    private static final class MatchTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final PaletteMatcher matcher;
+        private final boolean quantize;
+        private final int[] src;
+        private final int srcOffset;
+        private final int[] dest;
+        private final int destOffset;
+        private final int length;
+
+        MatchTask(PaletteMatcher matcher, boolean quantize, int[] src, int srcOffset,
+                  int[] dest, int destOffset, int length) {
+            this.matcher = matcher;
+            this.quantize = quantize;
+            this.src = src;
+            this.srcOffset = srcOffset;
+            this.dest = dest;
+            this.destOffset = destOffset;
+            this.length = length;
+        }
+
+        @Override
+        protected void compute() {
+            // Table reads are cheap enough that only searches are worth splitting
+            int threshold = matcher.hasTable() ? 16 * MATCH_THRESHOLD : MATCH_THRESHOLD / 64;
+            if (length > threshold) {
+                int half = length >>> 1;
+                invokeAll(new MatchTask(matcher, quantize, src, srcOffset,
+                                        dest, destOffset, half),
+                          new MatchTask(matcher, quantize, src, srcOffset + half,
+                                        dest, destOffset + half, length - half));
+                return;
+            }
+            NamedColorIndex palette = matcher.palette;
+            for (int i = 0; i < length; i++) {
+                int entry = matcher.match(src[srcOffset + i]);
+                dest[destOffset + i] = quantize ? palette.getRGB(entry) : entry;
+            }
+        }
+
+    }
+
+    /**
+     * Builds the table of the given palette into a direct buffer.
+     */
+    private static ByteBuffer build(NamedColorIndex palette) {
+        if (palette.size() > MAX_TABLE_ENTRIES) {
+            throw new IllegalArgumentException("Palette too large for a table: "
+                    + palette.size());
+        }
+        boolean wide = palette.size() > 256;
+        ByteBuffer table = ByteBuffer.allocateDirect(wide ? 2 * GAMUT_SIZE : GAMUT_SIZE)
+                .order(ByteOrder.LITTLE_ENDIAN);
+        ForkJoinPool.commonPool().invoke(new FillTask(palette, table, wide, 0, 256));
+        return table;
+    }
+
+    /**
+     * The {@code FillTask} class contains the search of the nearest entry of
+     * every color in a range of red slabs.
+     */
+    private static final class FillTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final NamedColorIndex palette;
+        private final ByteBuffer table;
+        private final boolean wide;
+        private final int from;
+        private final int to;
+
+        FillTask(NamedColorIndex palette, ByteBuffer table, boolean wide, int from, int to) {
+            this.palette = palette;
+            this.table = table;
+            this.wide = wide;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > 1) {
+                int middle = (from + to) >>> 1;
+                invokeAll(new FillTask(palette, table, wide, from, middle),
+                          new FillTask(palette, table, wide, middle, to));
+                return;
+            }
+            int slab = from << 16;
+            for (int rgb = slab; rgb < slab + (1 << 16); rgb++) {
+                int entry = palette.nearest(rgb);
+                if (wide) {
+                    table.putShort(rgb << 1, (short) entry);
+                } else {
+                    table.put(rgb, (byte) entry);
+                }
+            }
+        }
+
+    }
+
+    /**
+     * Returns a hash of the colors of the given palette, in entry order, and
+     * of the version of the table format.
+     */
+    private static long hash(NamedColorIndex palette) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            ByteBuffer buffer = ByteBuffer.allocate(4 * (palette.size() + 1));
+            buffer.putInt(VERSION);
+            for (int i = 0; i < palette.size(); i++) {
+                buffer.putInt(palette.getRGB(i));
+            }
+            return ByteBuffer.wrap(digest.digest(buffer.array())).getLong();
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("SHA-256 is required on every platform", ex);
+        }
+    }
+
+    /**
+     * Returns the file the table of the palette with the given hash is cached
+     * in.
+     */
+    private static Path tableFile(Path directory, long hash) {
+        return directory.resolve(String.format("palette-%016x.lut", hash));
+    }
+
+    /**
+     * Maps the table cached in the given file.
+     *
+     * @return The table, or {@code null} if the file is missing or does not
+     *         hold a table of the given palette.
+     */
+    private static ByteBuffer map(Path file, NamedColorIndex palette, long hash)
+            throws IOException {
+        if (!Files.isRegularFile(file)) {
+            return null;
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long tableSize = (palette.size() > 256) ? 2L * GAMUT_SIZE : GAMUT_SIZE;
+            if (channel.size() != HEADER_SIZE + tableSize) {
+                return null;
+            }
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            channel.read(header, 0);
+            if (header.getInt(0) != MAGIC || header.getInt(4) != VERSION
+                    || header.getInt(8) != palette.size() || header.getLong(16) != hash) {
+                return null;
+            }
+            return channel.map(FileChannel.MapMode.READ_ONLY, HEADER_SIZE, tableSize)
+                    .order(ByteOrder.LITTLE_ENDIAN);
+        }
+    }
+
+    /**
+     * Writes the given table to a temporary file, then moves it in place so
+     * that a partly written table is never read.
+     */
+    private static void save(Path file, NamedColorIndex palette, long hash, ByteBuffer table)
+            throws IOException {
+        Path temporary = Files.createTempFile(file.getParent(), "palette-", ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.WRITE)) {
+                ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+                header.putInt(0, MAGIC);
+                header.putInt(4, VERSION);
+                header.putInt(8, palette.size());
+                header.putLong(16, hash);
+                channel.write(header);
+                ByteBuffer contents = table.duplicate();
+                contents.clear();
+                while (contents.hasRemaining()) {
+                    channel.write(contents);
+                }
+                channel.force(false);
+            }
+            try {
+                Files.move(temporary, file, StandardCopyOption.ATOMIC_MOVE,
+                           StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException ex) {
+                Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+    }
+
+    /**
+     * Matches the colors or image given by the command-line arguments.
+     *
+     * @param args The command-line arguments.
+     * @throws IOException if an I/O error occurs.
+     */
+    public static void main(String[] args) throws IOException {
+        String palettePath = null;
+        BatchConverter.Format from = BatchConverter.Format.HEX;
+        String inPath = null;
+        String imagePath = null;
+        String outPath = null;
+        Boolean table = null;
+        boolean cache = true;
+        try {
+            for (int i = 0; i < args.length; i++) {
+                String arg = args[i];
+                if (arg.equals("--palette") && i + 1 < args.length) {
+                    palettePath = args[++i];
+                } else if (arg.equals("--from") && i + 1 < args.length) {
+                    from = BatchConverter.Format.of(args[++i]);
+                } else if (arg.equals("--in") && i + 1 < args.length) {
+                    inPath = args[++i];
+                } else if (arg.equals("--image") && i + 1 < args.length) {
+                    imagePath = args[++i];
+                } else if (arg.equals("--out") && i + 1 < args.length) {
+                    outPath = args[++i];
+                } else if (arg.equals("--table") && table == null) {
+                    table = true;
+                } else if (arg.equals("--no-table") && table == null) {
+                    table = false;
+                } else if (arg.equals("--no-cache")) {
+                    cache = false;
+                } else {
+                    usage();
+                }
+            }
+        } catch (IllegalArgumentException ex) {
+            // Unknown format
+            usage();
+        }
+        if ((imagePath == null) != (outPath == null)) {
+            usage();
+        }
+        NamedColorIndex palette;
+        if (palettePath == null) {
+            palette = NamedColorIndex.getDefault().join();
+        } else {
+            try (Reader reader = Files.newBufferedReader(Paths.get(palettePath),
+                                                         StandardCharsets.UTF_8)) {
+                palette = NamedColorIndex.read(reader, null).build();
+            }
+        }
+
+        BufferedImage image = null;
+        int[] colors;
+        if (imagePath != null) {
+            image = ImageIO.read(Paths.get(imagePath).toFile());
+            if (image == null) {
+                throw new IOException("Unsupported image format: " + imagePath);
+            }
+            colors = image.getRGB(0, 0, image.getWidth(), image.getHeight(),
+                                  null, 0, image.getWidth());
+        } else {
+            try (InputStream in = (inPath == null)
+                    ? System.in
+                    : Files.newInputStream(Paths.get(inPath))) {
+                colors = ContrastAudit.readPalette(in, from);
+            }
+        }
+
+        long start = System.nanoTime();
+        Path directory = cache ? ColorHistory.defaultDirectory().resolve("palettes") : null;
+        PaletteMatcher matcher;
+        if (table == null) {
+            matcher = forCount(palette, colors.length, directory);
+        } else if (!table) {
+            matcher = of(palette);
+        } else {
+            matcher = cache ? withTable(palette, directory) : withTable(palette);
+        }
+        if (matcher.hasTable()) {
+            System.err.printf("Table for %d colors ready in %.3f s%n", palette.size(),
+                              (System.nanoTime() - start) / 1e9);
+        }
+
+        start = System.nanoTime();
+        if (image != null) {
+            int width = image.getWidth();
+            int height = image.getHeight();
+            matcher.quantize(colors, 0, colors, 0, colors.length);
+            BufferedImage quantized = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+            quantized.setRGB(0, 0, width, height, colors, 0, width);
+            String name = outPath.toLowerCase(Locale.ROOT);
+            String format = name.substring(name.lastIndexOf('.') + 1);
+            if (!ImageIO.write(quantized, format, Paths.get(outPath).toFile())) {
+                throw new IOException("Unsupported image format: " + outPath);
+            }
+        } else {
+            int[] entries = new int[colors.length];
+            matcher.match(colors, 0, entries, 0, colors.length);
+            StringBuilder text = new StringBuilder(32 * colors.length);
+            for (int i = 0; i < colors.length; i++) {
+                PackedColor.appendHex(colors[i], text).append(' ')
+                        .append(palette.getName(entries[i])).append(' ');
+                PackedColor.appendHex(palette.getRGB(entries[i]), text).append('\n');
+            }
+            PrintStream out = System.out;
+            out.print(text);
+            out.flush();
+        }
+        System.err.printf("Matched %d colors %s in %.3f s%n", colors.length,
+                          matcher.hasTable() ? "by table" : "by search",
+                          (System.nanoTime() - start) / 1e9);
+    }
+
+    private static void usage() {
+        System.err.println("Usage: PaletteMatcher [--palette FILE] [--from hex|rgb|csv|int] "
+                + "[--in FILE] [--image FILE --out FILE] [--table | --no-table] "
+                + "[--no-cache]");
+        System.exit(2);
+    }
+
+}
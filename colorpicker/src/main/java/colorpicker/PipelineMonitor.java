@@ -0,0 +1,306 @@
+package colorpicker;
+
+import java.io.PrintStream;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import javax.swing.SwingUtilities;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+/**
+ * The {@code PipelineMonitor} class contains the instrumentation of the path
+ * from a slider or spinner edit to the repaint of the preview. It measures
+ * the latency from the first unpainted edit to the next paint of the preview,
+ * the time spent updating the preview, and the delay of the event dispatch
+ * thread, which is how long a task posted to it waits before running.
+ *
+ * <p>Every measurement is emitted as a JDK Flight Recorder event, which costs
+ * next to nothing unless a recording is running. If the {@link #PROPERTY}
+ * system property is {@code true}, measurements are also kept in
+ * {@link LatencyHistogram}s, the event dispatch thread is probed every
+ * {@value #PROBE_INTERVAL} milliseconds, and a report of the histograms is
+ * printed to standard error on exit.
+ *
+ * <p>Every method except {@link #report(PrintStream)} must be called on the
+ * event dispatch thread.
+ *
+ * @author Oliver Abdulrahim
+ */
+final class PipelineMonitor {
+
+    /**
+     * Stores the name of the system property enabling the histograms.
+     */
+    static final String PROPERTY = "colorpicker.debug";
+
+    /**
+     * Stores the delay between probes of the event dispatch thread, in
+     * milliseconds.
+     */
+    static final int PROBE_INTERVAL = 100;
+
+    /**
+     * Stores the value of {@link #inputTime} when every edit was painted.
+     */
+    private static final long NONE = Long.MIN_VALUE;
+
+    /**
+     * Stores whether or not measurements are kept in histograms.
+     */
+    private final boolean enabled;
+
+    /**
+     * Stores the latency from an edit to the paint of the preview.
+     */
+    private final LatencyHistogram inputToPaint = new LatencyHistogram();
+
+    /**
+     * Stores the time spent updating the preview.
+     */
+    private final LatencyHistogram previewUpdate = new LatencyHistogram();
+
+    /**
+     * Stores the delay of tasks posted to the event dispatch thread.
+     */
+    private final LatencyHistogram queueDelay = new LatencyHistogram();
+
+    /**
+     * Stores the time of the first edit not yet painted, or {@link #NONE}.
+     */
+    private long inputTime = NONE;
+
+    /**
+     * Stores the time the pending probe was posted, or {@link #NONE} if no
+     * probe is pending.
+     */
+    private volatile long probeTime = NONE;
+
+    /**
+     * Stores the task run on the event dispatch thread by each probe, which
+     * is reused so that probing never allocates.
+     */
+    private final Runnable probe = this :: probeReceived;
+
+    /**
+     * Creates a new {@code PipelineMonitor}, keeping histograms and probing
+     * the event dispatch thread if the {@link #PROPERTY} is set.
+     */
+    PipelineMonitor() {
+        enabled = Boolean.getBoolean(PROPERTY);
+        if (enabled) {
+            ScheduledExecutorService prober = Executors.newSingleThreadScheduledExecutor(task -> {
+                Thread thread = new Thread(task, "Event queue probe");
+                thread.setDaemon(true);
+                return thread;
+            });
+            prober.scheduleAtFixedRate(this :: postProbe, PROBE_INTERVAL,
+                                       PROBE_INTERVAL, TimeUnit.MILLISECONDS);
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> report(System.err)));
+        }
+    }
+
+    /**
+     * Returns whether or not measurements are kept in histograms.
+     *
+     * @return {@code true} if the histograms are enabled.
+     */
+    boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Marks an edit of the color by a slider or spinner.
+     *
+     * @param source The name of the edited component.
+     */
+    void inputReceived(String source) {
+        long now = System.nanoTime();
+        if (inputTime == NONE) {
+            inputTime = now;
+        }
+        InputEvent event = new InputEvent();
+        if (event.isEnabled()) {
+            event.source = source;
+            event.commit();
+        }
+    }
+
+    /**
+     * Marks the start of an update of the preview.
+     *
+     * @return The start time, to pass to {@link #previewUpdated(long, boolean)}.
+     */
+    long previewUpdateStarted() {
+        return System.nanoTime();
+    }
+
+    /**
+     * Marks the end of an update of the preview.
+     *
+     * @param start The time returned by {@link #previewUpdateStarted()}.
+     * @param changed Whether or not the preview will be repainted. If not,
+     *        pending edits are considered painted.
+     */
+    void previewUpdated(long start, boolean changed) {
+        long elapsed = System.nanoTime() - start;
+        if (enabled) {
+            previewUpdate.record(elapsed);
+        }
+        if (!changed) {
+            inputTime = NONE;
+        }
+        PreviewUpdateEvent event = new PreviewUpdateEvent();
+        if (event.isEnabled()) {
+            event.elapsed = elapsed;
+            event.changed = changed;
+            event.commit();
+        }
+    }
+
+    /**
+     * Marks a paint of the preview, completing the pending edits.
+     *
+     * @param rgb The painted color.
+     */
+    void previewPainted(int rgb) {
+        if (inputTime == NONE) {
+            return;
+        }
+        long latency = System.nanoTime() - inputTime;
+        inputTime = NONE;
+        if (enabled) {
+            inputToPaint.record(latency);
+        }
+        PreviewPaintEvent event = new PreviewPaintEvent();
+        if (event.isEnabled()) {
+            event.latency = latency;
+            event.rgb = rgb;
+            event.commit();
+        }
+    }
+
+    /**
+     * Posts the probe to the event dispatch thread, unless the previous one
+     * has not run yet.
+     */
+    private void postProbe() {
+        if (probeTime == NONE) {
+            probeTime = System.nanoTime();
+            SwingUtilities.invokeLater(probe);
+        }
+    }
+
+    private void probeReceived() {
+        long delay = System.nanoTime() - probeTime;
+        probeTime = NONE;
+        queueDelay.record(delay);
+        EventQueueDelayEvent event = new EventQueueDelayEvent();
+        if (event.isEnabled()) {
+            event.delay = delay;
+            event.commit();
+        }
+    }
+
+    /**
+     * Prints the percentiles of every histogram.
+     *
+     * @param out The stream to print to.
+     */
+    void report(PrintStream out) {
+        out.println(reportText());
+    }
+
+    /**
+     * Returns the percentiles of every histogram, one per line.
+     *
+     * @return The text of the report.
+     */
+    String reportText() {
+        if (!enabled) {
+            return "Histograms are disabled, start with -D" + PROPERTY + "=true";
+        }
+        return "Edit to paint:      " + inputToPaint + '\n'
+             + "Preview update:     " + previewUpdate + '\n'
+             + "Event queue delay:  " + queueDelay;
+    }
+
+    /**
+     * Removes every measurement from the histograms.
+     */
+    void reset() {
+        inputToPaint.reset();
+        previewUpdate.reset();
+        queueDelay.reset();
+    }
+
+    /**
+     * The {@code InputEvent} class contains an edit of the color.
+     */
+    @Name("colorpicker.Input")
+    @Label("Color Input")
+    @Category("ColorPicker")
+    @Description("An edit of the color by a slider or spinner")
+    static final class InputEvent extends Event {
+
+        @Label("Source")
+        String source;
+
+    }
+
+    /**
+     * The {@code PreviewUpdateEvent} class contains an update of the preview.
+     */
+    @Name("colorpicker.PreviewUpdate")
+    @Label("Preview Update")
+    @Category("ColorPicker")
+    static final class PreviewUpdateEvent extends Event {
+
+        @Label("Elapsed")
+        @Timespan(Timespan.NANOSECONDS)
+        long elapsed;
+
+        @Label("Changed")
+        boolean changed;
+
+    }
+
+    /**
+     * The {@code PreviewPaintEvent} class contains a paint of the preview
+     * following one or more edits.
+     */
+    @Name("colorpicker.PreviewPaint")
+    @Label("Preview Paint")
+    @Category("ColorPicker")
+    @Description("The paint of the preview, with the latency from the first edit it shows")
+    static final class PreviewPaintEvent extends Event {
+
+        @Label("Latency")
+        @Timespan(Timespan.NANOSECONDS)
+        long latency;
+
+        @Label("Color")
+        int rgb;
+
+    }
+
+    /**
+     * The {@code EventQueueDelayEvent} class contains the delay of a probe
+     * posted to the event dispatch thread.
+     */
+    @Name("colorpicker.EventQueueDelay")
+    @Label("Event Queue Delay")
+    @Category("ColorPicker")
+    static final class EventQueueDelayEvent extends Event {
+
+        @Label("Delay")
+        @Timespan(Timespan.NANOSECONDS)
+        long delay;
+
+    }
+
+}
@@ -0,0 +1,274 @@
+package colorpicker;
+
+import java.awt.Color;
+import java.awt.Dimension;
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import javax.swing.JComponent;
+import javax.swing.event.ChangeEvent;
+
+/**
+ * The {@code SaturationValueField} class contains a two-dimensional field of
+ * every saturation and value of the current hue of a {@link ColorModel}, with
+ * a marker on the current color. Clicking or dragging in the field selects
+ * the color under the cursor.
+ *
+ * <p>The field is drawn into an image at device resolution by writing to its
+ * pixel buffer directly, split into row stripes rendered across the common
+ * fork-join pool. The image is only redrawn when the hue or the size changes;
+ * saturation and value changes only repaint the old and new marker.
+ *
+ * @author Oliver Abdulrahim
+ * @see HueStrip
+ */
+public class SaturationValueField extends JComponent {
+
+    private static final long serialVersionUID = 2309841576L;
+
+    /**
+     * Stores the radius of the marker, in pixels.
+     */
+    private static final int MARKER_RADIUS = 5;
+
+    /**
+     * Stores the amount of rows rendered by each task.
+     */
+    private static final int STRIPE_HEIGHT = 32;
+
+    /**
+     * Stores the model viewed by this field.
+     */
+    private final ColorModel model;
+
+    /**
+     * Stores the current hue, saturation, and value. The hue is kept here
+     * rather than derived from the model, so it survives moving through greys.
+     */
+    private final float[] hsv = new float[ColorSpace.COMPONENTS];
+
+    /**
+     * Stores whether or not this field is changing the model, in which case
+     * its events are ignored.
+     */
+    private boolean syncing;
+
+    /**
+     * Stores the image of the field, or {@code null} if it was never drawn.
+     */
+    private BufferedImage field;
+
+    /**
+     * Stores the hue the image was last drawn for.
+     */
+    private float renderedHue = Float.NaN;
+
+    /**
+     * Stores the bounds of the marker as last painted.
+     */
+    private int markerX;
+    private int markerY;
+
+    /**
+     * Creates a new {@code SaturationValueField} viewing the given model.
+     *
+     * @param model The model to view and edit.
+     */
+    public SaturationValueField(ColorModel model) {
+        this.model = model;
+        setPreferredSize(new Dimension(211, 160));
+        setOpaque(true);
+        ColorConversions.rgbToHsv(model.getRGB(), hsv, 0);
+        model.addChangeListener(this :: modelStateChanged);
+        MouseAdapter mouse = new MouseAdapter() {
+
+            @Override
+            public void mousePressed(MouseEvent evt) {
+                model.setValueIsAdjusting(true);
+                select(evt.getX(), evt.getY());
+            }
+
+            @Override
+            public void mouseDragged(MouseEvent evt) {
+                select(evt.getX(), evt.getY());
+            }
+
+            @Override
+            public void mouseReleased(MouseEvent evt) {
+                model.setValueIsAdjusting(false);
+            }
+
+        };
+        addMouseListener(mouse);
+        addMouseMotionListener(mouse);
+    }
+
+    /**
+     * Returns the current hue.
+     *
+     * @return The hue, in degrees.
+     */
+    public float getHue() {
+        return hsv[0];
+    }
+
+    /**
+     * Sets the current hue, keeping the current saturation and value.
+     *
+     * @param hue The new hue, in degrees.
+     */
+    public void setHue(float hue) {
+        hsv[0] = hue;
+        updateModel();
+        repaint();
+    }
+
+    /**
+     * Selects the saturation and value under the given point.
+     */
+    private void select(int x, int y) {
+        int width = Math.max(getWidth() - 1, 1);
+        int height = Math.max(getHeight() - 1, 1);
+        hsv[1] = 100f * Math.max(0, Math.min(width, x)) / width;
+        hsv[2] = 100f * (height - Math.max(0, Math.min(height, y))) / height;
+        updateModel();
+        moveMarker();
+    }
+
+    private void updateModel() {
+        syncing = true;
+        try {
+            model.setRGB(ColorConversions.hsvToRgb(hsv[0], hsv[1], hsv[2]));
+        } finally {
+            syncing = false;
+        }
+    }
+
+    /**
+     * Updates the current color from the model, keeping the hue when the new
+     * color has none.
+     */
+    private void modelStateChanged(ChangeEvent evt) {
+        if (syncing) {
+            return;
+        }
+        float hue = hsv[0];
+        ColorConversions.rgbToHsv(model.getRGB(), hsv, 0);
+        if (hsv[1] == 0 || hsv[2] == 0) {
+            hsv[0] = hue;
+        }
+        if (hsv[0] != renderedHue) {
+            repaint();
+        } else {
+            moveMarker();
+        }
+    }
+
+    /**
+     * Repaints the old and the new position of the marker only.
+     */
+    private void moveMarker() {
+        int size = 2 * MARKER_RADIUS + 2;
+        repaint(markerX - MARKER_RADIUS - 1, markerY - MARKER_RADIUS - 1, size + 1, size + 1);
+        int x = markerX();
+        int y = markerY();
+        repaint(x - MARKER_RADIUS - 1, y - MARKER_RADIUS - 1, size + 1, size + 1);
+    }
+
+    private int markerX() {
+        return Math.round(hsv[1] / 100 * (getWidth() - 1));
+    }
+
+    private int markerY() {
+        return Math.round((1 - hsv[2] / 100) * (getHeight() - 1));
+    }
+
+    @Override
+    protected void paintComponent(Graphics g) {
+        Graphics2D g2 = (Graphics2D) g.create();
+        try {
+            AffineTransform transform = g2.getTransform();
+            int width = (int) Math.ceil(getWidth() * transform.getScaleX());
+            int height = (int) Math.ceil(getHeight() * transform.getScaleY());
+            if (width <= 0 || height <= 0) {
+                return;
+            }
+            if (field == null || field.getWidth() != width || field.getHeight() != height) {
+                field = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+                renderedHue = Float.NaN;
+            }
+            if (hsv[0] != renderedHue) {
+                renderField(field, hsv[0]);
+                renderedHue = hsv[0];
+            }
+            g2.drawImage(field, 0, 0, getWidth(), getHeight(), null);
+
+            markerX = markerX();
+            markerY = markerY();
+            g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+            g2.setColor((hsv[2] > 50 && hsv[1] < 50) ? Color.BLACK : Color.WHITE);
+            g2.drawOval(markerX - MARKER_RADIUS, markerY - MARKER_RADIUS,
+                        2 * MARKER_RADIUS, 2 * MARKER_RADIUS);
+        } finally {
+            g2.dispose();
+        }
+    }
+
+    /**
+     * Draws every saturation (left to right) and value (bottom to top) of the
+     * given hue into the given image, one stripe of rows per task.
+     *
+     * @param image The image to draw into.
+     * @param hue The hue to draw, in degrees.
+     */
+    static void renderField(BufferedImage image, float hue) {
+        int[] pixels = ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
+        int width = image.getWidth();
+        int height = image.getHeight();
+        int pure = ColorConversions.hsvToRgb(hue, 100, 100);
+        float r = 1 - PackedColor.red(pure) / 255f;
+        float g = 1 - PackedColor.green(pure) / 255f;
+        float b = 1 - PackedColor.blue(pure) / 255f;
+        int stripes = (height + STRIPE_HEIGHT - 1) / STRIPE_HEIGHT;
+        ForkJoinTask<?>[] tasks = new ForkJoinTask<?>[stripes];
+        for (int i = 1; i < stripes; i++) {
+            int from = i * STRIPE_HEIGHT;
+            int to = Math.min(height, from + STRIPE_HEIGHT);
+            tasks[i] = ForkJoinPool.commonPool().submit(
+                    () -> renderRows(pixels, width, height, from, to, r, g, b));
+        }
+        renderRows(pixels, width, height, 0, Math.min(height, STRIPE_HEIGHT), r, g, b);
+        for (int i = 1; i < stripes; i++) {
+            tasks[i].join();
+        }
+    }
+
+    /**
+     * Draws the given rows, where {@code r}, {@code g}, and {@code b} are the
+     * complements of the fully saturated hue.
+     */
+    private static void renderRows(int[] pixels, int width, int height,
+                                   int from, int to, float r, float g, float b) {
+        float xScale = 1f / Math.max(width - 1, 1);
+        float yScale = 255f / Math.max(height - 1, 1);
+        for (int y = from; y < to; y++) {
+            float value = (height - 1 - y) * yScale;
+            int row = y * width;
+            for (int x = 0; x < width; x++) {
+                float saturation = x * xScale;
+                int red = (int) (value * (1 - saturation * r) + 0.5f);
+                int green = (int) (value * (1 - saturation * g) + 0.5f);
+                int blue = (int) (value * (1 - saturation * b) + 0.5f);
+                pixels[row + x] = (red << 16) | (green << 8) | blue;
+            }
+        }
+    }
+
+}
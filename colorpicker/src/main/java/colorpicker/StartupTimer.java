@@ -0,0 +1,113 @@
+package colorpicker;
+
+import java.io.PrintStream;
+import java.time.Instant;
+import java.util.Arrays;
+
+/**
+ * The {@code StartupTimer} class contains the timings of the phases of
+ * starting the picker, measured from when this class is first loaded at the
+ * start of {@link ColorPicker#main(String[])}.
+ *
+ * <p>Timings are printed to standard error once startup completes if the
+ * {@link #TIMING_PROPERTY} system property is {@code true}. If the
+ * {@link #EXIT_PROPERTY} system property is {@code true}, the picker exits
+ * right after, which allows scripts to measure cold starts and to record
+ * class data sharing archives.
+ *
+ * @author Oliver Abdulrahim
+ */
+final class StartupTimer {
+
+    /**
+     * Stores the name of the system property enabling the startup report.
+     */
+    static final String TIMING_PROPERTY = "colorpicker.startupTiming";
+
+    /**
+     * Stores the name of the system property exiting once started.
+     */
+    static final String EXIT_PROPERTY = "colorpicker.exitAfterStartup";
+
+    /**
+     * Stores the time this class was loaded, in nanoseconds.
+     */
+    private static final long ORIGIN_NANOS = System.nanoTime();
+
+    /**
+     * Stores the time this class was loaded, in epoch milliseconds.
+     */
+    private static final long ORIGIN_MILLIS = System.currentTimeMillis();
+
+    /**
+     * Stores the names of the marked phases.
+     */
+    private static String[] phases = new String[8];
+
+    /**
+     * Stores the time each phase ended, in nanoseconds.
+     */
+    private static long[] times = new long[8];
+
+    /**
+     * Stores the amount of marked phases.
+     */
+    private static int count;
+
+    /**
+     * Suppresses default constructor, ensuring non-instantiability.
+     */
+    private StartupTimer() {
+
+    }
+
+    /**
+     * Marks the end of the given phase.
+     *
+     * @param phase The name of the phase that ended.
+     */
+    static synchronized void mark(String phase) {
+        if (count == phases.length) {
+            phases = Arrays.copyOf(phases, 2 * count);
+            times = Arrays.copyOf(times, 2 * count);
+        }
+        phases[count] = phase;
+        times[count] = System.nanoTime();
+        count++;
+    }
+
+    /**
+     * Marks the end of startup, then prints the report and exits as requested
+     * by the system properties of this class.
+     */
+    static void finish() {
+        mark("Startup complete");
+        if (Boolean.getBoolean(TIMING_PROPERTY) || Boolean.getBoolean(EXIT_PROPERTY)) {
+            report(System.err);
+        }
+        if (Boolean.getBoolean(EXIT_PROPERTY)) {
+            System.exit(0);
+        }
+    }
+
+    /**
+     * Prints the time of every marked phase since the start of {@code main},
+     * along with its own duration. The time the JVM took to reach
+     * {@code main} is printed first, if the platform reports it.
+     *
+     * @param out The stream to print to.
+     */
+    static synchronized void report(PrintStream out) {
+        ProcessHandle.current().info().startInstant()
+                .map(Instant :: toEpochMilli)
+                .ifPresent(start -> out.printf("%-24s %8d ms%n",
+                        "JVM start to main", ORIGIN_MILLIS - start));
+        long previous = ORIGIN_NANOS;
+        for (int i = 0; i < count; i++) {
+            out.printf("%-24s %8.1f ms (+%.1f ms)%n", phases[i],
+                       (times[i] - ORIGIN_NANOS) / 1e6, (times[i] - previous) / 1e6);
+            previous = times[i];
+        }
+    }
+
+}
@@ -0,0 +1,167 @@
+package colorpicker;
+
+import java.awt.Color;
+import java.awt.Dimension;
+import java.awt.event.HierarchyEvent;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import javax.swing.BorderFactory;
+import javax.swing.GroupLayout;
+import javax.swing.JButton;
+import javax.swing.JLabel;
+import javax.swing.JPanel;
+import javax.swing.JSlider;
+import javax.swing.LayoutStyle;
+import javax.swing.event.ChangeEvent;
+
+/**
+ * The {@code TimelinePanel} class contains a slider over every step of an
+ * {@link UndoTimeline}. Dragging it replays the color of each step it passes
+ * into the model, and the buttons step back and forth one edit at a time.
+ *
+ * @author Oliver Abdulrahim
+ */
+public class TimelinePanel extends JPanel {
+
+    private static final long serialVersionUID = 3570128469L;
+
+    /**
+     * Stores the format of the time of a step.
+     */
+    private static final DateTimeFormatter TIME_FORMAT =
+            DateTimeFormatter.ofPattern("HH:mm:ss").withZone(ZoneId.systemDefault());
+
+    /**
+     * Stores the timeline viewed by this panel.
+     */
+    private final UndoTimeline timeline;
+
+    /**
+     * Stores whether or not the slider is being updated from the timeline, in
+     * which case its events are ignored.
+     */
+    private boolean syncing;
+
+// GUI elements
+    private JSlider stepSlider;
+    private JLabel stepLabel;
+    private JLabel stepSwatch;
+    private JButton undoButton;
+    private JButton redoButton;
+
+    /**
+     * Creates a new {@code TimelinePanel} viewing the given timeline.
+     *
+     * @param timeline The timeline to view.
+     */
+    public TimelinePanel(UndoTimeline timeline) {
+        this.timeline = timeline;
+        initComponents();
+        timeline.addChangeListener(this :: timelineStateChanged);
+        addHierarchyListener(this :: hierarchyChanged);
+        refresh();
+    }
+
+    private void initComponents() {
+        stepSlider = new JSlider();
+        stepLabel = new JLabel();
+        stepSwatch = new JLabel();
+        undoButton = new JButton();
+        redoButton = new JButton();
+
+        stepSlider.setMinimum(0);
+        stepSlider.addChangeListener(this :: stepSliderStateChanged);
+
+        stepSwatch.setOpaque(true);
+        stepSwatch.setBorder(BorderFactory.createLineBorder(Color.GRAY));
+        stepSwatch.setPreferredSize(new Dimension(20, 20));
+
+        undoButton.setText("Undo");
+        undoButton.addActionListener(evt -> timeline.undo());
+
+        redoButton.setText("Redo");
+        redoButton.addActionListener(evt -> timeline.redo());
+
+        GroupLayout layout = new GroupLayout(this);
+        setLayout(layout);
+        layout.setHorizontalGroup(
+            layout.createParallelGroup(GroupLayout.Alignment.LEADING)
+            .addGroup(layout.createSequentialGroup()
+                .addContainerGap()
+                .addGroup(layout.createParallelGroup(GroupLayout.Alignment.LEADING)
+                    .addComponent(stepSlider, GroupLayout.DEFAULT_SIZE, GroupLayout.DEFAULT_SIZE, Short.MAX_VALUE)
+                    .addGroup(layout.createSequentialGroup()
+                        .addComponent(stepSwatch, GroupLayout.PREFERRED_SIZE, 20, GroupLayout.PREFERRED_SIZE)
+                        .addPreferredGap(LayoutStyle.ComponentPlacement.RELATED)
+                        .addComponent(stepLabel, GroupLayout.DEFAULT_SIZE, GroupLayout.DEFAULT_SIZE, Short.MAX_VALUE))
+                    .addGroup(layout.createSequentialGroup()
+                        .addComponent(undoButton)
+                        .addPreferredGap(LayoutStyle.ComponentPlacement.RELATED)
+                        .addComponent(redoButton)))
+                .addContainerGap())
+        );
+        layout.setVerticalGroup(
+            layout.createParallelGroup(GroupLayout.Alignment.LEADING)
+            .addGroup(layout.createSequentialGroup()
+                .addContainerGap()
+                .addComponent(stepSlider, GroupLayout.PREFERRED_SIZE, GroupLayout.DEFAULT_SIZE, GroupLayout.PREFERRED_SIZE)
+                .addPreferredGap(LayoutStyle.ComponentPlacement.RELATED)
+                .addGroup(layout.createParallelGroup(GroupLayout.Alignment.CENTER)
+                    .addComponent(stepSwatch, GroupLayout.PREFERRED_SIZE, 20, GroupLayout.PREFERRED_SIZE)
+                    .addComponent(stepLabel))
+                .addPreferredGap(LayoutStyle.ComponentPlacement.UNRELATED)
+                .addGroup(layout.createParallelGroup(GroupLayout.Alignment.BASELINE)
+                    .addComponent(undoButton)
+                    .addComponent(redoButton))
+                .addContainerGap(GroupLayout.DEFAULT_SIZE, Short.MAX_VALUE))
+        );
+    }
+
+    private void stepSliderStateChanged(ChangeEvent evt) {
+        if (!syncing) {
+            timeline.seek(stepSlider.getValue());
+        }
+    }
+
+    private void timelineStateChanged(ChangeEvent evt) {
+        refresh();
+    }
+
+    /**
+     * Refreshes the current step once this panel becomes visible.
+     */
+    private void hierarchyChanged(HierarchyEvent evt) {
+        if ((evt.getChangeFlags() & HierarchyEvent.SHOWING_CHANGED) != 0 && isShowing()) {
+            refresh();
+        }
+    }
+
+    /**
+     * Updates the slider, the description of the current step, and the
+     * buttons from the timeline. Skipped while this panel is not showing,
+     * since it is redone once the panel is shown.
+     */
+    private void refresh() {
+        if (!isShowing()) {
+            return;
+        }
+        int cursor = timeline.getCursor();
+        int size = timeline.size();
+        syncing = true;
+        try {
+            stepSlider.getModel().setRangeProperties(cursor, 0, 0, size - 1,
+                                                  stepSlider.getValueIsAdjusting());
+        } finally {
+            syncing = false;
+        }
+        int rgb = timeline.getColor(cursor);
+        stepSwatch.setBackground(new Color(rgb));
+        stepLabel.setText(String.format("Step %d of %d   %s   %s", cursor + 1, size,
+                PackedColor.toHexString(rgb),
+                TIME_FORMAT.format(Instant.ofEpochMilli(timeline.getTime(cursor)))));
+        undoButton.setEnabled(timeline.canUndo());
+        redoButton.setEnabled(timeline.canRedo());
+    }
+
+}
@@ -0,0 +1,349 @@
+package colorpicker;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+import javax.swing.event.ChangeEvent;
+import javax.swing.event.ChangeListener;
+import javax.swing.event.EventListenerList;
+
+/**
+ * The {@code UndoTimeline} class contains the sequence of colors a
+ * {@link ColorModel} went through, so edits can be undone, redone, or
+ * revisited at any step.
+ *
+ * <p>Steps are kept in a ring of parallel primitive arrays, one packed color
+ * and one timestamp per step, allocated once. Once the ring is full, the
+ * oldest step is dropped for each new one, so memory stays constant no matter
+ * how long the picker runs. Changes made while the model is adjusting, such
+ * as a slider drag, and changes made in quick succession, such as holding a
+ * spinner arrow, update the newest step in place instead of adding steps.
+ * Moving through the timeline only moves a cursor and never records.
+ *
+ * <p>Like the rest of Swing, this class is not thread-safe and should only be
+ * used from the event dispatch thread.
+ *
+ * @author Oliver Abdulrahim
+ */
+public final class UndoTimeline {
+
+    /**
+     * Stores the default amount of steps kept.
+     */
+    public static final int DEFAULT_CAPACITY = 1 << 16;
+
+    /**
+     * Stores the time, in milliseconds, within which a change is merged with
+     * the one before it.
+     */
+    public static final long MERGE_INTERVAL = 400;
+
+    /**
+     * Stores the {@link #MERGE_INTERVAL} in nanoseconds.
+     */
+    private static final long MERGE_NANOS = TimeUnit.MILLISECONDS.toNanos(MERGE_INTERVAL);
+
+    /**
+     * Stores the model recorded by this timeline.
+     */
+    private final ColorModel model;
+
+    /**
+     * Stores the packed color of each step.
+     */
+    private final int[] colors;
+
+    /**
+     * Stores the time each step was last changed, in milliseconds since the
+     * epoch.
+     */
+    private final long[] times;
+
+    /**
+     * Stores the monotonic clock changes are merged by, in nanoseconds.
+     */
+    private final LongSupplier clock;
+
+    /**
+     * Stores the time, on the {@link #clock}, the newest step was last
+     * changed. Unlike the wall clock, it is not affected by system time
+     * changes.
+     */
+    private long changeTime;
+
+    /**
+     * Stores the index in the ring of the oldest step.
+     */
+    private int head;
+
+    /**
+     * Stores the amount of steps kept.
+     */
+    private int size;
+
+    /**
+     * Stores the position of the current step, from {@code 0} for the oldest
+     * to {@code size - 1} for the newest.
+     */
+    private int cursor;
+
+    /**
+     * Stores whether or not this timeline is changing the model, in which
+     * case its events are ignored.
+     */
+    private boolean replaying;
+
+    /**
+     * Stores whether or not the newest step was recorded while the model was
+     * adjusting, in which case further adjusting changes are merged into it.
+     */
+    private boolean merging;
+
+    /**
+     * Stores the listeners of this timeline.
+     */
+    private final EventListenerList listenerList = new EventListenerList();
+
+    /**
+     * Stores the only event ever sent by this timeline.
+     */
+    private final ChangeEvent changeEvent = new ChangeEvent(this);
+
+    /**
+     * Creates a new {@code UndoTimeline} recording the given model and
+     * keeping {@link #DEFAULT_CAPACITY} steps.
+     *
+     * @param model The model to record.
+     */
+    public UndoTimeline(ColorModel model) {
+        this(model, DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Creates a new {@code UndoTimeline} recording the given model, starting
+     * with its current color.
+     *
+     * @param model The model to record.
+     * @param capacity The maximum amount of steps kept, at least {@code 2}.
+     */
+    public UndoTimeline(ColorModel model, int capacity) {
+        this(model, capacity, System :: nanoTime);
+    }
+
+    /**
+     * Creates a new {@code UndoTimeline} recording the given model and
+     * merging changes by the given clock.
+     *
+     * @param model The model to record.
+     * @param capacity The maximum amount of steps kept, at least {@code 2}.
+     * @param clock The monotonic clock to merge changes by, in nanoseconds.
+     */
+    UndoTimeline(ColorModel model, int capacity, LongSupplier clock) {
+        if (capacity < 2) {
+            throw new IllegalArgumentException("Capacity must be at least 2: " + capacity);
+        }
+        this.model = model;
+        this.clock = clock;
+        colors = new int[capacity];
+        times = new long[capacity];
+        colors[0] = model.getRGB();
+        times[0] = System.currentTimeMillis();
+        changeTime = clock.getAsLong();
+        size = 1;
+        model.addChangeListener(this :: modelStateChanged);
+    }
+
+    /**
+     * Records the color of the model, merging it into the newest step if it
+     * continues a drag or follows it closely.
+     */
+    private void modelStateChanged(ChangeEvent evt) {
+        if (replaying) {
+            return;
+        }
+        boolean adjusting = model.getValueIsAdjusting();
+        int rgb = model.getRGB();
+        int current = slot(cursor);
+        if (rgb == colors[current]) {
+            merging &= adjusting;
+            return;
+        }
+        long now = clock.getAsLong();
+        boolean newest = cursor == size - 1;
+        boolean merge = newest && cursor > 0
+                && ((adjusting && merging) || now - changeTime < MERGE_NANOS);
+        record(rgb, System.currentTimeMillis(), merge);
+        changeTime = now;
+        merging = adjusting;
+        fireStateChanged();
+    }
+
+    /**
+     * Stores the given color as the step after the current one, dropping
+     * every step that could be redone, or updates the current step in place.
+     */
+    private void record(int rgb, long time, boolean merge) {
+        size = cursor + 1;
+        if (!merge) {
+            if (size == colors.length) {
+                head = slot(1);
+                size--;
+            }
+            cursor = size;
+            size++;
+        }
+        int slot = slot(cursor);
+        colors[slot] = rgb;
+        times[slot] = time;
+    }
+
+    /**
+     * Returns the index in the ring of the given step.
+     */
+    private int slot(int step) {
+        int slot = head + step;
+        return (slot >= colors.length) ? slot - colors.length : slot;
+    }
+
+    /**
+     * Returns the maximum amount of steps kept.
+     *
+     * @return The capacity of this timeline.
+     */
+    public int getCapacity() {
+        return colors.length;
+    }
+
+    /**
+     * Returns the amount of steps kept, including the current one and the
+     * ones that can be redone.
+     *
+     * @return The size of this timeline.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the position of the current step.
+     *
+     * @return The current step, from {@code 0} for the oldest to
+     *         {@code size() - 1} for the newest.
+     */
+    public int getCursor() {
+        return cursor;
+    }
+
+    /**
+     * Returns the color of the given step.
+     *
+     * @param step The position of the step.
+     * @return The packed color of the step.
+     */
+    public int getColor(int step) {
+        return colors[slot(checkStep(step))];
+    }
+
+    /**
+     * Returns the time the given step was last changed.
+     *
+     * @param step The position of the step.
+     * @return The time of the step, in milliseconds since the epoch.
+     */
+    public long getTime(int step) {
+        return times[slot(checkStep(step))];
+    }
+
+    private int checkStep(int step) {
+        if (step < 0 || step >= size) {
+            throw new IndexOutOfBoundsException("Step " + step + " of " + size);
+        }
+        return step;
+    }
+
+    /**
+     * Returns whether or not there is a step before the current one.
+     *
+     * @return {@code true} if an edit can be undone, {@code false} otherwise.
+     */
+    public boolean canUndo() {
+        return cursor > 0;
+    }
+
+    /**
+     * Returns whether or not there is a step after the current one.
+     *
+     * @return {@code true} if an edit can be redone, {@code false} otherwise.
+     */
+    public boolean canRedo() {
+        return cursor < size - 1;
+    }
+
+    /**
+     * Moves to the step before the current one, if any.
+     */
+    public void undo() {
+        if (canUndo()) {
+            seek(cursor - 1);
+        }
+    }
+
+    /**
+     * Moves to the step after the current one, if any.
+     */
+    public void redo() {
+        if (canRedo()) {
+            seek(cursor + 1);
+        }
+    }
+
+    /**
+     * Moves to the given step, setting the model to its color. The steps
+     * after it are kept until the next edit.
+     *
+     * @param step The position of the step.
+     */
+    public void seek(int step) {
+        int rgb = colors[slot(checkStep(step))];
+        if (step == cursor && rgb == model.getRGB()) {
+            return;
+        }
+        cursor = step;
+        merging = false;
+        replaying = true;
+        try {
+            model.setRGB(rgb);
+        } finally {
+            replaying = false;
+        }
+        fireStateChanged();
+    }
+
+    /**
+     * Adds the given listener, notified whenever a step is recorded or the
+     * cursor moves.
+     *
+     * @param l The listener to add.
+     */
+    public void addChangeListener(ChangeListener l) {
+        listenerList.add(ChangeListener.class, l);
+    }
+
+    /**
+     * Removes the given listener from this timeline.
+     *
+     * @param l The listener to remove.
+     */
+    public void removeChangeListener(ChangeListener l) {
+        listenerList.remove(ChangeListener.class, l);
+    }
+
+    private void fireStateChanged() {
+        Object[] listeners = listenerList.getListenerList();
+        for (int i = listeners.length - 2; i >= 0; i -= 2) {
+            if (listeners[i] == ChangeListener.class) {
+                ((ChangeListener) listeners[i + 1]).stateChanged(changeEvent);
+            }
+        }
+    }
+
+}
@@ -0,0 +1,94 @@
+package colorpicker;
+
+/**
+ * The {@code WcagContrast} class contains the relative luminance and contrast
+ * ratio of colors as defined by the Web Content Accessibility Guidelines.
+ * Relative luminance is looked up per component from precomputed tables, so
+ * it costs three loads and two additions.
+ *
+ * @author Oliver Abdulrahim
+ */
+public final class WcagContrast {
+
+    /**
+     * Stores the minimum contrast ratio of normal text at level AA.
+     */
+    public static final double AA = 4.5;
+
+    /**
+     * Stores the minimum contrast ratio of large text at level AA.
+     */
+    public static final double AA_LARGE = 3;
+
+    /**
+     * Stores the minimum contrast ratio of normal text at level AAA.
+     */
+    public static final double AAA = 7;
+
+    /**
+     * Stores the flare added to both luminances of a contrast ratio.
+     */
+    public static final float FLARE = 0.05f;
+
+    /**
+     * Stores the contribution of each red, green, and blue component value to
+     * the relative luminance.
+     */
+    private static final float[] RED_LUMINANCE = new float[256];
+    private static final float[] GREEN_LUMINANCE = new float[256];
+    private static final float[] BLUE_LUMINANCE = new float[256];
+
+    static {
+        for (int i = 0; i < 256; i++) {
+            float linear = ColorConversions.toLinear(i);
+            RED_LUMINANCE[i] = 0.2126f * linear;
+            GREEN_LUMINANCE[i] = 0.7152f * linear;
+            BLUE_LUMINANCE[i] = 0.0722f * linear;
+        }
+    }
+
+    /**
+     * Suppresses default constructor, ensuring non-instantiability.
+     */
+    private WcagContrast() {
+
+    }
+
+    /**
+     * Returns the relative luminance of the given color.
+     *
+     * @param rgb The packed color.
+     * @return The relative luminance, in {@code [0, 1]}.
+     */
+    public static float luminance(int rgb) {
+        return RED_LUMINANCE[(rgb >>> 16) & 0xFF]
+             + GREEN_LUMINANCE[(rgb >>> 8) & 0xFF]
+             + BLUE_LUMINANCE[rgb & 0xFF];
+    }
+
+    /**
+     * Returns the contrast ratio between the given colors, in either order.
+     *
+     * @param rgb1 The first packed color.
+     * @param rgb2 The second packed color.
+     * @return The contrast ratio, in {@code [1, 21]}.
+     */
+    public static double contrastRatio(int rgb1, int rgb2) {
+        return contrastRatio(luminance(rgb1), luminance(rgb2));
+    }
+
+    /**
+     * Returns the contrast ratio between colors of the given relative
+     * luminances, in either order.
+     *
+     * @param luminance1 The first relative luminance.
+     * @param luminance2 The second relative luminance.
+     * @return The contrast ratio, in {@code [1, 21]}.
+     */
+    public static double contrastRatio(double luminance1, double luminance2) {
+        double lighter = Math.max(luminance1, luminance2);
+        double darker = Math.min(luminance1, luminance2);
+        return (lighter + FLARE) / (darker + FLARE);
+    }
+
+}
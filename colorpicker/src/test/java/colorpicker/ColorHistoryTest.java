@@ -0,0 +1,40 @@
+package colorpicker;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * The {@code ColorHistoryTest} class contains tests of the opening and
+ * closing of a {@link ColorHistory}.
+ *
+ * @author Oliver Abdulrahim
+ */
+class ColorHistoryTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void closingWritesPendingColors() throws IOException {
+        for (int i = 0; i < 3; i++) {
+            ColorHistory history = ColorHistory.open(directory);
+            history.add(0x102030 * (i + 1));
+            history.setFavorite(0x102030, i % 2 == 0);
+            history.close();
+            history.close();
+        }
+        try (ColorLog log = ColorLog.open(directory.resolve("history.log"))) {
+            ColorLog.Snapshot snapshot = log.snapshot();
+            assertEquals(3, snapshot.size());
+            assertEquals(0x306090, snapshot.getValue(2));
+        }
+        try (ColorLog log = ColorLog.open(directory.resolve("favorites.log"))) {
+            assertEquals(3, log.size());
+        }
+    }
+
+}
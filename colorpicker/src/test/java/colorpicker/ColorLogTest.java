@@ -0,0 +1,117 @@
+package colorpicker;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * The {@code ColorLogTest} class contains tests of the file format, the
+ * compaction, and the snapshots of the {@link ColorLog}.
+ *
+ * @author Oliver Abdulrahim
+ */
+class ColorLogTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void writesHeaderAndRecords() throws IOException {
+        Path file = directory.resolve("colors.log");
+        try (ColorLog log = ColorLog.open(file)) {
+            log.append(1000L, 0xFF8000);
+            log.append(2000L, 0x123456);
+        }
+        ByteBuffer bytes = ByteBuffer.wrap(Files.readAllBytes(file));
+        assertEquals(0x43504C47, bytes.getInt(0));
+        assertEquals(1, bytes.getInt(4));
+        assertEquals(2, bytes.getLong(8));
+        assertEquals(0, bytes.getLong(16));
+        assertEquals(1000L, bytes.getLong(ColorLog.HEADER_SIZE));
+        assertEquals(0xFF8000, bytes.getInt(ColorLog.HEADER_SIZE + 8));
+        assertEquals(2000L, bytes.getLong(ColorLog.HEADER_SIZE + ColorLog.RECORD_SIZE));
+        assertEquals(0x123456, bytes.getInt(ColorLog.HEADER_SIZE + ColorLog.RECORD_SIZE + 8));
+    }
+
+    @Test
+    void reopensCommittedRecords() throws IOException {
+        Path file = directory.resolve("colors.log");
+        try (ColorLog log = ColorLog.open(file)) {
+            for (int i = 0; i < 10_000; i++) {
+                log.append(i, i * 31);
+            }
+        }
+        try (ColorLog log = ColorLog.open(file)) {
+            ColorLog.Snapshot snapshot = log.snapshot();
+            assertEquals(10_000, snapshot.size());
+            for (int i = 0; i < 10_000; i++) {
+                assertEquals(i, snapshot.getTime(i));
+                assertEquals(i * 31, snapshot.getValue(i));
+            }
+        }
+    }
+
+    @Test
+    void rejectsOtherFiles() throws IOException {
+        Path file = directory.resolve("other.log");
+        Files.write(file, new byte[ColorLog.HEADER_SIZE + 4]);
+        assertThrows(IOException.class, () -> ColorLog.open(file));
+    }
+
+    @Test
+    void compactionKeepsNewestRecordOfEachColorInOrder() throws IOException {
+        Path file = directory.resolve("colors.log");
+        try (ColorLog log = ColorLog.open(file)) {
+            for (int i = 0; i < 5000; i++) {
+                log.append(i, i % 700);
+            }
+            log.compact(value -> value % 2 == 0);
+            ColorLog.Snapshot snapshot = log.snapshot();
+            assertEquals(350, snapshot.size());
+            long previous = -1;
+            for (int i = 0; i < snapshot.size(); i++) {
+                int value = snapshot.getValue(i);
+                long time = snapshot.getTime(i);
+                assertEquals(0, value % 2);
+                assertEquals(value, time % 700);
+                assertTrue(time >= 5000 - 700 && time > previous);
+                previous = time;
+            }
+            log.append(6000L, 0xABCDEF);
+        }
+        try (ColorLog log = ColorLog.open(file)) {
+            assertEquals(351, log.size());
+            assertEquals(0xABCDEF, log.snapshot().getValue(350));
+        }
+    }
+
+    @Test
+    void snapshotsStopValidatingOnceCompacted() throws IOException {
+        try (ColorLog log = ColorLog.open(directory.resolve("colors.log"))) {
+            for (int i = 0; i < 2000; i++) {
+                log.append(i, i % 10);
+            }
+            ColorLog.Snapshot before = log.snapshot();
+            before.getValue(1999);
+            log.append(2000L, 0x123456);
+            assertTrue(before.validate());
+
+            log.compact(value -> true);
+            assertFalse(before.validate());
+            ColorLog.Snapshot after = log.snapshot();
+            assertEquals(11, after.size());
+            assertTrue(after.validate());
+            log.append(3000L, 0x654321);
+            assertTrue(after.validate());
+        }
+    }
+
+}
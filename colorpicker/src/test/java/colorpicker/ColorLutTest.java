@@ -0,0 +1,73 @@
+package colorpicker;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+/**
+ * The {@code ColorLutTest} class contains tests of the parsing and the
+ * interpolation of {@code .cube} files by the {@link ColorLut}.
+ *
+ * @author Oliver Abdulrahim
+ */
+class ColorLutTest {
+
+    /**
+     * Returns the text of an identity {@code .cube} file of the given size,
+     * with red changing fastest.
+     */
+    private static String identity(int size) {
+        StringBuilder text = new StringBuilder("TITLE \"Identity\"\n# Comment\n");
+        text.append("LUT_3D_SIZE ").append(size).append('\n');
+        for (int b = 0; b < size; b++) {
+            for (int g = 0; g < size; g++) {
+                for (int r = 0; r < size; r++) {
+                    text.append(String.format(Locale.ROOT, "%.6f %.6f %.6f%n",
+                            r / (size - 1.0), g / (size - 1.0), b / (size - 1.0)));
+                }
+            }
+        }
+        return text.toString();
+    }
+
+    private static ColorLut read(String text) throws IOException {
+        return ColorLut.read(new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @Test
+    void identityTableReproducesItsInput() throws IOException {
+        for (int size : new int[] { 2, 17, 33 }) {
+            ColorLut lut = read(identity(size));
+            assertEquals("Identity", lut.getTitle());
+            assertEquals(size, lut.getSize());
+            Random random = new Random(size);
+            int[] colors = new int[10_000];
+            for (int i = 0; i < colors.length; i++) {
+                colors[i] = (i < 256) ? PackedColor.pack(i, 255 - i, i) : random.nextInt(1 << 24);
+            }
+            for (ColorLut.Interpolation interpolation : ColorLut.Interpolation.values()) {
+                int[] output = new int[colors.length];
+                lut.apply(colors, 0, output, 0, colors.length, interpolation);
+                for (int i = 0; i < colors.length; i++) {
+                    assertEquals(colors[i], lut.apply(colors[i], interpolation));
+                    assertEquals(colors[i], output[i]);
+                }
+            }
+        }
+    }
+
+    @Test
+    void rejectsMalformedTables() {
+        assertThrows(IOException.class, () -> read("0 0 0\n"));
+        assertThrows(IOException.class, () -> read("LUT_3D_SIZE 2\n0 0 0\n"));
+        assertThrows(IOException.class, () -> read("LUT_1D_SIZE 2\n"));
+        assertThrows(IOException.class, () -> read("LUT_3D_SIZE 1\n0 0 0\n"));
+    }
+
+}
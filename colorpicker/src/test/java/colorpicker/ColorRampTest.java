@@ -0,0 +1,87 @@
+package colorpicker;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import org.junit.jupiter.api.Test;
+
+/**
+ * The {@code ColorRampTest} class contains tests of the interpolation and
+ * the export formats of the {@link ColorRamp}.
+ *
+ * @author Oliver Abdulrahim
+ */
+class ColorRampTest {
+
+    /**
+     * Stores the length of an ASE swatch block after its type and length:
+     * the name length, seven UTF-16 characters and a terminator, the color
+     * model, three floats, and the swatch type.
+     */
+    private static final int BLOCK_LENGTH = 2 + 2 * 8 + 4 + 3 * 4 + 2;
+
+    private static byte[] write(ColorRamp ramp, ColorRamp.Format format) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ramp.write(format, Channels.newChannel(out));
+        return out.toByteArray();
+    }
+
+    @Test
+    void rampStartsAndEndsAtItsStops() {
+        ColorRamp ramp = ColorRamp.between(0x1A1A70, 0xFFD700, 65_536);
+        assertEquals(65_536, ramp.size());
+        assertEquals(0x1A1A70, ramp.get(0));
+        assertEquals(0xFFD700, ramp.get(ramp.size() - 1));
+        assertEquals(0x808080, ColorRamp.between(0x808080, 0x808080, 5).get(2));
+    }
+
+    @Test
+    void writesAseHeaderAndBlocks() throws IOException {
+        ColorRamp ramp = ColorRamp.between(0x000000, 0xFF8000, 3);
+        ByteBuffer bytes = ByteBuffer.wrap(write(ramp, ColorRamp.Format.ASE));
+        assertEquals(12 + 3 * (6 + BLOCK_LENGTH), bytes.remaining());
+
+        byte[] signature = new byte[4];
+        bytes.get(signature);
+        assertEquals("ASEF", new String(signature, StandardCharsets.US_ASCII));
+        assertEquals(1, bytes.getShort());
+        assertEquals(0, bytes.getShort());
+        assertEquals(3, bytes.getInt());
+
+        for (int step = 0; step < 3; step++) {
+            int rgb = ramp.get(step);
+            assertEquals(0x0001, bytes.getShort());
+            assertEquals(BLOCK_LENGTH, bytes.getInt());
+            assertEquals(8, bytes.getShort());
+            StringBuilder name = new StringBuilder();
+            for (int i = 0; i < 7; i++) {
+                name.append(bytes.getChar());
+            }
+            assertEquals(PackedColor.appendHex(rgb, new StringBuilder()).toString(),
+                         name.toString());
+            assertEquals('\0', bytes.getChar());
+            byte[] model = new byte[4];
+            bytes.get(model);
+            assertEquals("RGB ", new String(model, StandardCharsets.US_ASCII));
+            assertEquals(PackedColor.red(rgb) / 255f, bytes.getFloat());
+            assertEquals(PackedColor.green(rgb) / 255f, bytes.getFloat());
+            assertEquals(PackedColor.blue(rgb) / 255f, bytes.getFloat());
+            assertEquals(2, bytes.getShort());
+        }
+        assertEquals(0, bytes.remaining());
+    }
+
+    @Test
+    void writesCssAndJson() throws IOException {
+        ColorRamp ramp = ColorRamp.between(0x000000, 0xFFFFFF, 2);
+        String css = new String(write(ramp, ColorRamp.Format.CSS), StandardCharsets.US_ASCII);
+        String json = new String(write(ramp, ColorRamp.Format.JSON), StandardCharsets.US_ASCII);
+        assertEquals(":root {\n  --color-0: #000000;\n  --color-1: #FFFFFF;\n}\n", css);
+        assertEquals("[\n  \"#000000\",\n  \"#FFFFFF\"\n]\n", json);
+    }
+
+}
@@ -0,0 +1,57 @@
+package colorpicker;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+/**
+ * The {@code ColorSpaceTest} class contains tests of the bulk conversions of
+ * the {@link ColorSpace}.
+ *
+ * @author Oliver Abdulrahim
+ */
+class ColorSpaceTest {
+
+    @Test
+    void bulkConversionsMatchSingleConversions() {
+        Random random = new Random(5);
+        // Large enough to be split across threads
+        int[] colors = new int[100_003];
+        for (int i = 0; i < colors.length; i++) {
+            colors[i] = random.nextInt(1 << 24);
+        }
+        float[] single = new float[ColorSpace.COMPONENTS];
+        for (ColorSpace space : ColorSpace.values()) {
+            float[] components = new float[1 + colors.length * ColorSpace.COMPONENTS];
+            int[] rgb = new int[colors.length + 1];
+            space.fromRGB(colors, 0, components, 1, colors.length);
+            space.toRGB(components, 1, rgb, 1, colors.length);
+            for (int i = 0; i < colors.length; i++) {
+                space.fromRGB(colors[i], single, 0);
+                int j = 1 + i * ColorSpace.COMPONENTS;
+                for (int k = 0; k < ColorSpace.COMPONENTS; k++) {
+                    assertEquals(single[k], components[j + k], space.name());
+                }
+                assertEquals(space.toRGB(single[0], single[1], single[2]), rgb[i + 1],
+                             space.name());
+            }
+        }
+    }
+
+    @Test
+    void rejectsRangesOutOfBounds() {
+        int[] rgb = new int[4];
+        float[] components = new float[4 * ColorSpace.COMPONENTS];
+        assertThrows(ArrayIndexOutOfBoundsException.class,
+                     () -> ColorSpace.LAB.fromRGB(rgb, 1, components, 0, 4));
+        assertThrows(ArrayIndexOutOfBoundsException.class,
+                     () -> ColorSpace.LAB.toRGB(components, 3, rgb, 0, 4));
+        assertThrows(ArrayIndexOutOfBoundsException.class,
+                     () -> ColorSpace.LAB.toRGB(components, 0, rgb, Integer.MAX_VALUE, 1));
+        assertThrows(ArrayIndexOutOfBoundsException.class,
+                     () -> ColorSpace.LAB.fromRGB(rgb, -1, components, 0, 1));
+    }
+
+}
@@ -0,0 +1,76 @@
+package colorpicker;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+/**
+ * The {@code ContrastAuditTest} class contains tests of the pair counts of
+ * the {@link ContrastAudit}.
+ *
+ * @author Oliver Abdulrahim
+ */
+class ContrastAuditTest {
+
+    /**
+     * Checks the counts of an audit of the given colors against a check of
+     * every pair in both orders.
+     */
+    private static void assertCounts(int[] colors, double threshold) {
+        ContrastAudit audit = ContrastAudit.audit(colors, threshold);
+        long passing = 0;
+        for (int i = 0; i < colors.length; i++) {
+            double row = audit.getLuminance(i) + WcagContrast.FLARE;
+            int count = 0;
+            for (int j = 0; j < colors.length; j++) {
+                double other = audit.getLuminance(j) + WcagContrast.FLARE;
+                if (i != j && Math.max(row, other) >= threshold * Math.min(row, other)) {
+                    count++;
+                }
+            }
+            assertEquals(count, audit.getPassingCount(i), "Color " + i);
+            passing += count;
+        }
+        assertEquals(passing / 2, audit.getPassingPairCount());
+    }
+
+    private static int[] colors(int count, long seed) {
+        Random random = new Random(seed);
+        int[] colors = new int[count];
+        for (int i = 0; i < count; i++) {
+            colors[i] = random.nextInt(1 << 24);
+        }
+        return colors;
+    }
+
+    @Test
+    void countsAgreeWithScan() {
+        for (double threshold : new double[] { 1, 1.5, WcagContrast.AA_LARGE, WcagContrast.AA,
+                                               WcagContrast.AAA, 21, 22 }) {
+            assertCounts(colors(3000, 7), threshold);
+        }
+    }
+
+    @Test
+    void pairsPassInBothOrders() {
+        // Pairs right at the threshold, where the ratio computed from either
+        // color alone rounds differently
+        assertCounts(new int[] { 0x000058, 0xBC6556, 0x00006A, 0x757CC4 }, WcagContrast.AA);
+        assertCounts(new int[] { 0x00001C, 0x0A691C, 0x00001E, 0x6712FB },
+                     WcagContrast.AA_LARGE);
+        assertCounts(new int[] { 0x000024, 0x07AD66, 0x000055, 0x43B45B }, WcagContrast.AAA);
+    }
+
+    @Test
+    void countsEveryPairOfGrays() {
+        int[] grays = new int[256];
+        for (int i = 0; i < grays.length; i++) {
+            grays[i] = PackedColor.pack(i, i, i);
+        }
+        ContrastAudit audit = ContrastAudit.audit(grays, 1);
+        assertEquals(audit.getPairCount(), audit.getPassingPairCount());
+        assertEquals(0, ContrastAudit.audit(grays, 22).getPassingPairCount());
+    }
+
+}
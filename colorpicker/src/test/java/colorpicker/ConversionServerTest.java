@@ -0,0 +1,109 @@
+package colorpicker;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+/**
+ * The {@code ConversionServerTest} class contains tests of the responses of
+ * the {@link ConversionServer}, in particular the precision of the color
+ * space components it writes.
+ *
+ * @author Oliver Abdulrahim
+ */
+class ConversionServerTest {
+
+    private static ConversionServer server;
+    private static int port;
+
+    @BeforeAll
+    static void startServer() throws IOException {
+        server = new ConversionServer(NamedColorIndex.getDefault().join());
+        port = server.start(0);
+    }
+
+    @AfterAll
+    static void stopServer() throws IOException {
+        server.close();
+    }
+
+    /**
+     * Sends the given requests on one connection and returns the responses.
+     */
+    private static String[] query(String... requests) throws IOException {
+        try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), port)) {
+            OutputStream out = socket.getOutputStream();
+            out.write((String.join("\n", requests) + "\n").getBytes(StandardCharsets.US_ASCII));
+            out.flush();
+            BufferedReader in = new BufferedReader(
+                    new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII));
+            String[] responses = new String[requests.length];
+            for (int i = 0; i < responses.length; i++) {
+                responses[i] = in.readLine();
+            }
+            return responses;
+        }
+    }
+
+    /**
+     * Checks that a response holds the components of the given color in the
+     * given space, each written with the given amount of decimals.
+     */
+    private static void assertComponents(String response, ColorSpace space, int rgb,
+                                         int decimals) {
+        float[] expected = new float[ColorSpace.COMPONENTS];
+        space.fromRGB(rgb, expected, 0);
+        String[] fields = response.trim().split(" ");
+        assertEquals(ColorSpace.COMPONENTS, fields.length, response);
+        for (int i = 0; i < fields.length; i++) {
+            String field = fields[i];
+            assertEquals(decimals, field.length() - field.indexOf('.') - 1, response);
+            assertFalse(field.matches("-0\\.0*"), response);
+            assertEquals(expected[i], Double.parseDouble(field), 0.5 / Math.pow(10, decimals)
+                         + Math.ulp(expected[i]), response);
+        }
+    }
+
+    @Test
+    void writesOklabWithSixDecimals() throws IOException {
+        int[] colors = { 0xFF8000, 0x808080, 0x000000, 0x0000FF, 0x123456 };
+        String[] requests = new String[colors.length];
+        for (int i = 0; i < colors.length; i++) {
+            requests[i] = "CONVERT HEX OKLAB #" + String.format("%06X", colors[i]);
+        }
+        String[] responses = query(requests);
+        for (int i = 0; i < colors.length; i++) {
+            assertComponents(responses[i], ColorSpace.OKLAB, colors[i], 6);
+        }
+    }
+
+    @Test
+    void writesOtherSpacesWithFourDecimals() throws IOException {
+        String[] responses = query("CONVERT HEX XYZ #808080", "CONVERT HEX LAB #808080",
+                                   "CONVERT HEX LAB #FFFFFF");
+        assertComponents(responses[0], ColorSpace.XYZ, 0x808080, 4);
+        assertComponents(responses[1], ColorSpace.LAB, 0x808080, 4);
+        assertComponents(responses[2], ColorSpace.LAB, 0xFFFFFF, 4);
+    }
+
+    @Test
+    void answersPingAndErrors() throws IOException {
+        String[] responses = query("PING", "CONVERT HEX HEX #FF8000", "FROB",
+                                   "CONVERT HEX HEX #GGGGGG");
+        assertEquals("PONG", responses[0]);
+        assertEquals("#FF8000", responses[1]);
+        assertEquals("ERR unknown command", responses[2]);
+        assertEquals("ERR malformed color", responses[3]);
+    }
+
+}
@@ -0,0 +1,74 @@
+package colorpicker;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+/**
+ * The {@code NamedColorIndexTest} class contains tests of the nearest entry
+ * search of the {@link NamedColorIndex}.
+ *
+ * @author Oliver Abdulrahim
+ */
+class NamedColorIndexTest {
+
+    private static NamedColorIndex palette(int size, long seed) {
+        Random random = new Random(seed);
+        NamedColorIndex.Builder builder = new NamedColorIndex.Builder();
+        for (int i = 0; i < size; i++) {
+            builder.add("color" + i, random.nextInt(1 << 24));
+        }
+        return builder.build();
+    }
+
+    /**
+     * Checks that the nearest entry of each of the given colors is the first
+     * entry with the least difference, as found by scanning every entry.
+     */
+    private static void assertNearest(NamedColorIndex palette, int[] colors) {
+        for (int rgb : colors) {
+            int least = 0;
+            double leastDifference = palette.deltaE(0, rgb);
+            for (int entry = 1; entry < palette.size(); entry++) {
+                double difference = palette.deltaE(entry, rgb);
+                if (difference < leastDifference) {
+                    least = entry;
+                    leastDifference = difference;
+                }
+            }
+            assertEquals(least, palette.nearest(rgb), () -> Integer.toHexString(rgb));
+        }
+    }
+
+    private static int[] colors(int count, long seed) {
+        Random random = new Random(seed);
+        int[] colors = new int[count];
+        for (int i = 0; i < count; i++) {
+            colors[i] = (i < 256) ? PackedColor.pack(i, i, i) : random.nextInt(1 << 24);
+        }
+        return colors;
+    }
+
+    @Test
+    void nearestAgreesWithScanOfDefaultIndex() {
+        assertNearest(NamedColorIndex.getDefault().join(), colors(10_000, 3));
+    }
+
+    @Test
+    void nearestAgreesWithScanOfRandomPalettes() {
+        for (int size : new int[] { 1, 2, 5, 17, 100, 1000, 5000 }) {
+            assertNearest(palette(size, size), colors(2_000_000 / (size + 100), size));
+        }
+    }
+
+    @Test
+    void nearestFindsEveryEntry() {
+        NamedColorIndex palette = NamedColorIndex.getDefault().join();
+        for (int entry = 0; entry < palette.size(); entry++) {
+            assertEquals(0, palette.deltaE(palette.nearest(palette.getRGB(entry)),
+                                           palette.getRGB(entry)));
+        }
+    }
+
+}
@@ -0,0 +1,51 @@
+package colorpicker;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+
+import java.awt.image.BufferedImage;
+import org.junit.jupiter.api.Test;
+
+/**
+ * The {@code PaletteExtractorTest} class contains tests of the pixels read
+ * by the {@link PaletteExtractor}.
+ *
+ * @author Oliver Abdulrahim
+ */
+class PaletteExtractorTest {
+
+    /**
+     * Returns an image of the given type filled with the first color, except
+     * for its lower right quadrant, which has the second.
+     */
+    private static BufferedImage quadrants(int type, int outside, int inside) {
+        BufferedImage image = new BufferedImage(64, 48, type);
+        for (int y = 0; y < image.getHeight(); y++) {
+            for (int x = 0; x < image.getWidth(); x++) {
+                boolean quadrant = x >= 32 && y >= 24;
+                image.setRGB(x, y, quadrant ? inside : outside);
+            }
+        }
+        return image;
+    }
+
+    @Test
+    void readsOnlyThePixelsOfSubimages() {
+        for (int type : new int[] { BufferedImage.TYPE_INT_RGB, BufferedImage.TYPE_INT_ARGB,
+                                    BufferedImage.TYPE_3BYTE_BGR }) {
+            BufferedImage image = quadrants(type, 0xFFFF0000, 0xFF00FF00);
+            assertArrayEquals(new int[] { 0x00FF00 },
+                              PaletteExtractor.extract(image.getSubimage(32, 24, 32, 24), 4));
+            assertArrayEquals(new int[] { 0xFF0000 },
+                              PaletteExtractor.extract(image.getSubimage(0, 0, 32, 48), 4));
+        }
+    }
+
+    @Test
+    void skipsTransparentPixels() {
+        BufferedImage image = quadrants(BufferedImage.TYPE_INT_ARGB, 0x00000000, 0xFF0000FF);
+        assertArrayEquals(new int[] { 0x0000FF }, PaletteExtractor.extract(image, 4));
+        BufferedImage subimage = image.getSubimage(16, 12, 32, 24);
+        assertArrayEquals(new int[] { 0x0000FF }, PaletteExtractor.extract(subimage, 4));
+    }
+
+}
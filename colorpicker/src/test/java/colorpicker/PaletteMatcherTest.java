@@ -0,0 +1,96 @@
+package colorpicker;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * The {@code PaletteMatcherTest} class contains tests of the tables built by
+ * the {@link PaletteMatcher} and of the choice between a table and a search.
+ *
+ * @author Oliver Abdulrahim
+ */
+class PaletteMatcherTest {
+
+    @TempDir
+    Path directory;
+
+    private static NamedColorIndex palette(int size, long seed) {
+        Random random = new Random(seed);
+        NamedColorIndex.Builder builder = new NamedColorIndex.Builder();
+        for (int i = 0; i < size; i++) {
+            builder.add("color" + i, random.nextInt(1 << 24));
+        }
+        return builder.build();
+    }
+
+    private static long countFiles(Path directory) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.count();
+        }
+    }
+
+    @Test
+    @Tag("slow")
+    void tableAgreesWithSearch() throws IOException {
+        // Building the full table takes seconds even for a small palette
+        NamedColorIndex palette = palette(3, 42);
+        PaletteMatcher search = PaletteMatcher.of(palette);
+        PaletteMatcher table = PaletteMatcher.withTable(palette, directory);
+        assertTrue(table.hasTable());
+        Random random = new Random(11);
+        for (int i = 0; i < 200_000; i++) {
+            int rgb = random.nextInt(1 << 24);
+            assertEquals(search.match(rgb), table.match(rgb), () -> Integer.toHexString(rgb));
+        }
+        for (int i = 0; i < palette.size(); i++) {
+            assertEquals(i, table.match(palette.getRGB(i)));
+        }
+
+        // The cached table is mapped rather than built again
+        assertEquals(1, countFiles(directory));
+        PaletteMatcher cached = PaletteMatcher.withTable(palette, directory);
+        int[] colors = new int[100_000];
+        for (int i = 0; i < colors.length; i++) {
+            colors[i] = random.nextInt(1 << 24);
+        }
+        int[] expected = new int[colors.length];
+        int[] actual = new int[colors.length];
+        search.quantize(colors, 0, expected, 0, colors.length);
+        cached.quantize(colors, 0, actual, 0, colors.length);
+        for (int i = 0; i < colors.length; i++) {
+            assertEquals(expected[i], actual[i]);
+        }
+
+        // A cached table is used for any amount of colors
+        assertTrue(PaletteMatcher.forCount(palette, 1, directory).hasTable());
+    }
+
+    @Test
+    void searchesSmallInputs() throws IOException {
+        NamedColorIndex palette = palette(5, 7);
+        PaletteMatcher matcher = PaletteMatcher.forCount(palette,
+                PaletteMatcher.TABLE_THRESHOLD - 1, directory);
+        assertFalse(matcher.hasTable());
+        assertEquals(0, countFiles(directory));
+        assertFalse(PaletteMatcher.forCount(palette, 100, null).hasTable());
+
+        int[] colors = { 0x000000, 0xFFFFFF, palette.getRGB(3) };
+        int[] entries = new int[colors.length];
+        matcher.match(colors, 0, entries, 0, colors.length);
+        for (int i = 0; i < colors.length; i++) {
+            assertEquals(palette.nearest(colors[i]), entries[i]);
+        }
+        assertEquals(3, entries[2]);
+    }
+
+}
@@ -0,0 +1,137 @@
+package colorpicker;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+/**
+ * The {@code UndoTimelineTest} class contains tests of the merging,
+ * truncation, and wraparound of the {@link UndoTimeline}.
+ *
+ * @author Oliver Abdulrahim
+ */
+class UndoTimelineTest {
+
+    /**
+     * Stores the time of the fake clock the timelines merge changes by, in
+     * nanoseconds.
+     */
+    private long now = 1L << 40;
+
+    private UndoTimeline timeline(ColorModel model, int capacity) {
+        return new UndoTimeline(model, capacity, () -> now);
+    }
+
+    /**
+     * Advances the clock far enough for the next change not to be merged by
+     * time.
+     */
+    private void pause() {
+        now += TimeUnit.MILLISECONDS.toNanos(UndoTimeline.MERGE_INTERVAL);
+    }
+
+    @Test
+    void mergesChangesInQuickSuccession() {
+        ColorModel model = new ColorModel(0x000000);
+        UndoTimeline timeline = timeline(model, 8);
+        model.setRGB(0x111111);
+        model.setRGB(0x222222);
+        model.setRGB(0x333333);
+        assertEquals(2, timeline.size());
+        assertEquals(0x333333, timeline.getColor(1));
+
+        pause();
+        model.setRGB(0x444444);
+        assertEquals(3, timeline.size());
+        assertEquals(2, timeline.getCursor());
+    }
+
+    @Test
+    void mergesChangesJustUnderTheInterval() {
+        ColorModel model = new ColorModel(0x000000);
+        UndoTimeline timeline = timeline(model, 8);
+        model.setRGB(0x111111);
+        long interval = TimeUnit.MILLISECONDS.toNanos(UndoTimeline.MERGE_INTERVAL);
+        for (int i = 2; i < 6; i++) {
+            now += interval - 1;
+            model.setRGB(0x111111 * i);
+        }
+        assertEquals(2, timeline.size());
+        assertEquals(0x555555, timeline.getColor(1));
+    }
+
+    @Test
+    void mergesChangesWhileAdjusting() {
+        ColorModel model = new ColorModel(0x000000);
+        UndoTimeline timeline = timeline(model, 8);
+        model.setRGB(0x111111);
+        pause();
+        model.setValueIsAdjusting(true);
+        model.setRed(0x20);
+        pause();
+        model.setRed(0x30);
+        model.setValueIsAdjusting(false);
+        assertEquals(3, timeline.size());
+        assertEquals(0x301111, timeline.getColor(2));
+    }
+
+    @Test
+    void editAfterUndoDropsRedoSteps() {
+        ColorModel model = new ColorModel(0x000000);
+        UndoTimeline timeline = timeline(model, 8);
+        model.setRGB(0x111111);
+        pause();
+        model.setRGB(0x222222);
+        pause();
+        timeline.undo();
+        timeline.undo();
+        assertEquals(0x000000, model.getRGB());
+        assertTrue(timeline.canRedo());
+        assertFalse(timeline.canUndo());
+
+        model.setRGB(0x999999);
+        assertEquals(2, timeline.size());
+        assertEquals(1, timeline.getCursor());
+        assertEquals(0x999999, timeline.getColor(1));
+        assertFalse(timeline.canRedo());
+    }
+
+    @Test
+    void seekingNeverRecords() {
+        ColorModel model = new ColorModel(0x000000);
+        UndoTimeline timeline = timeline(model, 8);
+        model.setRGB(0x111111);
+        pause();
+        model.setRGB(0x222222);
+        timeline.seek(0);
+        timeline.seek(2);
+        timeline.seek(1);
+        assertEquals(3, timeline.size());
+        assertEquals(0x111111, model.getRGB());
+    }
+
+    @Test
+    void dropsOldestStepOnceFull() {
+        ColorModel model = new ColorModel(0x000000);
+        UndoTimeline timeline = timeline(model, 3);
+        int[] colors = { 0x111111, 0x222222, 0x333333, 0x444444 };
+        for (int rgb : colors) {
+            model.setRGB(rgb);
+            pause();
+        }
+        assertEquals(3, timeline.size());
+        assertEquals(2, timeline.getCursor());
+        assertEquals(0x222222, timeline.getColor(0));
+        assertEquals(0x333333, timeline.getColor(1));
+        assertEquals(0x444444, timeline.getColor(2));
+
+        timeline.seek(0);
+        assertEquals(0x222222, model.getRGB());
+        assertThrows(IndexOutOfBoundsException.class, () -> timeline.getColor(3));
+    }
+
+}
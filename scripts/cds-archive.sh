@@ -0,0 +1,17 @@
+#!/bin/sh
+# Records a class data sharing archive of every class loaded while starting
+# the picker, so later starts map them from the archive instead of loading
+# and verifying them again. Run after `mvn package`, on a machine with a
+# display. The picker exits on its own once it is first painted.
+#
+# Usage: scripts/cds-archive.sh [jar] [archive]
+
+JAR="${1:-colorpicker/target/ColorPicker.jar}"
+ARCHIVE="${2:-${JAR%.jar}.jsa}"
+
+java -XX:ArchiveClassesAtExit="$ARCHIVE" \
+     -Dcolorpicker.exitAfterStartup=true \
+     -jar "$JAR" --fast-start || exit 1
+
+echo "Start the picker with:"
+echo "  java -XX:SharedArchiveFile=$ARCHIVE -XX:TieredStopAtLevel=1 -jar $JAR --fast-start"